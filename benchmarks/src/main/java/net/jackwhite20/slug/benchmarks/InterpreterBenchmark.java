@@ -0,0 +1,127 @@
+/*
+ * Copyright 2018 "JackWhite20"
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.jackwhite20.slug.benchmarks;
+
+import net.jackwhite20.slug.core.SlugContext;
+import net.jackwhite20.slug.core.SlugProgram;
+import net.jackwhite20.slug.core.optimizer.Optimizer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures the tree walking interpreter on small programs which each stress one hot path. The programs are
+ * compiled once, so only the execution is measured.
+ *
+ * @author Philip 'JackWhite20' <silencephil@gmail.com>
+ */
+@State(Scope.Thread)
+public class InterpreterBenchmark {
+
+    private static final String LOOP = "func Main() {\n" +
+            "    int sum = 0\n" +
+            "    for (int i = 0; i < 10000; i = i + 1) {\n" +
+            "        sum = sum + i * 2 - 1\n" +
+            "    }\n" +
+            "}\n";
+
+    private static final String CALLS = "func Count(int n) {\n" +
+            "    if (n > 0) {\n" +
+            "        Count((n - 1))\n" +
+            "    }\n" +
+            "}\n\n" +
+            "func Main() {\n" +
+            "    for (int i = 0; i < 100; i = i + 1) {\n" +
+            "        Count(50)\n" +
+            "    }\n" +
+            "}\n";
+
+    // Far too deep for nested calls, the calls in tail position reuse the frame of their caller
+    private static final String TAIL_CALLS = "func Ping(int n) {\n" +
+            "    if (n > 0) {\n" +
+            "        Pong((n - 1))\n" +
+            "    }\n" +
+            "}\n\n" +
+            "func Pong(int n) {\n" +
+            "    if (n > 0) {\n" +
+            "        Ping((n - 1))\n" +
+            "    }\n" +
+            "}\n\n" +
+            "func Main() {\n" +
+            "    Ping(100000)\n" +
+            "}\n";
+
+    private static final String TEMPLATES = "string name = \"Slug\"\n\n" +
+            "func Main() {\n" +
+            "    int i = 0\n" +
+            "    while (i < 1000) {\n" +
+            "        string s = \"Hello $name number $i is ${i * 2}\"\n" +
+            "        i = i + 1\n" +
+            "    }\n" +
+            "}\n";
+
+    // Random has no side effect on the output, unlike WriteLine
+    private static final String BUILTINS = "func Main() {\n" +
+            "    int i = 0\n" +
+            "    while (i < 1000) {\n" +
+            "        int r = Random(1, 100)\n" +
+            "        i = i + 1\n" +
+            "    }\n" +
+            "}\n";
+
+    private SlugContext loop;
+    private SlugContext calls;
+    private SlugContext tailCalls;
+    private SlugContext templates;
+    private SlugContext builtins;
+
+    @Setup
+    public void setup() {
+        // Without the optimizer, otherwise the constant parts would be folded away
+        loop = SlugProgram.compile(LOOP, Optimizer.none()).newContext();
+        calls = SlugProgram.compile(CALLS, Optimizer.none()).newContext();
+        tailCalls = SlugProgram.compile(TAIL_CALLS, Optimizer.none()).newContext();
+        templates = SlugProgram.compile(TEMPLATES, Optimizer.none()).newContext();
+        builtins = SlugProgram.compile(BUILTINS, Optimizer.none()).newContext();
+    }
+
+    @Benchmark
+    public void loop() {
+        loop.execute();
+    }
+
+    @Benchmark
+    public void calls() {
+        calls.execute();
+    }
+
+    @Benchmark
+    public void tailCalls() {
+        tailCalls.execute();
+    }
+
+    @Benchmark
+    public void templates() {
+        templates.execute();
+    }
+
+    @Benchmark
+    public void builtins() {
+        builtins.execute();
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2018 "JackWhite20"
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.jackwhite20.slug.benchmarks;
+
+import net.jackwhite20.slug.core.lexer.Lexer;
+import net.jackwhite20.slug.core.lexer.TableLexer;
+import net.jackwhite20.slug.core.lexer.TokenSource;
+import net.jackwhite20.slug.lexer.Token;
+import net.jackwhite20.slug.lexer.TokenType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures how fast the lexers turn a source into tokens.
+ *
+ * @author Philip 'JackWhite20' <silencephil@gmail.com>
+ */
+@State(Scope.Benchmark)
+public class LexerBenchmark {
+
+    @Param({"10", "1000"})
+    private int functions;
+
+    private String source;
+
+    @Setup
+    public void setup() {
+        source = Programs.wide(functions);
+    }
+
+    @Benchmark
+    public void lexer(Blackhole blackhole) {
+        consume(new Lexer(source), blackhole);
+    }
+
+    @Benchmark
+    public void tableLexer(Blackhole blackhole) {
+        consume(new TableLexer(source), blackhole);
+    }
+
+    private static void consume(TokenSource tokenSource, Blackhole blackhole) {
+        Token token;
+        while ((token = tokenSource.nextToken()).getTokenType() != TokenType.NONE) {
+            blackhole.consume(token);
+        }
+    }
+}
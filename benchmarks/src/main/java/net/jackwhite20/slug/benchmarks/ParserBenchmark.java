@@ -0,0 +1,56 @@
+/*
+ * Copyright 2018 "JackWhite20"
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.jackwhite20.slug.benchmarks;
+
+import net.jackwhite20.slug.ast.Node;
+import net.jackwhite20.slug.core.lexer.TableLexer;
+import net.jackwhite20.slug.core.optimizer.Optimizer;
+import net.jackwhite20.slug.core.parser.Parser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures parsing, including the resolver, with and without the optimizer passes.
+ *
+ * @author Philip 'JackWhite20' <silencephil@gmail.com>
+ */
+@State(Scope.Benchmark)
+public class ParserBenchmark {
+
+    @Param({"wide", "deep"})
+    private String shape;
+
+    private String source;
+
+    @Setup
+    public void setup() {
+        source = shape.equals("wide") ? Programs.wide(500) : Programs.deep(2000);
+    }
+
+    @Benchmark
+    public Node parse() {
+        return new Parser(new TableLexer(source), Optimizer.none()).parse();
+    }
+
+    @Benchmark
+    public Node parseAndOptimize() {
+        return new Parser(new TableLexer(source), Optimizer.defaults()).parse();
+    }
+}
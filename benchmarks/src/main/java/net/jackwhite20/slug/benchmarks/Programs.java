@@ -0,0 +1,84 @@
+/*
+ * Copyright 2018 "JackWhite20"
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.jackwhite20.slug.benchmarks;
+
+/**
+ * Generates the Slug programs used by the benchmarks, so every benchmark measures the same input.
+ *
+ * @author Philip 'JackWhite20' <silencephil@gmail.com>
+ */
+final class Programs {
+
+    Programs() {
+        throw new AssertionError("no instance allowed");
+    }
+
+    /**
+     * Generates a program with the given amount of functions which all contain loops, conditionals,
+     * arithmetic and string templates.
+     *
+     * @param functions The amount of functions.
+     * @return The source of the program.
+     */
+    static String wide(int functions) {
+        StringBuilder builder = new StringBuilder();
+        builder.append("int counter = 5\nstring greeting = \"Hello\"\n\n");
+
+        for (int i = 0; i < functions; i++) {
+            builder.append("## Function number ").append(i).append(" ##\n")
+                    .append("func Function").append(i).append("(int a, string b) {\n")
+                    .append("    int i = 0\n")
+                    .append("    while (i < a) {\n")
+                    .append("        i = i + 1\n")
+                    .append("    }\n")
+                    .append("    for (int j = 0; j < 3; j = j + 1) {\n")
+                    .append("        if (j == 2) {\n")
+                    .append("            string s = \"j is $j and b is ${b}\"\n")
+                    .append("        } else {\n")
+                    .append("            int x = (a + ").append(i).append(") * 4 - j / 2\n")
+                    .append("        }\n")
+                    .append("    }\n")
+                    .append("}\n\n");
+        }
+
+        builder.append("func Main() {\n    Function0(counter, greeting)\n}\n");
+
+        return builder.toString();
+    }
+
+    /**
+     * Generates a program with a single deeply nested expression.
+     *
+     * @param depth The nesting depth of the expression.
+     * @return The source of the program.
+     */
+    static String deep(int depth) {
+        StringBuilder builder = new StringBuilder("func Main() {\n    int x = ");
+
+        for (int i = 0; i < depth; i++) {
+            builder.append("(").append(i).append(" + ");
+        }
+        builder.append("1");
+        for (int i = 0; i < depth; i++) {
+            builder.append(") * 2");
+        }
+
+        builder.append("\n}\n");
+
+        return builder.toString();
+    }
+}
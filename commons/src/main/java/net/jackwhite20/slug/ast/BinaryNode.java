@@ -16,6 +16,7 @@
 
 package net.jackwhite20.slug.ast;
 
+import net.jackwhite20.slug.exception.SlugRuntimeException;
 import net.jackwhite20.slug.lexer.TokenType;
 
 /**
@@ -26,4 +27,29 @@ public class BinaryNode extends ExpressionNode {
     public BinaryNode(Node left, TokenType operator, Node right) {
         super(left, operator, right);
     }
+
+    @Override
+    public int executeInt(NodeExecutor executor) {
+        return apply(getLeft().executeInt(executor), getRight().executeInt(executor));
+    }
+
+    @Override
+    public Object execute(NodeExecutor executor) {
+        return executeInt(executor);
+    }
+
+    public int apply(int a, int b) {
+        switch (getOperator()) {
+            case PLUS:
+                return a + b;
+            case MINUS:
+                return a - b;
+            case MULTIPLY:
+                return a * b;
+            case DIVIDE:
+                return a / b;
+            default:
+                throw new SlugRuntimeException("unhandled binary operator " + getOperator());
+        }
+    }
 }
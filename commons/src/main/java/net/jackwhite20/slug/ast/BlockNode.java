@@ -18,9 +18,6 @@ package net.jackwhite20.slug.ast;
 
 import lombok.Getter;
 import lombok.Setter;
-import net.jackwhite20.slug.exception.SlugRuntimeException;
-import net.jackwhite20.slug.lexer.TokenType;
-import net.jackwhite20.slug.variable.BlockVariableRegistry;
 
 import java.util.List;
 
@@ -34,7 +31,6 @@ public class BlockNode extends Node {
 
     private BlockNode parent;
     private List<Node> statements;
-    private final BlockVariableRegistry variableRegistry = new BlockVariableRegistry("Block");
 
     public BlockNode(BlockNode parent, List<Node> statements) {
         this.parent = parent;
@@ -44,42 +40,4 @@ public class BlockNode extends Node {
     public BlockNode(BlockNode parent) {
         this(parent, null);
     }
-
-    public void registerVariable(String variableName, TokenType variableType, Object value) {
-        // Only register if the variable isn't registered in an upper scope/block
-        if (lookupVariable(variableName) != null) {
-            throw new SlugRuntimeException("variable " + variableName + " already exists");
-        }
-
-        variableRegistry.register(variableName, variableType, value);
-    }
-
-    public <T> T lookupVariable(String name) {
-        Object lookup = variableRegistry.lookup(name);
-        if (lookup != null) {
-            //noinspection unchecked
-            return (T) lookup;
-        }
-
-        if (parent != null) {
-            return parent.lookupVariable(name);
-        }
-
-        throw new IllegalStateException("no main block node");
-    }
-
-
-    public void updateVariable(String variableName, Object value) {
-        if (variableRegistry.lookup(variableName) != null) {
-            variableRegistry.update(variableName, value);
-            return;
-        }
-
-        if (parent != null) {
-            parent.updateVariable(variableName, value);
-            return;
-        }
-
-        throw new IllegalStateException("no main block node");
-    }
 }
@@ -30,4 +30,13 @@ public class BoolNode extends Node {
     public BoolNode(String value) {
         this.value = Boolean.valueOf(value);
     }
+
+    public BoolNode(boolean value) {
+        this.value = value;
+    }
+
+    @Override
+    public boolean executeBoolean(NodeExecutor executor) {
+        return value;
+    }
 }
@@ -16,8 +16,12 @@
 
 package net.jackwhite20.slug.ast;
 
+import net.jackwhite20.slug.exception.SlugRuntimeException;
+import net.jackwhite20.slug.exception.UnexpectedResultException;
 import net.jackwhite20.slug.lexer.TokenType;
 
+import java.util.Objects;
+
 /**
  * @author Philip 'JackWhite20' <silencephil@gmail.com>
  */
@@ -26,4 +30,63 @@ public class BooleanNode extends ExpressionNode {
     public BooleanNode(Node left, TokenType operator, Node right) {
         super(left, operator, right);
     }
+
+    @Override
+    public boolean executeBoolean(NodeExecutor executor) {
+        int a;
+        try {
+            a = getLeft().executeInt(executor);
+        } catch (UnexpectedResultException e) {
+            return compare(e.getResult(), getRight().execute(executor));
+        }
+
+        int b;
+        try {
+            b = getRight().executeInt(executor);
+        } catch (UnexpectedResultException e) {
+            return compare(a, e.getResult());
+        }
+
+        return compare(a, b);
+    }
+
+    @Override
+    public Object execute(NodeExecutor executor) {
+        return executeBoolean(executor);
+    }
+
+    public boolean compare(Object a, Object b) {
+        // Values other than ints can only be compared for equality
+        if (a instanceof Integer && b instanceof Integer) {
+            return compare((int) (Integer) a, (int) (Integer) b);
+        }
+
+        switch (getOperator()) {
+            case EQUAL:
+                return Objects.equals(a, b);
+            case NOT_EQUAL:
+                return !Objects.equals(a, b);
+            default:
+                throw new SlugRuntimeException("operator " + getOperator() + " can not compare " + a + " and " + b);
+        }
+    }
+
+    public boolean compare(int a, int b) {
+        switch (getOperator()) {
+            case EQUAL:
+                return a == b;
+            case GREATER:
+                return a > b;
+            case LESS:
+                return a < b;
+            case GREATER_EQUAL:
+                return a >= b;
+            case LESS_EQUAL:
+                return a <= b;
+            case NOT_EQUAL:
+                return a != b;
+            default:
+                throw new SlugRuntimeException("invalid boolean operator " + getOperator());
+        }
+    }
 }
@@ -12,7 +12,24 @@ import net.jackwhite20.slug.lexer.TokenType;
 @Data
 public abstract class ExpressionNode extends Node {
 
-    private final Node left;
+    private Node left;
     private final TokenType operator;
-    private final Node right;
+    private Node right;
+
+    public ExpressionNode(Node left, TokenType operator, Node right) {
+        this.left = adopt(left);
+        this.operator = operator;
+        this.right = adopt(right);
+    }
+
+    @Override
+    protected void replaceChild(Node oldChild, Node newChild) {
+        if (left == oldChild) {
+            left = newChild;
+        } else if (right == oldChild) {
+            right = newChild;
+        } else {
+            super.replaceChild(oldChild, newChild);
+        }
+    }
 }
@@ -12,7 +12,23 @@ import lombok.EqualsAndHashCode;
 public class ForNode extends Node {
 
     private final Node declaration;
-    private final Node condition;
+    private Node condition;
     private final Node expression;
     private final BlockNode block;
+
+    public ForNode(Node declaration, Node condition, Node expression, BlockNode block) {
+        this.declaration = declaration;
+        this.condition = adopt(condition);
+        this.expression = expression;
+        this.block = block;
+    }
+
+    @Override
+    protected void replaceChild(Node oldChild, Node newChild) {
+        if (condition == oldChild) {
+            condition = newChild;
+        } else {
+            super.replaceChild(oldChild, newChild);
+        }
+    }
 }
@@ -16,8 +16,12 @@
 
 package net.jackwhite20.slug.ast;
 
+import lombok.AccessLevel;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import lombok.Setter;
+import net.jackwhite20.slug.function.InternalFunction;
+import net.jackwhite20.slug.lexer.TokenType;
 
 import java.util.List;
 
@@ -30,6 +34,66 @@ import java.util.List;
 public class FunctionCallNode extends Node {
 
     private final String name;
-    private final FunctionNode functionNode;
     private final List<Node> parameter;
+
+    /**
+     * The called function bound by the resolver or null if an internal function is called.
+     */
+    private FunctionNode functionNode;
+
+    /**
+     * If the call is the last statement its function executes, so it can reuse the frame of the function
+     * instead of nesting a new one. Set after the tree is optimized.
+     */
+    private boolean tailCall;
+
+    /**
+     * The called internal function or null if it isn't bound yet or a script function is called.
+     */
+    @Setter(AccessLevel.NONE)
+    private InternalFunction internalFunction;
+
+    /**
+     * If all arguments are int expressions, so they can be passed to the int entry points of the internal
+     * function without boxing them.
+     */
+    @Setter(AccessLevel.NONE)
+    private boolean intArguments;
+
+    public FunctionCallNode(String name, List<Node> parameter) {
+        this.name = name;
+        this.parameter = parameter;
+
+        for (Node node : parameter) {
+            adopt(node);
+        }
+    }
+
+    /**
+     * Binds the call to the internal function it calls.
+     *
+     * @param internalFunction The internal function.
+     */
+    public void bindInternalFunction(InternalFunction internalFunction) {
+        boolean ints = true;
+        for (Node node : parameter) {
+            ints &= isInt(node);
+        }
+
+        // The flag only selects a faster entry point, so other threads may see it out of order
+        this.intArguments = ints;
+        this.internalFunction = internalFunction;
+    }
+
+    private static boolean isInt(Node node) {
+        return node instanceof NumberNode || node instanceof BinaryNode || node instanceof UnaryNode
+                || (node instanceof VariableUsageNode && ((VariableUsageNode) node).getVariableType() == TokenType.INTEGER);
+    }
+
+    @Override
+    protected void replaceChild(Node oldChild, Node newChild) {
+        if (!replaceIn(parameter, oldChild, newChild)) {
+            super.replaceChild(oldChild, newChild);
+        }
+    }
 }
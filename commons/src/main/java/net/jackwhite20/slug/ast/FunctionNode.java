@@ -32,4 +32,10 @@ public class FunctionNode extends Node {
     private final String name;
     private final BlockNode children;
     private final List<Node> parameter;
+
+    /**
+     * The amount of slots a frame of this function needs, set by the resolver. It also covers the frames of the
+     * functions this function calls in tail position, they reuse its frame.
+     */
+    private int frameSize;
 }
@@ -11,7 +11,22 @@ import lombok.EqualsAndHashCode;
 @Data
 public class IfNode extends Node {
 
-    private final Node expression;
+    private Node expression;
     private final BlockNode trueNodes;
     private final BlockNode falseNodes;
+
+    public IfNode(Node expression, BlockNode trueNodes, BlockNode falseNodes) {
+        this.expression = adopt(expression);
+        this.trueNodes = trueNodes;
+        this.falseNodes = falseNodes;
+    }
+
+    @Override
+    protected void replaceChild(Node oldChild, Node newChild) {
+        if (expression == oldChild) {
+            expression = newChild;
+        } else {
+            super.replaceChild(oldChild, newChild);
+        }
+    }
 }
@@ -31,4 +31,9 @@ public class MainNode extends Node {
 
     private final List<Node> globalVariables;
     private final List<Node> functions;
+
+    /**
+     * The amount of global variable slots, set by the resolver.
+     */
+    private int globalCount;
 }
@@ -16,9 +16,135 @@
 
 package net.jackwhite20.slug.ast;
 
+import net.jackwhite20.slug.exception.SlugRuntimeException;
+import net.jackwhite20.slug.exception.UnexpectedResultException;
+
+import java.util.List;
+
 /**
  * @author Philip 'JackWhite20' <silencephil@gmail.com>
  */
 public abstract class Node {
 
+    /**
+     * The node which holds this node as a child. Used to replace this node with a specialized one.
+     */
+    private Node parentNode;
+
+    /**
+     * Executes the node and boxes the result. Nodes without an own implementation are executed by the
+     * executor.
+     *
+     * @param executor The executor.
+     * @return The value of the node or null if it has none.
+     */
+    public Object execute(NodeExecutor executor) {
+        return executor.execute(this);
+    }
+
+    /**
+     * Executes the node as an int expression without boxing the result. Nodes without an own int
+     * implementation are executed by the executor and unboxed.
+     *
+     * @param executor The executor.
+     * @return The int value.
+     */
+    public int executeInt(NodeExecutor executor) {
+        return asInt(executor.execute(this));
+    }
+
+    /**
+     * Executes the node as a boolean expression without boxing the result. Nodes without an own boolean
+     * implementation are executed by the executor and unboxed.
+     *
+     * @param executor The executor.
+     * @return The boolean value.
+     */
+    public boolean executeBoolean(NodeExecutor executor) {
+        return asBoolean(executor.execute(this));
+    }
+
+    public Node getParentNode() {
+        return parentNode;
+    }
+
+    /**
+     * Replaces this node in its parent with the given node.
+     *
+     * @param newNode The new node.
+     * @param <T>     The type of the new node.
+     * @return The new node.
+     */
+    public <T extends Node> T replace(T newNode) {
+        if (parentNode == null) {
+            throw new SlugRuntimeException(getClass().getSimpleName() + " has no parent to be replaced in");
+        }
+
+        parentNode.replaceChild(this, newNode);
+
+        return parentNode.adopt(newNode);
+    }
+
+    /**
+     * Replaces a child of this node, nodes with replaceable children need to override this.
+     *
+     * @param oldChild The current child.
+     * @param newChild The new child.
+     */
+    protected void replaceChild(Node oldChild, Node newChild) {
+        throw new SlugRuntimeException(getClass().getSimpleName() + " has no replaceable child " + oldChild.getClass().getSimpleName());
+    }
+
+    /**
+     * Makes this node the parent of the given child.
+     *
+     * @param child The child, may be null.
+     * @param <T>   The type of the child.
+     * @return The child.
+     */
+    protected <T extends Node> T adopt(T child) {
+        if (child != null) {
+            ((Node) child).parentNode = this;
+        }
+
+        return child;
+    }
+
+    /**
+     * Replaces a node in a list of children by identity, the nodes are data classes and structurally equal
+     * siblings must not be mixed up.
+     *
+     * @return True if the old child was found.
+     */
+    protected static boolean replaceIn(List<Node> children, Node oldChild, Node newChild) {
+        for (int i = 0; i < children.size(); i++) {
+            if (children.get(i) == oldChild) {
+                children.set(i, newChild);
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    protected static int asInt(Object value) {
+        if (value instanceof Integer) {
+            return (Integer) value;
+        } else if (value == null) {
+            // Functions without a result yield the default value
+            return 0;
+        }
+
+        throw new UnexpectedResultException("an int", value);
+    }
+
+    protected static boolean asBoolean(Object value) {
+        if (value instanceof Boolean) {
+            return (Boolean) value;
+        } else if (value == null) {
+            return false;
+        }
+
+        throw new UnexpectedResultException("a bool", value);
+    }
 }
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2018 "JackWhite20"
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.jackwhite20.slug.ast;
+
+import net.jackwhite20.slug.variable.Frame;
+
+/**
+ * The state nodes need to execute themselves with {@link Node#executeInt(NodeExecutor)} and
+ * {@link Node#executeBoolean(NodeExecutor)}.
+ *
+ * @author Philip 'JackWhite20' <silencephil@gmail.com>
+ */
+public interface NodeExecutor {
+
+    /**
+     * Executes a node which has no typed implementation (eg. a function call).
+     *
+     * @param node The node.
+     * @return The boxed value of the node or null if it has none.
+     */
+    Object execute(Node node);
+
+    /**
+     * Gets the frame of the currently executed function.
+     *
+     * @return The frame.
+     */
+    Frame getFrame();
+
+    /**
+     * Gets the frame which holds the global variables.
+     *
+     * @return The global frame.
+     */
+    Frame getGlobals();
+}
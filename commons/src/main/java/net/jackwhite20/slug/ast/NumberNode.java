@@ -32,4 +32,13 @@ public class NumberNode extends Node {
     public NumberNode(String value) {
         this.value = Integer.parseInt(value);
     }
+
+    public NumberNode(int value) {
+        this.value = value;
+    }
+
+    @Override
+    public int executeInt(NodeExecutor executor) {
+        return value;
+    }
 }
@@ -19,6 +19,8 @@ package net.jackwhite20.slug.ast;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 
+import java.util.List;
+
 /**
  * @author Philip 'JackWhite20' <silencephil@gmail.com>
  * @author Felix Klauke <info@felix-klauke.de>
@@ -28,4 +30,34 @@ import lombok.EqualsAndHashCode;
 public class StringNode extends Node {
 
     private final String value;
+
+    /**
+     * The literal {@link StringNode}s and the inline variables and expressions of a string template or null
+     * if the string has none. Set by the parser.
+     */
+    private List<Node> parts;
+
+    /**
+     * The initial capacity of the builder which concats the parts.
+     */
+    private int capacityHint;
+
+    public void setParts(List<Node> parts) {
+        this.parts = parts;
+        this.capacityHint = 0;
+
+        for (Node part : parts) {
+            adopt(part);
+
+            // Assume a short value for the parts which are only known at runtime
+            capacityHint += part instanceof StringNode ? ((StringNode) part).getValue().length() : 16;
+        }
+    }
+
+    @Override
+    protected void replaceChild(Node oldChild, Node newChild) {
+        if (parts == null || !replaceIn(parts, oldChild, newChild)) {
+            super.replaceChild(oldChild, newChild);
+        }
+    }
 }
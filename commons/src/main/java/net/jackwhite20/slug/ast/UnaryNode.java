@@ -18,7 +18,9 @@ package net.jackwhite20.slug.ast;
 
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import net.jackwhite20.slug.exception.SlugRuntimeException;
 import net.jackwhite20.slug.lexer.Token;
+import net.jackwhite20.slug.lexer.TokenType;
 
 /**
  * @author Philip 'JackWhite20' <silencephil@gmail.com>
@@ -29,5 +31,35 @@ import net.jackwhite20.slug.lexer.Token;
 public class UnaryNode extends Node {
 
     private final Token operator;
-    private final Node expression;
+    private Node expression;
+
+    public UnaryNode(Token operator, Node expression) {
+        this.operator = operator;
+        this.expression = adopt(expression);
+    }
+
+    @Override
+    public int executeInt(NodeExecutor executor) {
+        if (operator.getTokenType() == TokenType.PLUS) {
+            return +expression.executeInt(executor);
+        } else if (operator.getTokenType() == TokenType.MINUS) {
+            return -expression.executeInt(executor);
+        }
+
+        throw new SlugRuntimeException("invalid unary operator " + operator.getTokenType());
+    }
+
+    @Override
+    public Object execute(NodeExecutor executor) {
+        return executeInt(executor);
+    }
+
+    @Override
+    protected void replaceChild(Node oldChild, Node newChild) {
+        if (expression == oldChild) {
+            expression = newChild;
+        } else {
+            super.replaceChild(oldChild, newChild);
+        }
+    }
 }
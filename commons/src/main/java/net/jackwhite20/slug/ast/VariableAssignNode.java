@@ -18,6 +18,7 @@ package net.jackwhite20.slug.ast;
 
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import net.jackwhite20.slug.lexer.TokenType;
 
 /**
  * @author Philip 'JackWhite20' <silencephil@gmail.com>
@@ -28,5 +29,26 @@ import lombok.EqualsAndHashCode;
 public class VariableAssignNode extends Node {
 
     private final String variableName;
-    private final Node right;
+    private Node right;
+
+    /**
+     * The frame slot and type of the assigned variable set by the resolver.
+     */
+    private int slot;
+    private boolean global;
+    private TokenType variableType;
+
+    public VariableAssignNode(String variableName, Node right) {
+        this.variableName = variableName;
+        this.right = adopt(right);
+    }
+
+    @Override
+    protected void replaceChild(Node oldChild, Node newChild) {
+        if (right == oldChild) {
+            right = newChild;
+        } else {
+            super.replaceChild(oldChild, newChild);
+        }
+    }
 }
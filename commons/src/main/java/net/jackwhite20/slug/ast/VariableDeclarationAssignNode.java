@@ -30,5 +30,26 @@ public class VariableDeclarationAssignNode extends Node {
 
     private final String variableName;
     private final TokenType variableType;
-    private final Node right;
+    private Node right;
+
+    /**
+     * The frame slot assigned by the resolver.
+     */
+    private int slot;
+    private boolean global;
+
+    public VariableDeclarationAssignNode(String variableName, TokenType variableType, Node right) {
+        this.variableName = variableName;
+        this.variableType = variableType;
+        this.right = adopt(right);
+    }
+
+    @Override
+    protected void replaceChild(Node oldChild, Node newChild) {
+        if (right == oldChild) {
+            right = newChild;
+        } else {
+            super.replaceChild(oldChild, newChild);
+        }
+    }
 }
@@ -30,4 +30,10 @@ public class VariableDeclarationNode extends Node {
 
     private final String variableName;
     private final TokenType variableType;
+
+    /**
+     * The frame slot assigned by the resolver.
+     */
+    private int slot;
+    private boolean global;
 }
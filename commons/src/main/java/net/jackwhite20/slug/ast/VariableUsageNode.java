@@ -17,7 +17,10 @@
 package net.jackwhite20.slug.ast;
 
 import lombok.Getter;
+import lombok.Setter;
 import net.jackwhite20.slug.lexer.Token;
+import net.jackwhite20.slug.lexer.TokenType;
+import net.jackwhite20.slug.variable.Frame;
 
 /**
  * @author Philip 'JackWhite20' <silencephil@gmail.com>
@@ -28,7 +31,53 @@ public class VariableUsageNode extends Node {
 
     private final String variableName;
 
+    /**
+     * The frame slot and type of the used variable set by the resolver.
+     */
+    @Setter
+    private int slot;
+    @Setter
+    private boolean global;
+    @Setter
+    private TokenType variableType;
+
     public VariableUsageNode(Token token) {
         this.variableName = token.getValue();
     }
+
+    public VariableUsageNode(String variableName) {
+        this.variableName = variableName;
+    }
+
+    @Override
+    public Object execute(NodeExecutor executor) {
+        Frame frame = global ? executor.getGlobals() : executor.getFrame();
+
+        switch (variableType) {
+            case INTEGER:
+                return frame.getInt(slot);
+            case BOOL:
+                return frame.getBoolean(slot);
+            default:
+                return frame.get(slot);
+        }
+    }
+
+    @Override
+    public int executeInt(NodeExecutor executor) {
+        if (variableType != TokenType.INTEGER) {
+            return super.executeInt(executor);
+        }
+
+        return (global ? executor.getGlobals() : executor.getFrame()).getInt(slot);
+    }
+
+    @Override
+    public boolean executeBoolean(NodeExecutor executor) {
+        if (variableType != TokenType.BOOL) {
+            return super.executeBoolean(executor);
+        }
+
+        return (global ? executor.getGlobals() : executor.getFrame()).getBoolean(slot);
+    }
 }
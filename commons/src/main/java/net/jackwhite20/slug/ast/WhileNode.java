@@ -13,6 +13,20 @@ import java.util.List;
 @Data
 public class WhileNode extends Node {
 
-    private final Node expression;
+    private Node expression;
     private final List<Node> children;
+
+    public WhileNode(Node expression, List<Node> children) {
+        this.expression = adopt(expression);
+        this.children = children;
+    }
+
+    @Override
+    protected void replaceChild(Node oldChild, Node newChild) {
+        if (expression == oldChild) {
+            expression = newChild;
+        } else {
+            super.replaceChild(oldChild, newChild);
+        }
+    }
 }
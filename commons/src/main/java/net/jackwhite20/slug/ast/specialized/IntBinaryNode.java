@@ -0,0 +1,104 @@
+/*
+ * Copyright 2018 "JackWhite20"
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.jackwhite20.slug.ast.specialized;
+
+import net.jackwhite20.slug.ast.BinaryNode;
+import net.jackwhite20.slug.ast.Node;
+import net.jackwhite20.slug.ast.NodeExecutor;
+import net.jackwhite20.slug.exception.SlugRuntimeException;
+import net.jackwhite20.slug.lexer.TokenType;
+
+/**
+ * A binary node with a fixed operator. Every operator has its own class, so the call site of the operation
+ * only ever sees one implementation.
+ *
+ * @author Philip 'JackWhite20' <silencephil@gmail.com>
+ */
+public abstract class IntBinaryNode extends BinaryNode {
+
+    IntBinaryNode(Node left, TokenType operator, Node right) {
+        super(left, operator, right);
+    }
+
+    @Override
+    public int executeInt(NodeExecutor executor) {
+        return apply(getLeft().executeInt(executor), getRight().executeInt(executor));
+    }
+
+    public static IntBinaryNode create(Node left, TokenType operator, Node right) {
+        switch (operator) {
+            case PLUS:
+                return new Add(left, right);
+            case MINUS:
+                return new Subtract(left, right);
+            case MULTIPLY:
+                return new Multiply(left, right);
+            case DIVIDE:
+                return new Divide(left, right);
+            default:
+                throw new SlugRuntimeException("unhandled binary operator " + operator);
+        }
+    }
+
+    public static final class Add extends IntBinaryNode {
+
+        public Add(Node left, Node right) {
+            super(left, TokenType.PLUS, right);
+        }
+
+        @Override
+        public int apply(int a, int b) {
+            return a + b;
+        }
+    }
+
+    public static final class Subtract extends IntBinaryNode {
+
+        public Subtract(Node left, Node right) {
+            super(left, TokenType.MINUS, right);
+        }
+
+        @Override
+        public int apply(int a, int b) {
+            return a - b;
+        }
+    }
+
+    public static final class Multiply extends IntBinaryNode {
+
+        public Multiply(Node left, Node right) {
+            super(left, TokenType.MULTIPLY, right);
+        }
+
+        @Override
+        public int apply(int a, int b) {
+            return a * b;
+        }
+    }
+
+    public static final class Divide extends IntBinaryNode {
+
+        public Divide(Node left, Node right) {
+            super(left, TokenType.DIVIDE, right);
+        }
+
+        @Override
+        public int apply(int a, int b) {
+            return a / b;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2018 "JackWhite20"
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.jackwhite20.slug.ast.specialized;
+
+import net.jackwhite20.slug.ast.BooleanNode;
+import net.jackwhite20.slug.ast.Node;
+import net.jackwhite20.slug.ast.NodeExecutor;
+import net.jackwhite20.slug.exception.SlugRuntimeException;
+import net.jackwhite20.slug.exception.UnexpectedResultException;
+import net.jackwhite20.slug.lexer.TokenType;
+
+/**
+ * Compares two ints with a fixed operator. If an operand doesn't yield an int anymore the node replaces
+ * itself with a generic {@link BooleanNode}.
+ *
+ * @author Philip 'JackWhite20' <silencephil@gmail.com>
+ */
+public abstract class IntComparisonNode extends BooleanNode {
+
+    IntComparisonNode(Node left, TokenType operator, Node right) {
+        super(left, operator, right);
+    }
+
+    @Override
+    public boolean executeBoolean(NodeExecutor executor) {
+        int a;
+        try {
+            a = getLeft().executeInt(executor);
+        } catch (UnexpectedResultException e) {
+            return generalize().compare(e.getResult(), getRight().execute(executor));
+        }
+
+        int b;
+        try {
+            b = getRight().executeInt(executor);
+        } catch (UnexpectedResultException e) {
+            return generalize().compare(a, e.getResult());
+        }
+
+        return compare(a, b);
+    }
+
+    @Override
+    public abstract boolean compare(int a, int b);
+
+    private BooleanNode generalize() {
+        return replace(new BooleanNode(getLeft(), getOperator(), getRight()));
+    }
+
+    public static IntComparisonNode create(Node left, TokenType operator, Node right) {
+        switch (operator) {
+            case EQUAL:
+                return new Equal(left, right);
+            case NOT_EQUAL:
+                return new NotEqual(left, right);
+            case LESS:
+                return new Less(left, right);
+            case GREATER:
+                return new Greater(left, right);
+            case LESS_EQUAL:
+                return new LessEqual(left, right);
+            case GREATER_EQUAL:
+                return new GreaterEqual(left, right);
+            default:
+                throw new SlugRuntimeException("invalid boolean operator " + operator);
+        }
+    }
+
+    public static final class Equal extends IntComparisonNode {
+
+        public Equal(Node left, Node right) {
+            super(left, TokenType.EQUAL, right);
+        }
+
+        @Override
+        public boolean compare(int a, int b) {
+            return a == b;
+        }
+    }
+
+    public static final class NotEqual extends IntComparisonNode {
+
+        public NotEqual(Node left, Node right) {
+            super(left, TokenType.NOT_EQUAL, right);
+        }
+
+        @Override
+        public boolean compare(int a, int b) {
+            return a != b;
+        }
+    }
+
+    public static final class Less extends IntComparisonNode {
+
+        public Less(Node left, Node right) {
+            super(left, TokenType.LESS, right);
+        }
+
+        @Override
+        public boolean compare(int a, int b) {
+            return a < b;
+        }
+    }
+
+    public static final class Greater extends IntComparisonNode {
+
+        public Greater(Node left, Node right) {
+            super(left, TokenType.GREATER, right);
+        }
+
+        @Override
+        public boolean compare(int a, int b) {
+            return a > b;
+        }
+    }
+
+    public static final class LessEqual extends IntComparisonNode {
+
+        public LessEqual(Node left, Node right) {
+            super(left, TokenType.LESS_EQUAL, right);
+        }
+
+        @Override
+        public boolean compare(int a, int b) {
+            return a <= b;
+        }
+    }
+
+    public static final class GreaterEqual extends IntComparisonNode {
+
+        public GreaterEqual(Node left, Node right) {
+            super(left, TokenType.GREATER_EQUAL, right);
+        }
+
+        @Override
+        public boolean compare(int a, int b) {
+            return a >= b;
+        }
+    }
+}
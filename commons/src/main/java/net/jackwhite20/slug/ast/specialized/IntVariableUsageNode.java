@@ -0,0 +1,52 @@
+/*
+ * Copyright 2018 "JackWhite20"
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.jackwhite20.slug.ast.specialized;
+
+import net.jackwhite20.slug.ast.NodeExecutor;
+import net.jackwhite20.slug.ast.VariableUsageNode;
+
+/**
+ * Reads an int variable without boxing it.
+ *
+ * @author Philip 'JackWhite20' <silencephil@gmail.com>
+ */
+public class IntVariableUsageNode extends VariableUsageNode {
+
+    private final int slot;
+    private final boolean global;
+
+    public IntVariableUsageNode(VariableUsageNode node) {
+        super(node.getVariableName());
+
+        this.slot = node.getSlot();
+        this.global = node.isGlobal();
+
+        setSlot(slot);
+        setGlobal(global);
+        setVariableType(node.getVariableType());
+    }
+
+    @Override
+    public Object execute(NodeExecutor executor) {
+        return executeInt(executor);
+    }
+
+    @Override
+    public int executeInt(NodeExecutor executor) {
+        return (global ? executor.getGlobals() : executor.getFrame()).getInt(slot);
+    }
+}
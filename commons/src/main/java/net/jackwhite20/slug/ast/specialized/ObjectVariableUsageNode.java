@@ -0,0 +1,57 @@
+/*
+ * Copyright 2018 "JackWhite20"
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.jackwhite20.slug.ast.specialized;
+
+import net.jackwhite20.slug.ast.NodeExecutor;
+import net.jackwhite20.slug.ast.VariableUsageNode;
+
+/**
+ * Reads a variable which is stored as an object, for example a string.
+ *
+ * @author Philip 'JackWhite20' <silencephil@gmail.com>
+ */
+public class ObjectVariableUsageNode extends VariableUsageNode {
+
+    private final int slot;
+    private final boolean global;
+
+    public ObjectVariableUsageNode(VariableUsageNode node) {
+        super(node.getVariableName());
+
+        this.slot = node.getSlot();
+        this.global = node.isGlobal();
+
+        setSlot(slot);
+        setGlobal(global);
+        setVariableType(node.getVariableType());
+    }
+
+    @Override
+    public Object execute(NodeExecutor executor) {
+        return (global ? executor.getGlobals() : executor.getFrame()).get(slot);
+    }
+
+    @Override
+    public int executeInt(NodeExecutor executor) {
+        return asInt(execute(executor));
+    }
+
+    @Override
+    public boolean executeBoolean(NodeExecutor executor) {
+        return asBoolean(execute(executor));
+    }
+}
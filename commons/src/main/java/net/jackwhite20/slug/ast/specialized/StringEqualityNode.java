@@ -0,0 +1,51 @@
+/*
+ * Copyright 2018 "JackWhite20"
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.jackwhite20.slug.ast.specialized;
+
+import net.jackwhite20.slug.ast.BooleanNode;
+import net.jackwhite20.slug.ast.Node;
+import net.jackwhite20.slug.ast.NodeExecutor;
+import net.jackwhite20.slug.lexer.TokenType;
+
+/**
+ * Checks two strings for (in)equality. If an operand doesn't yield a string anymore the node replaces itself
+ * with a generic {@link BooleanNode}.
+ *
+ * @author Philip 'JackWhite20' <silencephil@gmail.com>
+ */
+public class StringEqualityNode extends BooleanNode {
+
+    private final boolean equal;
+
+    public StringEqualityNode(Node left, TokenType operator, Node right) {
+        super(left, operator, right);
+
+        this.equal = operator == TokenType.EQUAL;
+    }
+
+    @Override
+    public boolean executeBoolean(NodeExecutor executor) {
+        Object a = getLeft().execute(executor);
+        Object b = getRight().execute(executor);
+
+        if (a instanceof String && b instanceof String) {
+            return a.equals(b) == equal;
+        }
+
+        return replace(new BooleanNode(getLeft(), getOperator(), getRight())).compare(a, b);
+    }
+}
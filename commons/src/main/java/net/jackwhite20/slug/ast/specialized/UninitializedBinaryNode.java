@@ -0,0 +1,40 @@
+/*
+ * Copyright 2018 "JackWhite20"
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.jackwhite20.slug.ast.specialized;
+
+import net.jackwhite20.slug.ast.BinaryNode;
+import net.jackwhite20.slug.ast.Node;
+import net.jackwhite20.slug.ast.NodeExecutor;
+import net.jackwhite20.slug.lexer.TokenType;
+
+/**
+ * A binary node which replaces itself with the {@link IntBinaryNode} of its operator when it is executed the
+ * first time.
+ *
+ * @author Philip 'JackWhite20' <silencephil@gmail.com>
+ */
+public class UninitializedBinaryNode extends BinaryNode {
+
+    public UninitializedBinaryNode(Node left, TokenType operator, Node right) {
+        super(left, operator, right);
+    }
+
+    @Override
+    public int executeInt(NodeExecutor executor) {
+        return replace(IntBinaryNode.create(getLeft(), getOperator(), getRight())).executeInt(executor);
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2018 "JackWhite20"
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.jackwhite20.slug.ast.specialized;
+
+import net.jackwhite20.slug.ast.BooleanNode;
+import net.jackwhite20.slug.ast.Node;
+import net.jackwhite20.slug.ast.NodeExecutor;
+import net.jackwhite20.slug.lexer.TokenType;
+
+/**
+ * A boolean node which looks at the values of its operands when it is executed the first time and replaces
+ * itself with a node for these types. The observed values are compared directly, so the operands are not
+ * executed twice.
+ *
+ * @author Philip 'JackWhite20' <silencephil@gmail.com>
+ */
+public class UninitializedBooleanNode extends BooleanNode {
+
+    public UninitializedBooleanNode(Node left, TokenType operator, Node right) {
+        super(left, operator, right);
+    }
+
+    @Override
+    public boolean executeBoolean(NodeExecutor executor) {
+        Object a = getLeft().execute(executor);
+        Object b = getRight().execute(executor);
+
+        // Values of functions without a result are compared like ints
+        if ((a == null || a instanceof Integer) && (b == null || b instanceof Integer)) {
+            return replace(IntComparisonNode.create(getLeft(), getOperator(), getRight())).compare(asInt(a), asInt(b));
+        }
+
+        if (a instanceof String && b instanceof String
+                && (getOperator() == TokenType.EQUAL || getOperator() == TokenType.NOT_EQUAL)) {
+            return replace(new StringEqualityNode(getLeft(), getOperator(), getRight())).compare(a, b);
+        }
+
+        return replace(new BooleanNode(getLeft(), getOperator(), getRight())).compare(a, b);
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2018 "JackWhite20"
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.jackwhite20.slug.ast.specialized;
+
+import net.jackwhite20.slug.ast.Node;
+import net.jackwhite20.slug.ast.NodeExecutor;
+import net.jackwhite20.slug.ast.VariableUsageNode;
+
+/**
+ * A variable usage which replaces itself with the usage node for the type of the variable when it is executed
+ * the first time.
+ *
+ * @author Philip 'JackWhite20' <silencephil@gmail.com>
+ */
+public class UninitializedVariableUsageNode extends VariableUsageNode {
+
+    public UninitializedVariableUsageNode(VariableUsageNode node) {
+        super(node.getVariableName());
+
+        setSlot(node.getSlot());
+        setGlobal(node.isGlobal());
+        setVariableType(node.getVariableType());
+    }
+
+    @Override
+    public Object execute(NodeExecutor executor) {
+        return specialize().execute(executor);
+    }
+
+    @Override
+    public int executeInt(NodeExecutor executor) {
+        return specialize().executeInt(executor);
+    }
+
+    @Override
+    public boolean executeBoolean(NodeExecutor executor) {
+        return specialize().executeBoolean(executor);
+    }
+
+    private Node specialize() {
+        switch (getVariableType()) {
+            case INTEGER:
+                return replace(new IntVariableUsageNode(this));
+            case BOOL:
+                return replace(new BooleanVariableUsageNode(this));
+            default:
+                return replace(new ObjectVariableUsageNode(this));
+        }
+    }
+}
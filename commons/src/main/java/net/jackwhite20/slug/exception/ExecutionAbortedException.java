@@ -0,0 +1,52 @@
+/*
+ * Copyright 2018 "JackWhite20"
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.jackwhite20.slug.exception;
+
+/**
+ * Thrown when an execution is stopped because it exceeded one of its limits or was cancelled.
+ * <p>
+ * The stack trace of the interpreter is not useful to the host, so it isn't filled in.
+ *
+ * @author Philip 'JackWhite20' <silencephil@gmail.com>
+ */
+public class ExecutionAbortedException extends SlugRuntimeException {
+
+    public enum Reason {
+        INSTRUCTION_LIMIT,
+        TIME_LIMIT,
+        CALL_DEPTH_LIMIT,
+        ALLOCATION_LIMIT,
+        CANCELLED
+    }
+
+    private final Reason reason;
+
+    public ExecutionAbortedException(Reason reason, String message) {
+        super(message, false);
+
+        this.reason = reason;
+    }
+
+    /**
+     * Gets why the execution was stopped.
+     *
+     * @return The reason.
+     */
+    public Reason getReason() {
+        return reason;
+    }
+}
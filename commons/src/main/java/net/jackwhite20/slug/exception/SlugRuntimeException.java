@@ -24,4 +24,8 @@ public class SlugRuntimeException extends RuntimeException {
     public SlugRuntimeException(String message) {
         super(message);
     }
+
+    protected SlugRuntimeException(String message, boolean writableStackTrace) {
+        super(message, null, false, writableStackTrace);
+    }
 }
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2018 "JackWhite20"
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.jackwhite20.slug.exception;
+
+/**
+ * Thrown by the typed execute methods of a node if its value doesn't have the expected type. Nodes catch it to
+ * continue with the value as an object, so it has no stack trace and builds its message only when needed.
+ *
+ * @author Philip 'JackWhite20' <silencephil@gmail.com>
+ */
+public class UnexpectedResultException extends SlugRuntimeException {
+
+    private final String expectedType;
+    private final Object result;
+
+    public UnexpectedResultException(String expectedType, Object result) {
+        super(null, false);
+
+        this.expectedType = expectedType;
+        this.result = result;
+    }
+
+    /**
+     * Gets the value which didn't have the expected type.
+     *
+     * @return The value.
+     */
+    public Object getResult() {
+        return result;
+    }
+
+    @Override
+    public String getMessage() {
+        return "expected " + expectedType + " but got " + result;
+    }
+}
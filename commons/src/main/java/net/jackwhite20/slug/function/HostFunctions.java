@@ -0,0 +1,98 @@
+/*
+ * Copyright 2018 "JackWhite20"
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.jackwhite20.slug.function;
+
+import net.jackwhite20.slug.exception.SlugRuntimeException;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Binds the methods which are annotated with {@link SlugFunction} as internal functions. The methods are
+ * unreflected once, calls go through method handles and never through reflection.
+ *
+ * @author Philip 'JackWhite20' <silencephil@gmail.com>
+ */
+public final class HostFunctions {
+
+    HostFunctions() {
+        throw new AssertionError("no instance allowed");
+    }
+
+    /**
+     * Binds the annotated methods of an object, instance methods are called on the object. If the object is a
+     * class, its annotated methods need to be static, there is no instance to call the others on.
+     *
+     * @param target The object or class.
+     * @return The functions.
+     */
+    public static List<InternalFunction> of(Object target) {
+        return of(MethodHandles.publicLookup(), target);
+    }
+
+    /**
+     * Binds the annotated methods of an object with the access of the given lookup, so the methods don't need
+     * to be public. If the object is a class, its annotated methods need to be static.
+     *
+     * @param lookup The lookup which has access to the methods.
+     * @param target The object or class.
+     * @return The functions.
+     * @throws SlugRuntimeException If the object is a class with an annotated instance method.
+     */
+    public static List<InternalFunction> of(MethodHandles.Lookup lookup, Object target) {
+        boolean onlyStatic = target instanceof Class;
+        Class<?> type = onlyStatic ? (Class<?>) target : target.getClass();
+
+        List<InternalFunction> functions = new ArrayList<>();
+        Set<String> names = new HashSet<>();
+        for (Method method : type.getDeclaredMethods()) {
+            SlugFunction annotation = method.getAnnotation(SlugFunction.class);
+            if (annotation == null) {
+                continue;
+            }
+
+            boolean isStatic = Modifier.isStatic(method.getModifiers());
+            if (onlyStatic && !isStatic) {
+                throw new SlugRuntimeException("function " + method.getName() + " of " + type.getName() + " is an instance method, bind an instance instead of the class");
+            }
+
+            String name = annotation.value().isEmpty() ? method.getName() : annotation.value();
+
+            // Functions are called by their name only, so overloads can't be told apart
+            if (!names.add(name)) {
+                throw new SlugRuntimeException("function " + name + " of " + type.getName() + " is declared twice");
+            }
+
+            MethodHandle handle;
+            try {
+                handle = lookup.unreflect(method);
+            } catch (IllegalAccessException e) {
+                throw new SlugRuntimeException("function " + name + " of " + type.getName() + " is not accessible, it needs to be public or bound with a lookup which can access it");
+            }
+
+            functions.add(MethodHandleFunction.of(name, isStatic ? handle : handle.bindTo(target)));
+        }
+
+        return functions;
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2018 "JackWhite20"
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.jackwhite20.slug.function;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * A function which is implemented by the host instead of in Slug, like WriteLine.
+ * <p>
+ * Calls are bound to their function while parsing and go through the entry point for their amount of
+ * arguments, so a call with up to two arguments neither looks the function up by its name nor allocates an
+ * argument list. Arguments which are ints are passed unboxed to the int entry points. Implementations
+ * override the entry points they have a faster path for, all others end up in {@link #call(List)}.
+ *
+ * @author Philip 'JackWhite20' <silencephil@gmail.com>
+ */
+public abstract class InternalFunction {
+
+    private final String name;
+
+    protected InternalFunction(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Creates an internal function which gets all arguments as a list.
+     *
+     * @param name The name scripts call the function with.
+     * @param function The function which gets the arguments of the call and returns the result or null.
+     * @return The internal function.
+     */
+    public static InternalFunction of(String name, Function<List<Object>, Object> function) {
+        return new ListFunction(name, function);
+    }
+
+    /**
+     * Calls the function with any amount of arguments.
+     *
+     * @param arguments The arguments.
+     * @return The result or null if the function has none.
+     */
+    public abstract Object call(List<Object> arguments);
+
+    public Object call0() {
+        return call(Collections.emptyList());
+    }
+
+    public Object call1(Object argument) {
+        return call(Collections.singletonList(argument));
+    }
+
+    public Object call2(Object first, Object second) {
+        return call(Arrays.asList(first, second));
+    }
+
+    public Object callInt1(int argument) {
+        return call1(argument);
+    }
+
+    public Object callInt2(int first, int second) {
+        return call2(first, second);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    private static final class ListFunction extends InternalFunction {
+
+        private final Function<List<Object>, Object> function;
+
+        private ListFunction(String name, Function<List<Object>, Object> function) {
+            super(name);
+
+            this.function = function;
+        }
+
+        @Override
+        public Object call(List<Object> arguments) {
+            return function.apply(arguments);
+        }
+    }
+}
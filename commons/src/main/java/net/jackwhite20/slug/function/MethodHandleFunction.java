@@ -0,0 +1,218 @@
+/*
+ * Copyright 2018 "JackWhite20"
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.jackwhite20.slug.function;
+
+import net.jackwhite20.slug.exception.SlugRuntimeException;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.util.List;
+
+/**
+ * An internal function which calls a method handle.
+ * <p>
+ * The handle is adapted once to the signature of every entry point it can be called through, ints and
+ * booleans are (un)boxed by the adapters and the int entry points pass ints through unboxed. Every call is a
+ * single invokeExact without an argument array or reflection.
+ *
+ * @author Philip 'JackWhite20' <silencephil@gmail.com>
+ */
+public final class MethodHandleFunction extends InternalFunction {
+
+    private final int arity;
+
+    // The declared parameter types and the types the arguments of the generic entry points need to have
+    private final Class<?>[] parameterTypes;
+    private final Class<?>[] argumentTypes;
+
+    // The adapted handles, null if the function can't be called through the entry point
+    private final MethodHandle handle0;
+    private final MethodHandle handle1;
+    private final MethodHandle handle2;
+    private final MethodHandle intHandle1;
+    private final MethodHandle intHandle2;
+    private final MethodHandle spreader;
+
+    private MethodHandleFunction(String name, MethodHandle handle) {
+        super(name);
+
+        MethodType type = handle.type();
+        this.arity = type.parameterCount();
+        this.parameterTypes = type.parameterArray();
+        this.argumentTypes = type.wrap().parameterArray();
+
+        this.handle0 = arity == 0 ? handle.asType(MethodType.genericMethodType(0)) : null;
+        this.handle1 = arity == 1 ? handle.asType(MethodType.genericMethodType(1)) : null;
+        this.handle2 = arity == 2 ? handle.asType(MethodType.genericMethodType(2)) : null;
+        this.intHandle1 = arity == 1 && acceptsInts(type) ? handle.asType(MethodType.methodType(Object.class, int.class)) : null;
+        this.intHandle2 = arity == 2 && acceptsInts(type) ? handle.asType(MethodType.methodType(Object.class, int.class, int.class)) : null;
+        this.spreader = handle.asType(MethodType.genericMethodType(arity)).asSpreader(Object[].class, arity);
+    }
+
+    /**
+     * Creates an internal function which calls a method handle. The parameters and the result can be ints,
+     * booleans, strings or objects, the result can also be void.
+     *
+     * @param name The name scripts call the function with.
+     * @param handle The handle, instance methods need to be bound to their receiver.
+     * @return The function.
+     */
+    public static MethodHandleFunction of(String name, MethodHandle handle) {
+        MethodType type = handle.type();
+        for (Class<?> parameterType : type.parameterList()) {
+            if (!isSupported(parameterType)) {
+                throw new SlugRuntimeException("parameter type " + parameterType.getName() + " of function " + name + " is not supported");
+            }
+        }
+
+        if (type.returnType() != void.class && !isSupported(type.returnType())) {
+            throw new SlugRuntimeException("return type " + type.returnType().getName() + " of function " + name + " is not supported");
+        }
+
+        return new MethodHandleFunction(name, handle);
+    }
+
+    @Override
+    public Object call0() {
+        if (handle0 == null) {
+            throw wrongArity(0);
+        }
+
+        try {
+            return (Object) handle0.invokeExact();
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    @Override
+    public Object call1(Object argument) {
+        if (handle1 == null) {
+            throw wrongArity(1);
+        }
+
+        checkArgument(0, argument);
+
+        try {
+            return (Object) handle1.invokeExact(argument);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    @Override
+    public Object call2(Object first, Object second) {
+        if (handle2 == null) {
+            throw wrongArity(2);
+        }
+
+        checkArgument(0, first);
+        checkArgument(1, second);
+
+        try {
+            return (Object) handle2.invokeExact(first, second);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    @Override
+    public Object callInt1(int argument) {
+        if (intHandle1 == null) {
+            return call1(argument);
+        }
+
+        try {
+            return (Object) intHandle1.invokeExact(argument);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    @Override
+    public Object callInt2(int first, int second) {
+        if (intHandle2 == null) {
+            return call2(first, second);
+        }
+
+        try {
+            return (Object) intHandle2.invokeExact(first, second);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    @Override
+    public Object call(List<Object> arguments) {
+        if (arguments.size() != arity) {
+            throw wrongArity(arguments.size());
+        }
+
+        Object[] values = arguments.toArray();
+        for (int i = 0; i < values.length; i++) {
+            checkArgument(i, values[i]);
+        }
+
+        try {
+            return (Object) spreader.invokeExact(values);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    /**
+     * Checks the type of an argument before the adapted handle casts it, so a wrong argument names the function
+     * instead of failing with a bare class cast exception.
+     */
+    private void checkArgument(int index, Object argument) {
+        if (argumentTypes[index].isInstance(argument) || (argument == null && !parameterTypes[index].isPrimitive())) {
+            return;
+        }
+
+        throw new SlugRuntimeException("argument " + (index + 1) + " of internal function " + getName() + " needs to be "
+                + parameterTypes[index].getSimpleName() + " but got " + (argument != null ? argument.getClass().getSimpleName() + " " + argument : "null"));
+    }
+
+    private SlugRuntimeException wrongArity(int arguments) {
+        return new SlugRuntimeException("internal function " + getName() + " needs " + arity + " arguments but got " + arguments);
+    }
+
+    private RuntimeException rethrow(Throwable t) {
+        if (t instanceof RuntimeException) {
+            return (RuntimeException) t;
+        } else if (t instanceof Error) {
+            throw (Error) t;
+        }
+
+        return new SlugRuntimeException("internal function " + getName() + " failed: " + t);
+    }
+
+    private static boolean acceptsInts(MethodType type) {
+        for (Class<?> parameterType : type.parameterList()) {
+            if (parameterType != int.class && parameterType != Integer.class && parameterType != Object.class) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static boolean isSupported(Class<?> type) {
+        return type == int.class || type == boolean.class || type == Integer.class || type == Boolean.class
+                || type == String.class || type == Object.class;
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2018 "JackWhite20"
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.jackwhite20.slug.function;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a static or instance method which scripts can call as an internal function. The parameters and the
+ * result can be ints, booleans, strings or objects, the result can also be void.
+ *
+ * @author Philip 'JackWhite20' <silencephil@gmail.com>
+ * @see HostFunctions
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface SlugFunction {
+
+    /**
+     * Gets the name scripts call the function with.
+     *
+     * @return The name or an empty string to use the name of the method.
+     */
+    String value() default "";
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2018 "JackWhite20"
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.jackwhite20.slug.function;
+
+import java.util.Collection;
+
+/**
+ * Provides internal functions to every script. Implementations are found with the {@link java.util.ServiceLoader}
+ * when the internal functions are loaded, so they need to be listed in
+ * META-INF/services/net.jackwhite20.slug.function.SlugFunctionProvider and need a public no-arg constructor.
+ * <p>
+ * By default all methods of the provider which are annotated with {@link SlugFunction} are registered.
+ *
+ * @author Philip 'JackWhite20' <silencephil@gmail.com>
+ */
+public interface SlugFunctionProvider {
+
+    /**
+     * Gets the functions of this provider.
+     *
+     * @return The functions.
+     */
+    default Collection<InternalFunction> getFunctions() {
+        return HostFunctions.of(this);
+    }
+}
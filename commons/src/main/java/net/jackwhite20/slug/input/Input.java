@@ -0,0 +1,115 @@
+/*
+ * Copyright 2018 "JackWhite20"
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.jackwhite20.slug.input;
+
+import net.jackwhite20.slug.exception.SlugRuntimeException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Holds the input source of the execution which runs on the current thread. Executions without an own source
+ * read from {@link System#in}.
+ *
+ * @author Philip 'JackWhite20' <silencephil@gmail.com>
+ */
+public final class Input {
+
+    private static final InputSource STANDARD = new StandardInputSource();
+
+    private static final ThreadLocal<InputSource> CURRENT = new ThreadLocal<>();
+
+    Input() {
+        throw new AssertionError("no instance allowed");
+    }
+
+    /**
+     * Gets the input source of the current thread.
+     *
+     * @return The source.
+     */
+    public static InputSource current() {
+        InputSource source = CURRENT.get();
+
+        return source != null ? source : STANDARD;
+    }
+
+    /**
+     * Sets the input source of the current thread.
+     *
+     * @param source The source or null to read from {@link System#in} again.
+     * @return The previous source or null if there was none.
+     */
+    public static InputSource set(InputSource source) {
+        InputSource previous = CURRENT.get();
+
+        if (source != null) {
+            CURRENT.set(source);
+        } else {
+            CURRENT.remove();
+        }
+
+        return previous;
+    }
+
+    /**
+     * Gets the source which reads from {@link System#in}.
+     *
+     * @return The source.
+     */
+    public static InputSource standard() {
+        return STANDARD;
+    }
+
+    /**
+     * Reads System.in through a single buffered reader, so no input which is already buffered gets lost
+     * between two lines.
+     */
+    private static final class StandardInputSource implements InputSource {
+
+        // A lock instead of a monitor, a virtual thread waiting for input on a monitor would pin its carrier thread
+        private final ReentrantLock lock = new ReentrantLock();
+        private InputStream in;
+        private BufferedReader reader;
+
+        @Override
+        public String readLine() {
+            lock.lock();
+            try {
+                // Start over if the stream has been replaced
+                if (in != System.in) {
+                    in = System.in;
+                    reader = new BufferedReader(new InputStreamReader(in));
+                }
+
+                return reader.readLine();
+            } catch (IOException e) {
+                throw new SlugRuntimeException("could not read the input: " + e.getMessage());
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void close() {
+            // System.in stays open
+        }
+    }
+}
@@ -16,16 +16,96 @@
 
 package net.jackwhite20.slug.lexer;
 
-import lombok.Data;
+import lombok.Getter;
+
+import java.util.Objects;
 
 /**
+ * A token of the source. Tokens of a lexer which works on a char sequence only reference their text by
+ * offsets into the source, the value is created on first access.
+ *
  * @author Philip 'JackWhite20' <silencephil@gmail.com>
  */
-@Data
+@Getter
 public class Token {
 
     private final TokenType tokenType;
-    private final String value;
+    private final CharSequence source;
+    private final int start;
+    private final int length;
+    private String value;
+
+    public Token(TokenType tokenType, String value) {
+        this.tokenType = tokenType;
+        this.value = value;
+        this.source = null;
+        this.start = 0;
+        this.length = value.length();
+    }
+
+    public Token(TokenType tokenType, CharSequence source, int start, int length) {
+        this.tokenType = tokenType;
+        this.source = source;
+        this.start = start;
+        this.length = length;
+    }
+
+    public String getValue() {
+        if (value == null) {
+            value = source.subSequence(start, start + length).toString();
+        }
+
+        return value;
+    }
+
+    /**
+     * Parses the value of an integer token without creating its string.
+     *
+     * @return The int value.
+     */
+    public int intValue() {
+        if (value != null || source == null) {
+            return Integer.parseInt(getValue());
+        }
+
+        int result = 0;
+        for (int i = start; i < start + length; i++) {
+            int digit = source.charAt(i) - '0';
+
+            // Let parseInt handle non ASCII digits and overflows
+            if (digit < 0 || digit > 9 || result > (Integer.MAX_VALUE - digit) / 10) {
+                return Integer.parseInt(getValue());
+            }
+
+            result = result * 10 + digit;
+        }
+
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Token)) {
+            return false;
+        }
+
+        Token token = (Token) o;
+
+        return tokenType == token.tokenType && Objects.equals(getValue(), token.getValue());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(tokenType, getValue());
+    }
+
+    @Override
+    public String toString() {
+        return "Token(tokenType=" + tokenType + ", value=" + getValue() + ")";
+    }
 
     public static boolean isVariable(TokenType tokenType) {
         return tokenType == TokenType.INTEGER || tokenType == TokenType.BOOL || tokenType == TokenType.STRING;
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2018 "JackWhite20"
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.jackwhite20.slug.output;
+
+/**
+ * Holds the output sink of the execution which runs on the current thread. Executions without an own sink
+ * write to {@link System#out}.
+ *
+ * @author Philip 'JackWhite20' <silencephil@gmail.com>
+ */
+public final class Output {
+
+    private static final OutputSink STANDARD = new StandardOutputSink();
+
+    private static final ThreadLocal<OutputSink> CURRENT = new ThreadLocal<>();
+
+    Output() {
+        throw new AssertionError("no instance allowed");
+    }
+
+    /**
+     * Gets the output sink of the current thread.
+     *
+     * @return The sink.
+     */
+    public static OutputSink current() {
+        OutputSink sink = CURRENT.get();
+
+        return sink != null ? sink : STANDARD;
+    }
+
+    /**
+     * Sets the output sink of the current thread.
+     *
+     * @param sink The sink or null to write to {@link System#out} again.
+     * @return The previous sink or null if there was none.
+     */
+    public static OutputSink set(OutputSink sink) {
+        OutputSink previous = CURRENT.get();
+
+        if (sink != null) {
+            CURRENT.set(sink);
+        } else {
+            CURRENT.remove();
+        }
+
+        return previous;
+    }
+
+    /**
+     * Gets the sink which writes to {@link System#out}.
+     *
+     * @return The sink.
+     */
+    public static OutputSink standard() {
+        return STANDARD;
+    }
+
+    private static final class StandardOutputSink implements OutputSink {
+
+        @Override
+        public void writeLine(String line) {
+            // Read the stream on every call, it may have been replaced
+            System.out.println(line);
+        }
+
+        @Override
+        public void flush() {
+            System.out.flush();
+        }
+
+        @Override
+        public void close() {
+            // System.out stays open
+            flush();
+        }
+    }
+}
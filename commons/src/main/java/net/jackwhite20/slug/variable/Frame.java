@@ -0,0 +1,107 @@
+/*
+ * Copyright 2018 "JackWhite20"
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.jackwhite20.slug.variable;
+
+import net.jackwhite20.slug.lexer.TokenType;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Holds the variables of a single function invocation or the global variables.
+ * <p>
+ * Every variable gets its slot from the resolver at parse time, so reading and writing a variable is a plain
+ * array access instead of a lookup by its name. Int and bool variables are stored unboxed in their own array,
+ * all other variables as objects.
+ *
+ * @author Philip 'JackWhite20' <silencephil@gmail.com>
+ */
+public class Frame {
+
+    private static Map<TokenType, Object> DEFAULT_VALUES = new EnumMap<>(TokenType.class);
+
+    static {
+        DEFAULT_VALUES.put(TokenType.INTEGER, 0);
+        DEFAULT_VALUES.put(TokenType.STRING, "");
+        DEFAULT_VALUES.put(TokenType.BOOL, false);
+    }
+
+    private final Object[] values;
+    private final int[] primitives;
+
+    public Frame(int size) {
+        this.values = new Object[size];
+        this.primitives = new int[size];
+    }
+
+    public Object get(int slot) {
+        return values[slot];
+    }
+
+    public void set(int slot, Object value) {
+        values[slot] = value;
+    }
+
+    public int getInt(int slot) {
+        return primitives[slot];
+    }
+
+    public void setInt(int slot, int value) {
+        primitives[slot] = value;
+    }
+
+    public boolean getBoolean(int slot) {
+        return primitives[slot] != 0;
+    }
+
+    public void setBoolean(int slot, boolean value) {
+        primitives[slot] = value ? 1 : 0;
+    }
+
+    public int size() {
+        return values.length;
+    }
+
+    /**
+     * Copies the first slots of the source frame into this frame.
+     *
+     * @param source The frame to copy from.
+     * @param length The amount of slots.
+     */
+    public void copyFrom(Frame source, int length) {
+        System.arraycopy(source.values, 0, values, 0, length);
+        System.arraycopy(source.primitives, 0, primitives, 0, length);
+    }
+
+    /**
+     * Releases all object values so a pooled frame doesn't keep them alive.
+     */
+    public void clear() {
+        Arrays.fill(values, null);
+    }
+
+    /**
+     * Gets the value a variable of the given type has if it is declared without a value.
+     *
+     * @param variableType The type of the variable.
+     * @return The default value.
+     */
+    public static Object defaultValue(TokenType variableType) {
+        return DEFAULT_VALUES.get(variableType);
+    }
+}
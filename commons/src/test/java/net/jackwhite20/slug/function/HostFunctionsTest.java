@@ -0,0 +1,105 @@
+/*
+ * Copyright 2018 "JackWhite20"
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.jackwhite20.slug.function;
+
+import net.jackwhite20.slug.exception.SlugRuntimeException;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author Philip 'JackWhite20' <silencephil@gmail.com>
+ */
+public class HostFunctionsTest {
+
+    @Test
+    public void testCall() {
+        InternalFunction up = function(StaticFunctions.class, "Up");
+
+        assertEquals("SLUG", up.call1("slug"));
+        assertEquals("SLUG", up.call(Arrays.asList((Object) "slug")));
+        assertEquals(5, function(new InstanceFunctions(), "Add").callInt2(2, 3));
+    }
+
+    @Test
+    public void testWrongArgumentTypeNamesFunction() {
+        InternalFunction up = function(StaticFunctions.class, "Up");
+
+        assertWrongArgument(() -> up.call1(3));
+        assertWrongArgument(() -> up.callInt1(3));
+        assertWrongArgument(() -> up.call(Arrays.asList((Object) 3)));
+    }
+
+    @Test
+    public void testNullForPrimitiveNamesFunction() {
+        InternalFunction add = function(new InstanceFunctions(), "Add");
+
+        try {
+            add.call2(1, null);
+            fail("null was passed to an int parameter");
+        } catch (SlugRuntimeException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("Add"));
+        }
+    }
+
+    @Test(expected = SlugRuntimeException.class)
+    public void testClassWithInstanceMethodIsRejected() {
+        HostFunctions.of(InstanceFunctions.class);
+    }
+
+    private static void assertWrongArgument(Runnable call) {
+        try {
+            call.run();
+            fail("an int was passed to a string parameter");
+        } catch (SlugRuntimeException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("Up"));
+            assertTrue(e.getMessage(), e.getMessage().contains("String"));
+        }
+    }
+
+    private static InternalFunction function(Object target, String name) {
+        List<InternalFunction> functions = HostFunctions.of(target);
+        for (InternalFunction function : functions) {
+            if (function.getName().equals(name)) {
+                return function;
+            }
+        }
+
+        throw new AssertionError("function " + name + " is not bound");
+    }
+
+    public static class StaticFunctions {
+
+        @SlugFunction
+        public static String Up(String value) {
+            return value.toUpperCase();
+        }
+    }
+
+    public static class InstanceFunctions {
+
+        @SlugFunction
+        public int Add(int first, int second) {
+            return first + second;
+        }
+    }
+}
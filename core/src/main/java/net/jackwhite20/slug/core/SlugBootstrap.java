@@ -17,41 +17,180 @@
 package net.jackwhite20.slug.core;
 
 import net.jackwhite20.slug.ast.Node;
-import net.jackwhite20.slug.core.lexer.Lexer;
+import net.jackwhite20.slug.core.cache.ProgramCache;
+import net.jackwhite20.slug.core.compiler.Compiler;
+import net.jackwhite20.slug.core.interpreter.Interpreter;
+import net.jackwhite20.slug.core.jvm.ClassGenerator;
+import net.jackwhite20.slug.core.jvm.JarWriter;
+import net.jackwhite20.slug.core.lexer.SourceLoader;
+import net.jackwhite20.slug.core.lexer.TableLexer;
+import net.jackwhite20.slug.core.optimizer.Optimizer;
+import net.jackwhite20.slug.core.output.ChannelOutputSink;
 import net.jackwhite20.slug.core.parser.Parser;
+import net.jackwhite20.slug.core.profiler.SlugProfiler;
+import net.jackwhite20.slug.core.vm.VirtualMachine;
+import net.jackwhite20.slug.output.Output;
+import net.jackwhite20.slug.output.OutputSink;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.File;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.channels.Channels;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 
 /**
  * @author Philip 'JackWhite20' <silencephil@gmail.com>
  */
 public class SlugBootstrap {
 
+    private static Logger logger = LoggerFactory.getLogger(SlugBootstrap.class);
+
     public static void main(String[] args) {
-        if (args.length == 1) {
-            File file = new File(args[0]);
+        boolean virtualMachine = false;
+        boolean specializing = false;
+        boolean slugc = false;
+        boolean optimizing = true;
+        boolean caching = true;
+        boolean profiling = false;
+        String output = null;
+        String fileName = null;
+
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+
+            if (arg.equals("--slugc")) {
+                slugc = true;
+            } else if (arg.equals("--output") && i + 1 < args.length) {
+                output = args[++i];
+            } else if (arg.equals("--profile")) {
+                profiling = true;
+            } else if (arg.equals("--no-cache")) {
+                caching = false;
+            } else if (arg.equals("--no-optimize")) {
+                optimizing = false;
+            } else if (arg.equals("--vm")) {
+                virtualMachine = true;
+            } else if (arg.equals("--specialize")) {
+                specializing = true;
+            } else {
+                fileName = arg;
+            }
+        }
+
+        if (fileName != null) {
+            File file = new File(fileName);
             if (file.exists()) {
                 try {
-                    byte[] bytes = Files.readAllBytes(file.toPath());
-                    String source = new String(bytes, Charset.forName("UTF-8"));
-                    Lexer lexer = new Lexer(source);
-
-                    Parser parser = new Parser(lexer);
+                    Node ast;
+                    if (caching) {
+                        // Unchanged scripts are loaded from their .slugc file without lexing and parsing
+                        ast = ProgramCache.load(file.toPath(), optimizing);
+                    } else {
+                        // Large files are mapped instead of being read into the heap
+                        TableLexer lexer = new TableLexer(SourceLoader.load(file.toPath()));
 
-                    Node ast = parser.parse();
+                        ast = new Parser(lexer, optimizing ? Optimizer.defaults() : Optimizer.none()).parse();
+                    }
 
-                    // TODO: 13.02.2018 Interpreting
+                    // The script writes through a buffer instead of flushing System.out on every line, in the same charset
+                    OutputSink stdout = new ChannelOutputSink(Channels.newChannel(new FileOutputStream(FileDescriptor.out)), Charset.defaultCharset());
+                    Output.set(stdout);
+                    try {
+                        if (slugc) {
+                            slugc(ast, file, output);
+                        } else if (virtualMachine) {
+                            new VirtualMachine(new Compiler().compile(ast)).run();
+                        } else if (profiling) {
+                            profile(ast, file, specializing, stdout);
+                        } else {
+                            new Interpreter(specializing).interpret(ast);
+                        }
+                    } finally {
+                        stdout.flush();
+                        Output.set(null);
+                    }
                 } catch (IOException e) {
                     e.printStackTrace();
                 }
             } else {
-                System.err.println("Slug source file '" + args[0] + "' does not exist");
+                System.err.println("Slug source file '" + fileName + "' does not exist");
             }
         } else {
-            System.err.println("Usage: java -jar slug.jar [Slug Source File]");
+            System.err.println("Usage: java -jar slug.jar [--vm | --specialize | --slugc [--output <.jar or .class file>]] [--no-optimize] [--no-cache] [--profile] [Slug Source File]");
+        }
+    }
+
+    /**
+     * Compiles the AST ahead of time into a JVM class. Writes a runnable jar or only the class file if the
+     * output ends with '.class'.
+     */
+    private static void slugc(Node ast, File file, String output) throws IOException {
+        long now = System.currentTimeMillis();
+
+        // The class is named after the source file
+        String className = toClassName(file.getName());
+        byte[] classBytes = new ClassGenerator(new Compiler().compile(ast), className).generate();
+
+        Path outputPath = Paths.get(output != null ? output : className + ".jar");
+        if (outputPath.toString().endsWith(".class")) {
+            Files.write(outputPath, classBytes);
+        } else {
+            new JarWriter().write(outputPath, className, classBytes);
+        }
+
+        logger.debug("Compile time: " + (System.currentTimeMillis() - now) + "ms");
+
+        System.out.println("Compiled " + file.getName() + " to " + outputPath);
+    }
+
+    /**
+     * Interprets the AST while sampling its functions and loops. Writes the samples as collapsed stacks for flame
+     * graphs and prints the hottest functions and loops.
+     */
+    private static void profile(Node ast, File file, boolean specializing, OutputSink stdout) throws IOException {
+        SlugProfiler profiler = new SlugProfiler();
+
+        Interpreter interpreter = new Interpreter(specializing);
+        interpreter.setProfiler(profiler);
+
+        profiler.start();
+        try {
+            interpreter.interpret(ast);
+        } finally {
+            profiler.stop();
+        }
+
+        // The report follows the output of the script
+        stdout.flush();
+
+        Path outputPath = Paths.get(file.getName() + ".collapsed");
+        profiler.writeCollapsed(outputPath);
+
+        System.err.println(profiler.topReport(10));
+        System.err.println("Collapsed stacks written to " + outputPath);
+    }
+
+    private static String toClassName(String fileName) {
+        int extension = fileName.lastIndexOf('.');
+        String name = extension != -1 ? fileName.substring(0, extension) : fileName;
+
+        StringBuilder className = new StringBuilder();
+        for (char c : name.toCharArray()) {
+            if (Character.isJavaIdentifierPart(c)) {
+                className.append(className.length() == 0 ? Character.toUpperCase(c) : c);
+            }
+        }
+
+        if (className.length() == 0 || !Character.isJavaIdentifierStart(className.charAt(0))) {
+            className.insert(0, "Slug");
         }
+
+        return className.toString();
     }
 }
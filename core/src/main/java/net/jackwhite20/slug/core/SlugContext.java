@@ -0,0 +1,127 @@
+/*
+ * Copyright 2018 "JackWhite20"
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.jackwhite20.slug.core;
+
+import net.jackwhite20.slug.core.interpreter.ExecutionLimits;
+import net.jackwhite20.slug.core.interpreter.Interpreter;
+import net.jackwhite20.slug.core.profiler.SlugProfiler;
+import net.jackwhite20.slug.input.InputSource;
+import net.jackwhite20.slug.output.OutputSink;
+
+/**
+ * Holds the mutable state (global variables and call frames) of the executions of a {@link SlugProgram}.
+ * <p>
+ * A context can execute its program any number of times, every execution starts with fresh global variables.
+ * A context must only be used by one thread at a time, use one context per thread to execute the same program
+ * concurrently.
+ *
+ * @author Philip 'JackWhite20' <silencephil@gmail.com>
+ */
+public final class SlugContext {
+
+    private final SlugProgram program;
+    private final Interpreter interpreter;
+
+    SlugContext(SlugProgram program) {
+        this.program = program;
+        this.interpreter = new Interpreter(false, program.getIsolate().getInternalFunctions());
+        this.interpreter.setMetrics(program.getMetrics());
+    }
+
+    /**
+     * Executes the program.
+     *
+     * @param arguments The arguments for the parameters of the 'Main' function.
+     */
+    public void execute(Object... arguments) {
+        program.getIsolate().checkOpen();
+
+        interpreter.execute(program.getMainNode(), arguments);
+    }
+
+    /**
+     * Calls a single function of the program instead of the 'Main' function. The global variables are
+     * initialized before the function is called.
+     *
+     * @param functionName The name of the function.
+     * @param arguments The arguments for the parameters of the function.
+     */
+    public void invoke(String functionName, Object... arguments) {
+        program.getIsolate().checkOpen();
+
+        interpreter.invoke(program.getMainNode(), functionName, arguments);
+    }
+
+    /**
+     * Sets the limits of the following executions. Exceeding a limit stops the execution with an
+     * {@link net.jackwhite20.slug.exception.ExecutionAbortedException}.
+     *
+     * @param limits The limits.
+     */
+    public void setLimits(ExecutionLimits limits) {
+        interpreter.setLimits(limits);
+    }
+
+    /**
+     * Sets the sink the following executions of this context write their output to, instead of
+     * {@link System#out}. The sink is not flushed after an execution, so many executions can share its buffer.
+     *
+     * @param output The sink or null to write to the sink of the calling thread.
+     */
+    public void setOutput(OutputSink output) {
+        interpreter.setOutput(output);
+    }
+
+    /**
+     * Sets the source the following executions of this context read their input from, instead of
+     * {@link System#in}.
+     *
+     * @param input The source or null to read from the source of the calling thread.
+     */
+    public void setInput(InputSource input) {
+        interpreter.setInput(input);
+    }
+
+    /**
+     * Sets the profiler which samples the following executions of this context or null to not profile them.
+     * One profiler can sample many contexts at the same time.
+     *
+     * @param profiler The profiler.
+     */
+    public void setProfiler(SlugProfiler profiler) {
+        interpreter.setProfiler(profiler);
+    }
+
+    /**
+     * Cancels the current execution of this context. Can be called from any thread, the execution stops at its
+     * next loop iteration or function call with an {@link net.jackwhite20.slug.exception.ExecutionAbortedException}.
+     */
+    public void cancel() {
+        interpreter.cancel();
+    }
+
+    /**
+     * Withdraws a cancellation which arrived after the execution it was meant for was already done.
+     */
+    void clearCancel() {
+        interpreter.clearCancel();
+    }
+
+    public SlugProgram getProgram() {
+        return program;
+    }
+}
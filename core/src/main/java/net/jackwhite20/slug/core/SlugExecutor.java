@@ -0,0 +1,360 @@
+/*
+ * Copyright 2018 "JackWhite20"
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.jackwhite20.slug.core;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Queue;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Runs the executions of many programs concurrently.
+ * <p>
+ * Every execution gets its own virtual thread if the JDK supports them (Java 21 or newer), so blocking
+ * internal functions like 'ReadLine' only park their virtual thread. On older JDKs the executions run on a
+ * bounded pool of platform threads. Each {@link SlugIsolate} (tenant) runs at most a limited amount of
+ * executions at the same time, further executions of it wait in its queue until one of them completed.
+ *
+ * @author Philip 'JackWhite20' <silencephil@gmail.com>
+ */
+public final class SlugExecutor implements AutoCloseable {
+
+    private static Logger logger = LoggerFactory.getLogger(SlugExecutor.class);
+
+    /**
+     * The default maximum amount of concurrent executions of a single isolate.
+     */
+    public static final int DEFAULT_TENANT_LIMIT = 16;
+
+    private final ExecutorService executor;
+    private final boolean virtual;
+    private final int tenantLimit;
+
+    // Weak keys, so the queues of isolates which are not used anymore are dropped
+    private final Map<SlugIsolate, Tenant> tenants = new WeakHashMap<>();
+
+    // Locks instead of monitors, a virtual thread blocked on a monitor would pin its carrier thread
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile boolean closed;
+
+    // The submitted executions which are running or waiting, the threads are shut down once it is zero after closing
+    private int outstanding;
+
+    public SlugExecutor() {
+        this(DEFAULT_TENANT_LIMIT);
+    }
+
+    public SlugExecutor(int tenantLimit) {
+        this(tenantLimit, Runtime.getRuntime().availableProcessors() * 2, true);
+    }
+
+    /**
+     * Creates a new executor.
+     *
+     * @param tenantLimit The default maximum amount of concurrent executions of a single isolate.
+     * @param platformThreads The amount of platform threads if virtual threads are not used.
+     * @param virtualThreads If virtual threads should be used if the JDK supports them.
+     */
+    public SlugExecutor(int tenantLimit, int platformThreads, boolean virtualThreads) {
+        if (tenantLimit < 1 || platformThreads < 1) {
+            throw new IllegalArgumentException("limits need to be at least 1");
+        }
+
+        ExecutorService virtualExecutor = virtualThreads ? newVirtualThreadExecutor() : null;
+
+        this.virtual = virtualExecutor != null;
+        this.executor = virtual ? virtualExecutor : newPlatformThreadExecutor(platformThreads);
+        this.tenantLimit = tenantLimit;
+
+        logger.debug("Executing on {} threads", virtual ? "virtual" : platformThreads + " platform");
+    }
+
+    /**
+     * Executes the program in a new context.
+     *
+     * @param program The program.
+     * @param arguments The arguments for the parameters of the 'Main' function.
+     * @return The future which completes when the execution is done or failed.
+     */
+    public CompletableFuture<Void> submit(SlugProgram program, Object... arguments) {
+        return submit(program.newContext(), arguments);
+    }
+
+    /**
+     * Executes the program of the context in the context, eg. to execute it with limits. Cancelling the
+     * returned future cancels the execution, a waiting execution is never started. The cancelled future is done
+     * right away, the execution itself may still be stopping.
+     *
+     * @param context The context which is not used by any other execution.
+     * @param arguments The arguments for the parameters of the 'Main' function.
+     * @return The future which completes when the execution is done or failed.
+     */
+    public CompletableFuture<Void> submit(SlugContext context, Object... arguments) {
+        Submission submission = new Submission(context, arguments);
+        CompletableFuture<Void> future = submission.future;
+        if (closed) {
+            future.completeExceptionally(new RejectedExecutionException("executor is closed"));
+            return future;
+        }
+
+        future.whenComplete((result, throwable) -> {
+            if (future.isCancelled()) {
+                submission.cancel();
+            }
+        });
+
+        lock.lock();
+        try {
+            // Closed while waiting for the lock
+            if (closed) {
+                future.completeExceptionally(new RejectedExecutionException("executor is closed"));
+                return future;
+            }
+
+            outstanding++;
+
+            Tenant tenant = tenants.computeIfAbsent(context.getProgram().getIsolate(), isolate -> new Tenant(tenantLimit));
+            if (tenant.running < tenant.limit) {
+                tenant.running++;
+                start(tenant, submission);
+            } else {
+                tenant.pending.add(submission);
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        return future;
+    }
+
+    /**
+     * Sets the maximum amount of concurrent executions of a single isolate.
+     *
+     * @param isolate The isolate.
+     * @param limit The maximum amount of concurrent executions.
+     */
+    public void setTenantLimit(SlugIsolate isolate, int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit needs to be at least 1");
+        }
+
+        lock.lock();
+        try {
+            Tenant tenant = tenants.computeIfAbsent(isolate, key -> new Tenant(tenantLimit));
+            tenant.limit = limit;
+
+            // A raised limit can start waiting executions right away
+            while (tenant.running < tenant.limit && !tenant.pending.isEmpty()) {
+                tenant.running++;
+                start(tenant, tenant.pending.poll());
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets if the executions run on virtual threads.
+     *
+     * @return True if virtual threads are used.
+     */
+    public boolean isVirtual() {
+        return virtual;
+    }
+
+    /**
+     * Stops accepting executions. Already submitted executions are still completed, including the ones which
+     * still wait in the queue of their isolate. The threads are shut down after the last of them is done.
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+
+            shutdownIfDone();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Starts the submission on the slot it got from the tenant. If the thread can't be started, the slot goes
+     * to the next waiting submission of the tenant. Needs to be called while holding the lock.
+     */
+    private void start(Tenant tenant, Submission submission) {
+        while (submission != null) {
+            Submission execution = submission;
+
+            try {
+                executor.execute(() -> {
+                    try {
+                        execution.run();
+                    } finally {
+                        complete(tenant);
+                    }
+                });
+                return;
+            } catch (RejectedExecutionException e) {
+                submission.future.completeExceptionally(e);
+                outstanding--;
+
+                submission = tenant.pending.poll();
+            }
+        }
+
+        tenant.running--;
+        shutdownIfDone();
+    }
+
+    private void complete(Tenant tenant) {
+        lock.lock();
+        try {
+            outstanding--;
+
+            // Hand the slot directly to the next waiting execution of the tenant
+            Submission next = tenant.pending.poll();
+            if (next != null) {
+                start(tenant, next);
+            } else {
+                tenant.running--;
+                shutdownIfDone();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void shutdownIfDone() {
+        if (closed && outstanding == 0) {
+            executor.shutdown();
+        }
+    }
+
+    private static ExecutorService newVirtualThreadExecutor() {
+        // Looked up reflectively because the code is compiled for Java 11
+        try {
+            Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) method.invoke(null);
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            return null;
+        }
+    }
+
+    private static ExecutorService newPlatformThreadExecutor(int threads) {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "slug-executor-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), threadFactory);
+        executor.allowCoreThreadTimeOut(true);
+
+        return executor;
+    }
+
+    private static final class Tenant {
+
+        private final Queue<Submission> pending = new ArrayDeque<>();
+        private int limit;
+        private int running;
+
+        private Tenant(int limit) {
+            this.limit = limit;
+        }
+    }
+
+    private static final class Submission {
+
+        private final SlugContext context;
+        private final Object[] arguments;
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        // Guards the state, so a cancellation only reaches the context while this execution runs in it
+        private final ReentrantLock guard = new ReentrantLock();
+        private boolean started;
+        private boolean finished;
+        private boolean cancelled;
+
+        private Submission(SlugContext context, Object[] arguments) {
+            this.context = context;
+            this.arguments = arguments;
+        }
+
+        private void run() {
+            guard.lock();
+            try {
+                // Executions which are cancelled while waiting in the queue are not started at all
+                if (future.isDone()) {
+                    return;
+                }
+
+                started = true;
+            } finally {
+                guard.unlock();
+            }
+
+            try {
+                context.execute(arguments);
+                future.complete(null);
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            } finally {
+                guard.lock();
+                try {
+                    finished = true;
+
+                    // The cancellation may have arrived after the execution was done, it must not stop the next one
+                    if (cancelled) {
+                        context.clearCancel();
+                    }
+                } finally {
+                    guard.unlock();
+                }
+            }
+        }
+
+        private void cancel() {
+            guard.lock();
+            try {
+                if (started && !finished) {
+                    cancelled = true;
+                    context.cancel();
+                }
+            } finally {
+                guard.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2018 "JackWhite20"
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.jackwhite20.slug.core;
+
+import net.jackwhite20.slug.core.interpreter.InternalFunctionRegistry;
+import net.jackwhite20.slug.core.lexer.SourceLoader;
+import net.jackwhite20.slug.core.lexer.TableLexer;
+import net.jackwhite20.slug.core.metrics.MetricsProvider;
+import net.jackwhite20.slug.core.metrics.SlugMetrics;
+import net.jackwhite20.slug.core.optimizer.Optimizer;
+import net.jackwhite20.slug.core.parser.Parser;
+import net.jackwhite20.slug.exception.SlugRuntimeException;
+import net.jackwhite20.slug.function.HostFunctions;
+import net.jackwhite20.slug.function.InternalFunction;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * An isolated set of programs with their own internal functions, like the scripts of a single tenant.
+ * <p>
+ * Nothing of an isolate is shared with other isolates, so any number of them can load scripts with the same
+ * function names and run them on parallel threads. Creating an isolate is cheap. After it is closed, its
+ * programs can't be executed anymore.
+ *
+ * @author Philip 'JackWhite20' <silencephil@gmail.com>
+ */
+public final class SlugIsolate implements AutoCloseable {
+
+    private final InternalFunctionRegistry internalFunctions = new InternalFunctionRegistry();
+    private volatile MetricsProvider metricsProvider = MetricsProvider.NOOP;
+    private volatile boolean closed;
+
+    /**
+     * Registers an internal function which only the programs of this isolate can call. Needs to be done before
+     * the programs calling it are compiled.
+     *
+     * @param name The name scripts call the function with.
+     * @param function The function which gets the arguments of the call and returns the result or null.
+     */
+    public void registerFunction(String name, Function<List<Object>, Object> function) {
+        checkOpen();
+
+        internalFunctions.register(name, function);
+    }
+
+    /**
+     * Registers an internal function which only the programs of this isolate can call. Needs to be done before
+     * the programs calling it are compiled.
+     *
+     * @param function The function.
+     */
+    public void registerFunction(InternalFunction function) {
+        checkOpen();
+
+        internalFunctions.register(function);
+    }
+
+    /**
+     * Registers the methods of an object which are annotated with {@link net.jackwhite20.slug.function.SlugFunction}
+     * as internal functions, instance methods are called on the object. If the object is a class, its static
+     * methods are registered. Needs to be done before the programs calling them are compiled.
+     *
+     * @param target The object or class.
+     */
+    public void registerFunctions(Object target) {
+        for (InternalFunction function : HostFunctions.of(target)) {
+            registerFunction(function);
+        }
+    }
+
+    /**
+     * Sets the provider which creates the metrics of the programs compiled afterwards.
+     *
+     * @param metricsProvider The metrics provider.
+     */
+    public void setMetricsProvider(MetricsProvider metricsProvider) {
+        this.metricsProvider = metricsProvider;
+    }
+
+    /**
+     * Compiles the source of a program with the default optimizations.
+     *
+     * @param source The source.
+     * @return The compiled program.
+     */
+    public SlugProgram compile(CharSequence source) {
+        return compile(source, Optimizer.defaults());
+    }
+
+    /**
+     * Compiles the source of a program.
+     *
+     * @param source The source.
+     * @param optimizer The optimizer which optimizes the program.
+     * @return The compiled program.
+     */
+    public SlugProgram compile(CharSequence source, Optimizer optimizer) {
+        return compile("script", source, optimizer);
+    }
+
+    /**
+     * Compiles the source of a program.
+     *
+     * @param name The name of the program its metrics are reported with.
+     * @param source The source.
+     * @param optimizer The optimizer which optimizes the program.
+     * @return The compiled program.
+     */
+    public SlugProgram compile(String name, CharSequence source, Optimizer optimizer) {
+        checkOpen();
+
+        SlugMetrics metrics = metricsProvider.forProgram(name);
+
+        return new SlugProgram(this, new Parser(new TableLexer(source), optimizer, internalFunctions, metrics).parse(), metrics);
+    }
+
+    /**
+     * Compiles a UTF-8 encoded source file with the default optimizations.
+     *
+     * @param path The path of the source file.
+     * @return The compiled program.
+     * @throws IOException If the file can't be read.
+     */
+    public SlugProgram compile(Path path) throws IOException {
+        return compile(path.getFileName().toString(), SourceLoader.load(path), Optimizer.defaults());
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Closes the isolate and releases its internal functions. Executions which already run are not stopped.
+     */
+    @Override
+    public void close() {
+        closed = true;
+
+        internalFunctions.clear();
+    }
+
+    InternalFunctionRegistry getInternalFunctions() {
+        return internalFunctions;
+    }
+
+    void checkOpen() {
+        if (closed) {
+            throw new SlugRuntimeException("isolate is closed");
+        }
+    }
+}
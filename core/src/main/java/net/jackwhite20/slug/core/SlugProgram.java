@@ -0,0 +1,136 @@
+/*
+ * Copyright 2018 "JackWhite20"
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.jackwhite20.slug.core;
+
+import net.jackwhite20.slug.ast.FunctionNode;
+import net.jackwhite20.slug.ast.MainNode;
+import net.jackwhite20.slug.ast.Node;
+import net.jackwhite20.slug.ast.VariableDeclarationNode;
+import net.jackwhite20.slug.core.metrics.SlugMetrics;
+import net.jackwhite20.slug.core.optimizer.Optimizer;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A parsed, resolved and optimized program which can be executed any number of times.
+ * <p>
+ * The program is immutable, all state of an execution is kept in a {@link SlugContext}. Programs compiled
+ * through the static methods get their own {@link SlugIsolate}. A program can be cached
+ * by the host and executed by multiple threads at the same time, every thread with its own context.
+ *
+ * @author Philip 'JackWhite20' <silencephil@gmail.com>
+ */
+public final class SlugProgram {
+
+    private final SlugIsolate isolate;
+    private final MainNode mainNode;
+    private final SlugMetrics metrics;
+
+    SlugProgram(SlugIsolate isolate, Node mainNode, SlugMetrics metrics) {
+        this.isolate = isolate;
+        this.mainNode = (MainNode) mainNode;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Compiles the source of a program in its own isolate with the default optimizations.
+     *
+     * @param source The source.
+     * @return The compiled program.
+     */
+    public static SlugProgram compile(CharSequence source) {
+        return new SlugIsolate().compile(source);
+    }
+
+    /**
+     * Compiles the source of a program in its own isolate.
+     *
+     * @param source The source.
+     * @param optimizer The optimizer which optimizes the program.
+     * @return The compiled program.
+     */
+    public static SlugProgram compile(CharSequence source, Optimizer optimizer) {
+        return new SlugIsolate().compile(source, optimizer);
+    }
+
+    /**
+     * Compiles a UTF-8 encoded source file in its own isolate with the default optimizations.
+     *
+     * @param path The path of the source file.
+     * @return The compiled program.
+     * @throws IOException If the file can't be read.
+     */
+    public static SlugProgram compile(Path path) throws IOException {
+        return new SlugIsolate().compile(path);
+    }
+
+    /**
+     * Creates a new context to execute this program in. Creating a context is cheap.
+     *
+     * @return The new context.
+     */
+    public SlugContext newContext() {
+        return new SlugContext(this);
+    }
+
+    /**
+     * Executes the program in a new context.
+     *
+     * @param arguments The arguments for the parameters of the 'Main' function.
+     */
+    public void execute(Object... arguments) {
+        newContext().execute(arguments);
+    }
+
+    /**
+     * Gets the parameter names of a function of the program.
+     *
+     * @param functionName The name of the function.
+     * @return The parameter names in the order of the parameters or null if the program has no such function.
+     */
+    public List<String> getParameterNames(String functionName) {
+        for (Node function : mainNode.getFunctions()) {
+            FunctionNode functionNode = (FunctionNode) function;
+            if (functionNode.getName().equals(functionName)) {
+                List<String> names = new ArrayList<>();
+                for (Node parameter : functionNode.getParameter()) {
+                    names.add(((VariableDeclarationNode) parameter).getVariableName());
+                }
+
+                return Collections.unmodifiableList(names);
+            }
+        }
+
+        return null;
+    }
+
+    public SlugIsolate getIsolate() {
+        return isolate;
+    }
+
+    public SlugMetrics getMetrics() {
+        return metrics;
+    }
+
+    MainNode getMainNode() {
+        return mainNode;
+    }
+}
@@ -0,0 +1,355 @@
+/*
+ * Copyright 2018 "JackWhite20"
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.jackwhite20.slug.core.cache;
+
+import net.jackwhite20.slug.ast.BinaryNode;
+import net.jackwhite20.slug.ast.BlockNode;
+import net.jackwhite20.slug.ast.BoolNode;
+import net.jackwhite20.slug.ast.BooleanNode;
+import net.jackwhite20.slug.ast.ForNode;
+import net.jackwhite20.slug.ast.FunctionCallNode;
+import net.jackwhite20.slug.ast.FunctionNode;
+import net.jackwhite20.slug.ast.IfNode;
+import net.jackwhite20.slug.ast.MainNode;
+import net.jackwhite20.slug.ast.NoOpNode;
+import net.jackwhite20.slug.ast.Node;
+import net.jackwhite20.slug.ast.NumberNode;
+import net.jackwhite20.slug.ast.StringNode;
+import net.jackwhite20.slug.ast.UnaryNode;
+import net.jackwhite20.slug.ast.VariableAssignNode;
+import net.jackwhite20.slug.ast.VariableDeclarationAssignNode;
+import net.jackwhite20.slug.ast.VariableDeclarationNode;
+import net.jackwhite20.slug.ast.VariableUsageNode;
+import net.jackwhite20.slug.ast.WhileNode;
+import net.jackwhite20.slug.exception.SlugRuntimeException;
+import net.jackwhite20.slug.lexer.Token;
+import net.jackwhite20.slug.lexer.TokenType;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Reads a program written by the {@link AstWriter} back into nodes which are ready to be executed.
+ *
+ * @author Philip 'JackWhite20' <silencephil@gmail.com>
+ */
+class AstReader {
+
+    private static final TokenType[] TOKEN_TYPES = TokenType.values();
+
+    private final ByteBuffer in;
+
+    // Calls are bound after all functions are read, a call can come before the function it calls
+    private final List<FunctionCallNode> calls = new ArrayList<>();
+    private final List<Integer> callIndices = new ArrayList<>();
+
+    AstReader(ByteBuffer in) {
+        this.in = in;
+    }
+
+    MainNode read() {
+        int globalCount = in.getInt();
+        List<Node> globalVariables = readNodes();
+
+        int functionCount = in.getInt();
+        List<Node> functions = new ArrayList<>(functionCount);
+        for (int i = 0; i < functionCount; i++) {
+            String name = readString();
+            int frameSize = in.getInt();
+            List<Node> parameter = readNodes();
+            BlockNode children = (BlockNode) readNode();
+
+            FunctionNode functionNode = new FunctionNode(name, children, parameter);
+            functionNode.setFrameSize(frameSize);
+            functions.add(functionNode);
+        }
+
+        for (int i = 0; i < calls.size(); i++) {
+            int index = callIndices.get(i);
+            if (index != -1) {
+                calls.get(i).setFunctionNode((FunctionNode) functions.get(index));
+            }
+        }
+
+        MainNode mainNode = new MainNode(globalVariables, functions);
+        mainNode.setGlobalCount(globalCount);
+
+        return mainNode;
+    }
+
+    private List<Node> readNodes() {
+        int size = in.getInt();
+
+        List<Node> nodes = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            nodes.add(readNode());
+        }
+
+        return nodes;
+    }
+
+    /**
+     * Reads a node and all of its children. Deep expressions would overflow the Java stack with one frame per
+     * level, so the nodes whose children are still being read wait on an explicit stack.
+     */
+    private Node readNode() {
+        Deque<PendingNode> pending = new ArrayDeque<>();
+
+        while (true) {
+            Object read = readHeader();
+            if (read instanceof PendingNode) {
+                pending.push((PendingNode) read);
+            } else if (pending.isEmpty()) {
+                return (Node) read;
+            } else {
+                pending.peek().add((Node) read);
+            }
+
+            // Build every node whose children are all read
+            while (!pending.peek().needsChild()) {
+                Node node = build(pending.pop());
+                if (pending.isEmpty()) {
+                    return node;
+                }
+
+                pending.peek().add(node);
+            }
+        }
+    }
+
+    /**
+     * Reads the tag and the fields of a node.
+     *
+     * @return The node if it has no children or the pending node which collects them.
+     */
+    private Object readHeader() {
+        byte tag = in.get();
+        switch (tag) {
+            case CacheFormat.NULL:
+                return null;
+            case CacheFormat.NUMBER:
+                return new NumberNode(in.getInt());
+            case CacheFormat.BOOL:
+                return new BoolNode(in.get() != 0);
+            case CacheFormat.STRING: {
+                String value = readString();
+                if (in.getInt(in.position()) == -1) {
+                    in.getInt();
+
+                    return new StringNode(value);
+                }
+
+                PendingNode stringNode = new PendingNode(tag, "L");
+                stringNode.name = value;
+
+                return stringNode;
+            }
+            case CacheFormat.VARIABLE_USAGE: {
+                VariableUsageNode usage = new VariableUsageNode(readString());
+                usage.setVariableType(readType());
+                usage.setSlot(in.getInt());
+                usage.setGlobal(in.get() != 0);
+
+                return usage;
+            }
+            case CacheFormat.BINARY:
+            case CacheFormat.BOOLEAN: {
+                PendingNode expression = new PendingNode(tag, "NN");
+                expression.type = readType();
+
+                return expression;
+            }
+            case CacheFormat.UNARY: {
+                PendingNode unary = new PendingNode(tag, "N");
+                unary.type = readType();
+                unary.name = readString();
+
+                return unary;
+            }
+            case CacheFormat.FUNCTION_CALL: {
+                PendingNode call = new PendingNode(tag, "L");
+                call.name = readString();
+                call.number = in.getInt();
+                call.flag = in.get() != 0;
+
+                return call;
+            }
+            case CacheFormat.DECLARATION: {
+                VariableDeclarationNode declaration = new VariableDeclarationNode(readString(), readType());
+                declaration.setSlot(in.getInt());
+                declaration.setGlobal(in.get() != 0);
+
+                return declaration;
+            }
+            case CacheFormat.DECLARATION_ASSIGN:
+            case CacheFormat.ASSIGN: {
+                PendingNode variable = new PendingNode(tag, "N");
+                variable.name = readString();
+                variable.type = readType();
+                variable.number = in.getInt();
+                variable.flag = in.get() != 0;
+
+                return variable;
+            }
+            case CacheFormat.IF:
+                return new PendingNode(tag, "NNN");
+            case CacheFormat.WHILE:
+                return new PendingNode(tag, "NL");
+            case CacheFormat.FOR:
+                return new PendingNode(tag, "NNNN");
+            case CacheFormat.BLOCK:
+                return new PendingNode(tag, "L");
+            case CacheFormat.NO_OP:
+                return new NoOpNode();
+            default:
+                throw new SlugRuntimeException("invalid node tag " + tag);
+        }
+    }
+
+    private Node build(PendingNode pending) {
+        switch (pending.tag) {
+            case CacheFormat.STRING: {
+                StringNode stringNode = new StringNode(pending.name);
+                stringNode.setParts(pending.nodes(0));
+
+                return stringNode;
+            }
+            case CacheFormat.BINARY:
+                return new BinaryNode(pending.node(0), pending.type, pending.node(1));
+            case CacheFormat.BOOLEAN:
+                return new BooleanNode(pending.node(0), pending.type, pending.node(1));
+            case CacheFormat.UNARY:
+                return new UnaryNode(new Token(pending.type, pending.name), pending.node(0));
+            case CacheFormat.FUNCTION_CALL: {
+                FunctionCallNode call = new FunctionCallNode(pending.name, pending.nodes(0));
+                call.setTailCall(pending.flag);
+                calls.add(call);
+                callIndices.add(pending.number);
+
+                return call;
+            }
+            case CacheFormat.DECLARATION_ASSIGN: {
+                VariableDeclarationAssignNode declaration = new VariableDeclarationAssignNode(pending.name, pending.type, pending.node(0));
+                declaration.setSlot(pending.number);
+                declaration.setGlobal(pending.flag);
+
+                return declaration;
+            }
+            case CacheFormat.ASSIGN: {
+                VariableAssignNode assign = new VariableAssignNode(pending.name, pending.node(0));
+                assign.setVariableType(pending.type);
+                assign.setSlot(pending.number);
+                assign.setGlobal(pending.flag);
+
+                return assign;
+            }
+            case CacheFormat.IF:
+                return new IfNode(pending.node(0), (BlockNode) pending.node(1), (BlockNode) pending.node(2));
+            case CacheFormat.WHILE:
+                return new WhileNode(pending.node(0), pending.nodes(1));
+            case CacheFormat.FOR:
+                return new ForNode(pending.node(0), pending.node(1), pending.node(2), (BlockNode) pending.node(3));
+            case CacheFormat.BLOCK:
+                return new BlockNode(null, pending.nodes(0));
+            default:
+                throw new SlugRuntimeException("invalid node tag " + pending.tag);
+        }
+    }
+
+    private TokenType readType() {
+        byte ordinal = in.get();
+
+        return ordinal != -1 ? TOKEN_TYPES[ordinal] : null;
+    }
+
+    private String readString() {
+        byte[] bytes = new byte[in.getInt()];
+        in.get(bytes);
+
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * A node whose children are still being read. The shape lists its children in the order they are written,
+     * 'N' for a single node and 'L' for a list of nodes which starts with its size.
+     */
+    private final class PendingNode {
+
+        private final byte tag;
+        private final String shape;
+        private final List<Object> children = new ArrayList<>();
+
+        // The fields of the node, their meaning depends on the tag
+        private String name;
+        private TokenType type;
+        private int number;
+        private boolean flag;
+
+        // The list which is currently read and its size
+        private List<Node> list;
+        private int listSize;
+
+        private PendingNode(byte tag, String shape) {
+            this.tag = tag;
+            this.shape = shape;
+        }
+
+        /**
+         * Checks if another child needs to be read, reads the size of a list when it starts.
+         */
+        private boolean needsChild() {
+            while (true) {
+                if (list != null) {
+                    if (list.size() < listSize) {
+                        return true;
+                    }
+
+                    children.add(list);
+                    list = null;
+                } else if (children.size() == shape.length()) {
+                    return false;
+                } else if (shape.charAt(children.size()) == 'L') {
+                    listSize = in.getInt();
+                    list = new ArrayList<>(listSize);
+                } else {
+                    return true;
+                }
+            }
+        }
+
+        private void add(Node child) {
+            if (list != null) {
+                list.add(child);
+            } else {
+                children.add(child);
+            }
+        }
+
+        private Node node(int index) {
+            return (Node) children.get(index);
+        }
+
+        @SuppressWarnings("unchecked")
+        private List<Node> nodes(int index) {
+            return (List<Node>) children.get(index);
+        }
+    }
+}
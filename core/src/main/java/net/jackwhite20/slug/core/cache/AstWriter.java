@@ -0,0 +1,251 @@
+/*
+ * Copyright 2018 "JackWhite20"
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.jackwhite20.slug.core.cache;
+
+import net.jackwhite20.slug.ast.BinaryNode;
+import net.jackwhite20.slug.ast.BlockNode;
+import net.jackwhite20.slug.ast.BoolNode;
+import net.jackwhite20.slug.ast.BooleanNode;
+import net.jackwhite20.slug.ast.ExpressionNode;
+import net.jackwhite20.slug.ast.ForNode;
+import net.jackwhite20.slug.ast.FunctionCallNode;
+import net.jackwhite20.slug.ast.FunctionNode;
+import net.jackwhite20.slug.ast.IfNode;
+import net.jackwhite20.slug.ast.MainNode;
+import net.jackwhite20.slug.ast.NoOpNode;
+import net.jackwhite20.slug.ast.Node;
+import net.jackwhite20.slug.ast.NumberNode;
+import net.jackwhite20.slug.ast.StringNode;
+import net.jackwhite20.slug.ast.UnaryNode;
+import net.jackwhite20.slug.ast.VariableAssignNode;
+import net.jackwhite20.slug.ast.VariableDeclarationAssignNode;
+import net.jackwhite20.slug.ast.VariableDeclarationNode;
+import net.jackwhite20.slug.ast.VariableUsageNode;
+import net.jackwhite20.slug.ast.WhileNode;
+import net.jackwhite20.slug.exception.SlugRuntimeException;
+import net.jackwhite20.slug.lexer.TokenType;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes a parsed and resolved program in the binary .slugc format.
+ * <p>
+ * Calls to script functions are written as the index of the called function, so the reader can bind them
+ * again without resolving the program.
+ *
+ * @author Philip 'JackWhite20' <silencephil@gmail.com>
+ */
+class AstWriter {
+
+    // Stands in for missing nodes on the stack, which doesn't accept null
+    private static final Object NULL = new Object();
+
+    private final DataOutputStream out;
+    // Nodes implement equals over their children, so functions are looked up by identity
+    private final Map<FunctionNode, Integer> functionIndices = new IdentityHashMap<>();
+
+    AstWriter(DataOutputStream out) {
+        this.out = out;
+    }
+
+    void write(MainNode mainNode) throws IOException {
+        List<Node> functions = mainNode.getFunctions();
+        for (int i = 0; i < functions.size(); i++) {
+            functionIndices.put((FunctionNode) functions.get(i), i);
+        }
+
+        out.writeInt(mainNode.getGlobalCount());
+        writeNodes(mainNode.getGlobalVariables());
+
+        out.writeInt(functions.size());
+        for (Node function : functions) {
+            FunctionNode functionNode = (FunctionNode) function;
+
+            writeString(functionNode.getName());
+            out.writeInt(functionNode.getFrameSize());
+            writeNodes(functionNode.getParameter());
+            writeNode(functionNode.getChildren());
+        }
+    }
+
+    private void writeNodes(List<Node> nodes) throws IOException {
+        out.writeInt(nodes.size());
+        for (Node node : nodes) {
+            writeNode(node);
+        }
+    }
+
+    /**
+     * Writes a node and all of its children. Deep expressions would overflow the Java stack with one frame per
+     * level, so the pending children and list sizes are kept on an explicit stack in the order they are written.
+     */
+    private void writeNode(Node root) throws IOException {
+        Deque<Object> pending = new ArrayDeque<>();
+        push(pending, root);
+
+        while (!pending.isEmpty()) {
+            Object item = pending.pop();
+            if (item instanceof Integer) {
+                out.writeInt((Integer) item);
+            } else {
+                writeHeader(item != NULL ? (Node) item : null, pending);
+            }
+        }
+    }
+
+    /**
+     * Writes the tag and the fields of a node and pushes its children, the last child first.
+     */
+    private void writeHeader(Node node, Deque<Object> pending) throws IOException {
+        if (node == null) {
+            out.writeByte(CacheFormat.NULL);
+        } else if (node instanceof NumberNode) {
+            out.writeByte(CacheFormat.NUMBER);
+            out.writeInt(((NumberNode) node).getValue());
+        } else if (node instanceof BoolNode) {
+            out.writeByte(CacheFormat.BOOL);
+            out.writeBoolean(((BoolNode) node).isValue());
+        } else if (node instanceof StringNode) {
+            StringNode stringNode = (StringNode) node;
+
+            out.writeByte(CacheFormat.STRING);
+            writeString(stringNode.getValue());
+            if (stringNode.getParts() == null) {
+                out.writeInt(-1);
+            } else {
+                pushAll(pending, stringNode.getParts());
+            }
+        } else if (node instanceof VariableUsageNode) {
+            VariableUsageNode usage = (VariableUsageNode) node;
+
+            out.writeByte(CacheFormat.VARIABLE_USAGE);
+            writeString(usage.getVariableName());
+            writeType(usage.getVariableType());
+            out.writeInt(usage.getSlot());
+            out.writeBoolean(usage.isGlobal());
+        } else if (node.getClass() == BinaryNode.class || node.getClass() == BooleanNode.class) {
+            ExpressionNode expression = (ExpressionNode) node;
+
+            out.writeByte(node instanceof BooleanNode ? CacheFormat.BOOLEAN : CacheFormat.BINARY);
+            writeType(expression.getOperator());
+            push(pending, expression.getRight());
+            push(pending, expression.getLeft());
+        } else if (node instanceof UnaryNode) {
+            UnaryNode unary = (UnaryNode) node;
+
+            out.writeByte(CacheFormat.UNARY);
+            writeType(unary.getOperator().getTokenType());
+            writeString(unary.getOperator().getValue());
+            push(pending, unary.getExpression());
+        } else if (node instanceof FunctionCallNode) {
+            FunctionCallNode call = (FunctionCallNode) node;
+
+            out.writeByte(CacheFormat.FUNCTION_CALL);
+            writeString(call.getName());
+            // Internal functions are not bound to a function node
+            out.writeInt(call.getFunctionNode() != null ? functionIndices.get(call.getFunctionNode()) : -1);
+            out.writeBoolean(call.isTailCall());
+            pushAll(pending, call.getParameter());
+        } else if (node instanceof VariableDeclarationNode) {
+            VariableDeclarationNode declaration = (VariableDeclarationNode) node;
+
+            out.writeByte(CacheFormat.DECLARATION);
+            writeString(declaration.getVariableName());
+            writeType(declaration.getVariableType());
+            out.writeInt(declaration.getSlot());
+            out.writeBoolean(declaration.isGlobal());
+        } else if (node instanceof VariableDeclarationAssignNode) {
+            VariableDeclarationAssignNode declaration = (VariableDeclarationAssignNode) node;
+
+            out.writeByte(CacheFormat.DECLARATION_ASSIGN);
+            writeString(declaration.getVariableName());
+            writeType(declaration.getVariableType());
+            out.writeInt(declaration.getSlot());
+            out.writeBoolean(declaration.isGlobal());
+            push(pending, declaration.getRight());
+        } else if (node instanceof VariableAssignNode) {
+            VariableAssignNode assign = (VariableAssignNode) node;
+
+            out.writeByte(CacheFormat.ASSIGN);
+            writeString(assign.getVariableName());
+            writeType(assign.getVariableType());
+            out.writeInt(assign.getSlot());
+            out.writeBoolean(assign.isGlobal());
+            push(pending, assign.getRight());
+        } else if (node instanceof IfNode) {
+            IfNode ifNode = (IfNode) node;
+
+            out.writeByte(CacheFormat.IF);
+            push(pending, ifNode.getFalseNodes());
+            push(pending, ifNode.getTrueNodes());
+            push(pending, ifNode.getExpression());
+        } else if (node instanceof WhileNode) {
+            WhileNode whileNode = (WhileNode) node;
+
+            out.writeByte(CacheFormat.WHILE);
+            pushAll(pending, whileNode.getChildren());
+            push(pending, whileNode.getExpression());
+        } else if (node instanceof ForNode) {
+            ForNode forNode = (ForNode) node;
+
+            out.writeByte(CacheFormat.FOR);
+            push(pending, forNode.getBlock());
+            push(pending, forNode.getExpression());
+            push(pending, forNode.getCondition());
+            push(pending, forNode.getDeclaration());
+        } else if (node instanceof BlockNode) {
+            out.writeByte(CacheFormat.BLOCK);
+            pushAll(pending, ((BlockNode) node).getStatements());
+        } else if (node instanceof NoOpNode) {
+            out.writeByte(CacheFormat.NO_OP);
+        } else {
+            throw new SlugRuntimeException("node " + node.getClass().getSimpleName() + " can't be cached");
+        }
+    }
+
+    private static void push(Deque<Object> pending, Node node) {
+        pending.push(node != null ? node : NULL);
+    }
+
+    /**
+     * Pushes a list of nodes, its size is written before the nodes like {@link #writeNodes(List)} does.
+     */
+    private static void pushAll(Deque<Object> pending, List<Node> nodes) {
+        for (int i = nodes.size() - 1; i >= 0; i--) {
+            push(pending, nodes.get(i));
+        }
+        pending.push(nodes.size());
+    }
+
+    private void writeType(TokenType type) throws IOException {
+        out.writeByte(type != null ? type.ordinal() : -1);
+    }
+
+    private void writeString(String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+}
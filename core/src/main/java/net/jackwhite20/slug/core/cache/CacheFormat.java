@@ -0,0 +1,54 @@
+/*
+ * Copyright 2018 "JackWhite20"
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.jackwhite20.slug.core.cache;
+
+/**
+ * Constants of the binary .slugc format.
+ * <p>
+ * Token types are stored by their ordinal, so the version needs to be increased whenever the nodes or the
+ * token types change.
+ *
+ * @author Philip 'JackWhite20' <silencephil@gmail.com>
+ */
+final class CacheFormat {
+
+    static final int MAGIC = 0x534C5547;
+    static final int VERSION = 2;
+    static final int HASH_LENGTH = 32;
+
+    static final byte NULL = 0;
+    static final byte NUMBER = 1;
+    static final byte BOOL = 2;
+    static final byte STRING = 3;
+    static final byte VARIABLE_USAGE = 4;
+    static final byte BINARY = 5;
+    static final byte BOOLEAN = 6;
+    static final byte UNARY = 7;
+    static final byte FUNCTION_CALL = 8;
+    static final byte DECLARATION = 9;
+    static final byte DECLARATION_ASSIGN = 10;
+    static final byte ASSIGN = 11;
+    static final byte IF = 12;
+    static final byte WHILE = 13;
+    static final byte FOR = 14;
+    static final byte BLOCK = 15;
+    static final byte NO_OP = 16;
+
+    CacheFormat() {
+        throw new AssertionError("no instance allowed");
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright 2018 "JackWhite20"
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.jackwhite20.slug.core.cache;
+
+import net.jackwhite20.slug.ast.MainNode;
+import net.jackwhite20.slug.ast.Node;
+import net.jackwhite20.slug.core.lexer.SourceLoader;
+import net.jackwhite20.slug.core.lexer.TableLexer;
+import net.jackwhite20.slug.core.optimizer.Optimizer;
+import net.jackwhite20.slug.core.parser.Parser;
+import net.jackwhite20.slug.exception.SlugRuntimeException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+/**
+ * Caches the parsed program of a source file in a .slugc file next to it, so unchanged scripts skip lexing,
+ * parsing, resolving and optimizing on the next start.
+ * <p>
+ * The cache is keyed by the SHA-256 hash of the source and if the program was optimized. A cache file which
+ * doesn't match or can't be read is replaced with the freshly parsed program.
+ *
+ * @author Philip 'JackWhite20' <silencephil@gmail.com>
+ */
+public final class ProgramCache {
+
+    private static Logger logger = LoggerFactory.getLogger(ProgramCache.class);
+
+    ProgramCache() {
+        throw new AssertionError("no instance allowed");
+    }
+
+    /**
+     * Loads the program of the source file from its cache or parses it and caches it.
+     *
+     * @param source The path of the source file.
+     * @param optimizing If the program should be optimized.
+     * @return The program.
+     * @throws IOException If the source file can't be read.
+     */
+    public static Node load(Path source, boolean optimizing) throws IOException {
+        long now = System.currentTimeMillis();
+
+        byte[] hash = hash(source);
+        Path cache = cachePath(source);
+
+        MainNode cached = read(cache, hash, optimizing);
+        if (cached != null) {
+            logger.debug("Loaded {} from cache in {}ms", source, System.currentTimeMillis() - now);
+            return cached;
+        }
+
+        Parser parser = new Parser(new TableLexer(SourceLoader.load(source)), optimizing ? Optimizer.defaults() : Optimizer.none());
+        MainNode mainNode = (MainNode) parser.parse();
+
+        try {
+            write(cache, hash, optimizing, mainNode);
+        } catch (IOException | RuntimeException e) {
+            // The program still runs if the cache can't be written, like in a read only directory
+            logger.debug("Could not write cache " + cache, e);
+        }
+
+        return mainNode;
+    }
+
+    /**
+     * Gets the path of the cache file of a source file, "script.slug" is cached in "script.slugc".
+     *
+     * @param source The path of the source file.
+     * @return The path of the cache file.
+     */
+    public static Path cachePath(Path source) {
+        String fileName = source.getFileName().toString();
+
+        return source.resolveSibling(fileName.endsWith(".slug") ? fileName + "c" : fileName + ".slugc");
+    }
+
+    private static MainNode read(Path cache, byte[] hash, boolean optimizing) {
+        if (!Files.isRegularFile(cache)) {
+            return null;
+        }
+
+        try (FileChannel channel = FileChannel.open(cache, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            if (buffer.getInt() != CacheFormat.MAGIC || buffer.getInt() != CacheFormat.VERSION ||
+                    (buffer.get() != 0) != optimizing) {
+                return null;
+            }
+
+            byte[] cachedHash = new byte[CacheFormat.HASH_LENGTH];
+            buffer.get(cachedHash);
+            if (!Arrays.equals(hash, cachedHash)) {
+                return null;
+            }
+
+            return new AstReader(buffer).read();
+        } catch (IOException | RuntimeException e) {
+            // A broken cache is parsed again and overwritten
+            logger.debug("Could not read cache " + cache, e);
+            return null;
+        }
+    }
+
+    private static void write(Path cache, byte[] hash, boolean optimizing, MainNode mainNode) throws IOException {
+        // Write to a temporary file first, so concurrent runs of the same script never see a partial cache
+        Path temporary = Files.createTempFile(cache.toAbsolutePath().getParent(), cache.getFileName().toString(), ".tmp");
+
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+                out.writeInt(CacheFormat.MAGIC);
+                out.writeInt(CacheFormat.VERSION);
+                out.writeBoolean(optimizing);
+                out.write(hash);
+
+                new AstWriter(out).write(mainNode);
+            }
+
+            try {
+                Files.move(temporary, cache, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, cache, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    private static byte[] hash(Path source) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new SlugRuntimeException("SHA-256 is not available");
+        }
+
+        try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            digest.update(buffer);
+        }
+
+        return digest.digest();
+    }
+}
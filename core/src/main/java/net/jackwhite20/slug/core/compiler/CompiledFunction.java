@@ -0,0 +1,43 @@
+/*
+ * Copyright 2018 "JackWhite20"
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.jackwhite20.slug.core.compiler;
+
+import lombok.Data;
+
+/**
+ * A single function lowered to the instruction set from {@link OpCode}.
+ *
+ * @author Philip 'JackWhite20' <silencephil@gmail.com>
+ */
+@Data
+public class CompiledFunction {
+
+    private final String name;
+
+    /**
+     * The types the caller converts the arguments to before it pushes them.
+     */
+    private final ValueType[] parameterTypes;
+    private final int[] code;
+    private final Object[] constants;
+    private final int maxLocals;
+    private final int maxStack;
+
+    public int getParameterCount() {
+        return parameterTypes.length;
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2018 "JackWhite20"
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.jackwhite20.slug.core.compiler;
+
+import lombok.Data;
+
+/**
+ * The result of compiling a slug main file.
+ *
+ * @author Philip 'JackWhite20' <silencephil@gmail.com>
+ */
+@Data
+public class CompiledProgram {
+
+    /**
+     * All functions indexed by the operand of {@link OpCode#CALL}.
+     */
+    private final CompiledFunction[] functions;
+
+    /**
+     * Initializes the global variables, runs before the main function.
+     */
+    private final CompiledFunction globalInitializer;
+
+    /**
+     * The index of the 'Main' function or -1 if the file only contains global variables.
+     */
+    private final int mainIndex;
+
+    private final int globalCount;
+}
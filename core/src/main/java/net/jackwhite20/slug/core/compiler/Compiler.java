@@ -0,0 +1,534 @@
+/*
+ * Copyright 2018 "JackWhite20"
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.jackwhite20.slug.core.compiler;
+
+import net.jackwhite20.slug.ast.BinaryNode;
+import net.jackwhite20.slug.ast.BlockNode;
+import net.jackwhite20.slug.ast.BoolNode;
+import net.jackwhite20.slug.ast.BooleanNode;
+import net.jackwhite20.slug.ast.ForNode;
+import net.jackwhite20.slug.ast.FunctionCallNode;
+import net.jackwhite20.slug.ast.FunctionNode;
+import net.jackwhite20.slug.ast.IfNode;
+import net.jackwhite20.slug.ast.MainNode;
+import net.jackwhite20.slug.ast.NoOpNode;
+import net.jackwhite20.slug.ast.Node;
+import net.jackwhite20.slug.ast.NumberNode;
+import net.jackwhite20.slug.ast.StringNode;
+import net.jackwhite20.slug.ast.UnaryNode;
+import net.jackwhite20.slug.ast.VariableAssignNode;
+import net.jackwhite20.slug.ast.VariableDeclarationAssignNode;
+import net.jackwhite20.slug.ast.VariableDeclarationNode;
+import net.jackwhite20.slug.ast.VariableUsageNode;
+import net.jackwhite20.slug.ast.WhileNode;
+import net.jackwhite20.slug.exception.SlugRuntimeException;
+import net.jackwhite20.slug.lexer.TokenType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lowers the AST from the {@link net.jackwhite20.slug.core.parser.Parser} into the flat instruction arrays
+ * executed by the {@link net.jackwhite20.slug.core.vm.VirtualMachine}.
+ * <p>
+ * Variables use the frame slots assigned by the {@link net.jackwhite20.slug.core.parser.Resolver}, an int
+ * variable and a string variable with the same slot are stored on the int and on the reference stack.
+ *
+ * @author Philip 'JackWhite20' <silencephil@gmail.com>
+ */
+public class Compiler {
+
+    private final Map<String, Integer> functionIndices = new HashMap<>();
+
+    private FunctionBuilder builder;
+
+    /**
+     * Compiles the given AST which needs to be the main node returned by the parser.
+     *
+     * @param ast The AST to compile.
+     * @return The executable program.
+     */
+    public CompiledProgram compile(Node ast) {
+        if (!(ast instanceof MainNode)) {
+            throw new SlugRuntimeException("can only compile a main node");
+        }
+
+        MainNode mainNode = (MainNode) ast;
+        if (mainNode.getFunctions().size() == 0 && mainNode.getGlobalVariables().size() == 0) {
+            throw new SlugRuntimeException("no functions and global variables");
+        }
+
+        // Assign the indices first to allow calls to every function
+        List<Node> functionNodes = mainNode.getFunctions();
+        for (int i = 0; i < functionNodes.size(); i++) {
+            functionIndices.put(((FunctionNode) functionNodes.get(i)).getName(), i);
+        }
+
+        builder = new FunctionBuilder("<globals>", new ValueType[0], 0);
+        for (Node globalVariable : mainNode.getGlobalVariables()) {
+            compileStatement(globalVariable);
+        }
+        builder.emit(OpCode.RETURN, 0);
+        CompiledFunction globalInitializer = builder.build();
+
+        int mainIndex = -1;
+        if (functionNodes.size() > 0) {
+            FunctionNode mainFunction = (FunctionNode) functionNodes.get(functionNodes.size() - 1);
+            if (!mainFunction.getName().equals("Main")) {
+                throw new SlugRuntimeException("the 'Main' function needs to be the last function");
+            }
+
+            mainIndex = functionNodes.size() - 1;
+        }
+
+        CompiledFunction[] functions = new CompiledFunction[functionNodes.size()];
+        for (int i = 0; i < functions.length; i++) {
+            functions[i] = compileFunction((FunctionNode) functionNodes.get(i));
+        }
+
+        return new CompiledProgram(functions, globalInitializer, mainIndex, mainNode.getGlobalCount());
+    }
+
+    private CompiledFunction compileFunction(FunctionNode functionNode) {
+        ValueType[] parameterTypes = new ValueType[functionNode.getParameter().size()];
+        for (int i = 0; i < parameterTypes.length; i++) {
+            parameterTypes[i] = ValueType.of(((VariableDeclarationNode) functionNode.getParameter().get(i)).getVariableType());
+        }
+
+        // The caller pushes the arguments, so the parameters are the first locals of the frame
+        builder = new FunctionBuilder(functionNode.getName(), parameterTypes, functionNode.getFrameSize());
+
+        compileBlock(functionNode.getChildren());
+        builder.emit(OpCode.RETURN, 0);
+
+        return builder.build();
+    }
+
+    private void compileStatement(Node node) {
+        if (node instanceof VariableDeclarationNode) {
+            VariableDeclarationNode declaration = (VariableDeclarationNode) node;
+            ValueType type = ValueType.of(declaration.getVariableType());
+
+            // Always store the default value, the slot may be reused by a previous block or loop iteration
+            if (type == ValueType.STRING) {
+                emitConstant("");
+            } else {
+                builder.emit(OpCode.ICONST, 1, 0);
+            }
+
+            emitStore(type, declaration.isGlobal(), declaration.getSlot());
+        } else if (node instanceof VariableDeclarationAssignNode) {
+            VariableDeclarationAssignNode declaration = (VariableDeclarationAssignNode) node;
+            ValueType type = ValueType.of(declaration.getVariableType());
+
+            compileAs(declaration.getRight(), type);
+            emitStore(type, declaration.isGlobal(), declaration.getSlot());
+        } else if (node instanceof VariableAssignNode) {
+            VariableAssignNode assign = (VariableAssignNode) node;
+            ValueType type = ValueType.of(assign.getVariableType());
+
+            compileAs(assign.getRight(), type);
+            emitStore(type, assign.isGlobal(), assign.getSlot());
+        } else if (node instanceof FunctionCallNode) {
+            compileFunctionCall((FunctionCallNode) node);
+
+            // Nobody uses the result of a call statement, a tail call doesn't return one
+            if (!((FunctionCallNode) node).isTailCall()) {
+                builder.emit(OpCode.POP, -1);
+            }
+        } else if (node instanceof IfNode) {
+            compileIf((IfNode) node);
+        } else if (node instanceof WhileNode) {
+            compileWhile((WhileNode) node);
+        } else if (node instanceof ForNode) {
+            compileFor((ForNode) node);
+        } else if (node instanceof BlockNode) {
+            compileBlock((BlockNode) node);
+        } else if (!(node instanceof NoOpNode)) {
+            throw new SlugRuntimeException("unhandled node " + node.getClass().getName());
+        }
+    }
+
+    private void compileBlock(BlockNode blockNode) {
+        for (Node statement : blockNode.getStatements()) {
+            compileStatement(statement);
+        }
+    }
+
+    private void compileIf(IfNode node) {
+        int falseJump = compileCondition(node.getExpression());
+
+        compileBlock(node.getTrueNodes());
+
+        if (node.getFalseNodes() != null) {
+            int endJump = builder.emitJump(OpCode.JUMP, 0);
+            builder.patch(falseJump);
+
+            compileBlock(node.getFalseNodes());
+            builder.patch(endJump);
+        } else {
+            builder.patch(falseJump);
+        }
+    }
+
+    private void compileWhile(WhileNode node) {
+        int loopStart = builder.position();
+        int exitJump = compileCondition(node.getExpression());
+
+        for (Node children : node.getChildren()) {
+            compileStatement(children);
+        }
+
+        builder.emit(OpCode.JUMP, 0, loopStart);
+        builder.patch(exitJump);
+    }
+
+    private void compileFor(ForNode node) {
+        compileStatement(node.getDeclaration());
+
+        int loopStart = builder.position();
+        int exitJump = compileCondition(node.getCondition());
+
+        compileBlock(node.getBlock());
+
+        // At the end compile the expression to eg. increase the variable used in the declaration
+        compileStatement(node.getExpression());
+
+        builder.emit(OpCode.JUMP, 0, loopStart);
+        builder.patch(exitJump);
+    }
+
+    /**
+     * Compiles a condition and emits the jump which is taken if the condition is false.
+     *
+     * @param condition The condition.
+     * @return The position of the jump target which needs to be patched.
+     */
+    private int compileCondition(Node condition) {
+        if (condition instanceof BooleanNode) {
+            BooleanNode booleanNode = (BooleanNode) condition;
+
+            // Fuse int comparisons and the jump into a single instruction
+            if (isIntComparison(booleanNode)) {
+                compileAs(booleanNode.getLeft(), ValueType.INT);
+                compileAs(booleanNode.getRight(), ValueType.INT);
+
+                return builder.emitJump(fusedJump(booleanNode.getOperator()), -2);
+            }
+        }
+
+        compileAs(condition, ValueType.BOOL);
+
+        return builder.emitJump(OpCode.JUMP_IF_FALSE, -1);
+    }
+
+    /**
+     * Compiles the expression and converts the result into the target type.
+     */
+    private void compileAs(Node node, ValueType target) {
+        ValueType type = compileExpression(node);
+        if (type == target || (type.isPrimitive() && target.isPrimitive())) {
+            return;
+        }
+
+        if (type == ValueType.INT) {
+            builder.emit(OpCode.BOX_INT, 0);
+        } else if (type == ValueType.BOOL) {
+            builder.emit(OpCode.BOX_BOOL, 0);
+        } else if (target == ValueType.INT) {
+            builder.emit(OpCode.UNBOX_INT, 0);
+        } else if (target == ValueType.BOOL) {
+            builder.emit(OpCode.UNBOX_BOOL, 0);
+        }
+
+        // Strings and objects share the reference stack and need no conversion
+    }
+
+    private ValueType compileExpression(Node node) {
+        if (node instanceof NumberNode) {
+            builder.emit(OpCode.ICONST, 1, ((NumberNode) node).getValue());
+            return ValueType.INT;
+        } else if (node instanceof BoolNode) {
+            builder.emit(OpCode.ICONST, 1, ((BoolNode) node).isValue() ? 1 : 0);
+            return ValueType.BOOL;
+        } else if (node instanceof StringNode) {
+            compileString((StringNode) node);
+            return ValueType.STRING;
+        } else if (node instanceof VariableUsageNode) {
+            VariableUsageNode usage = (VariableUsageNode) node;
+            ValueType type = ValueType.of(usage.getVariableType());
+
+            emitLoad(type, usage.isGlobal(), usage.getSlot());
+            return type;
+        } else if (node instanceof BinaryNode) {
+            compileBinary((BinaryNode) node);
+            return ValueType.INT;
+        } else if (node instanceof UnaryNode) {
+            UnaryNode unaryNode = (UnaryNode) node;
+
+            compileAs(unaryNode.getExpression(), ValueType.INT);
+            if (unaryNode.getOperator().getTokenType() == TokenType.MINUS) {
+                builder.emit(OpCode.INEG, 0);
+            } else if (unaryNode.getOperator().getTokenType() != TokenType.PLUS) {
+                throw new SlugRuntimeException("invalid unary operator " + unaryNode.getOperator().getTokenType());
+            }
+            return ValueType.INT;
+        } else if (node instanceof BooleanNode) {
+            compileComparison((BooleanNode) node);
+            return ValueType.BOOL;
+        } else if (node instanceof FunctionCallNode) {
+            compileFunctionCall((FunctionCallNode) node);
+            return ValueType.OBJECT;
+        }
+
+        throw new SlugRuntimeException("unhandled node " + node.getClass().getName());
+    }
+
+    private void compileBinary(BinaryNode node) {
+        compileAs(node.getLeft(), ValueType.INT);
+        compileAs(node.getRight(), ValueType.INT);
+
+        TokenType operator = node.getOperator();
+        if (operator == TokenType.PLUS) {
+            builder.emit(OpCode.IADD, -1);
+        } else if (operator == TokenType.MINUS) {
+            builder.emit(OpCode.ISUB, -1);
+        } else if (operator == TokenType.MULTIPLY) {
+            builder.emit(OpCode.IMUL, -1);
+        } else if (operator == TokenType.DIVIDE) {
+            builder.emit(OpCode.IDIV, -1);
+        } else {
+            throw new SlugRuntimeException("unhandled binary operator " + operator);
+        }
+    }
+
+    private void compileComparison(BooleanNode node) {
+        TokenType operator = node.getOperator();
+
+        if (isIntComparison(node)) {
+            compileAs(node.getLeft(), ValueType.INT);
+            compileAs(node.getRight(), ValueType.INT);
+
+            if (operator == TokenType.EQUAL) {
+                builder.emit(OpCode.IEQ, -1);
+            } else if (operator == TokenType.NOT_EQUAL) {
+                builder.emit(OpCode.INE, -1);
+            } else if (operator == TokenType.LESS) {
+                builder.emit(OpCode.ILT, -1);
+            } else if (operator == TokenType.GREATER) {
+                builder.emit(OpCode.IGT, -1);
+            } else if (operator == TokenType.LESS_EQUAL) {
+                builder.emit(OpCode.ILE, -1);
+            } else if (operator == TokenType.GREATER_EQUAL) {
+                builder.emit(OpCode.IGE, -1);
+            } else {
+                throw new SlugRuntimeException("invalid boolean operator " + operator);
+            }
+            return;
+        }
+
+        compileAs(node.getLeft(), ValueType.OBJECT);
+        compileAs(node.getRight(), ValueType.OBJECT);
+        builder.emit(operator == TokenType.EQUAL ? OpCode.AEQ : OpCode.ANE, -1);
+    }
+
+    /**
+     * References are only compared by equality, every other comparison or one with at least one
+     * primitive side compares ints.
+     */
+    private boolean isIntComparison(BooleanNode node) {
+        TokenType operator = node.getOperator();
+        if (operator != TokenType.EQUAL && operator != TokenType.NOT_EQUAL) {
+            return true;
+        }
+
+        return typeOf(node.getLeft()).isPrimitive() || typeOf(node.getRight()).isPrimitive();
+    }
+
+    private int fusedJump(TokenType operator) {
+        if (operator == TokenType.EQUAL) {
+            return OpCode.IFNOT_ICMPEQ;
+        } else if (operator == TokenType.NOT_EQUAL) {
+            return OpCode.IFNOT_ICMPNE;
+        } else if (operator == TokenType.LESS) {
+            return OpCode.IFNOT_ICMPLT;
+        } else if (operator == TokenType.GREATER) {
+            return OpCode.IFNOT_ICMPGT;
+        } else if (operator == TokenType.LESS_EQUAL) {
+            return OpCode.IFNOT_ICMPLE;
+        } else if (operator == TokenType.GREATER_EQUAL) {
+            return OpCode.IFNOT_ICMPGE;
+        }
+
+        throw new SlugRuntimeException("invalid boolean operator " + operator);
+    }
+
+    private void compileFunctionCall(FunctionCallNode node) {
+        FunctionNode functionNode = node.getFunctionNode();
+        List<Node> arguments = node.getParameter();
+
+        if (functionNode == null) {
+            // Internal functions get their arguments as boxed objects
+            for (Node argument : arguments) {
+                compileAs(argument, ValueType.OBJECT);
+            }
+
+            builder.emit(OpCode.INVOKE_BUILTIN, 1 - arguments.size(), builder.constant(node.getName()), arguments.size());
+            return;
+        }
+
+        // Don't allow a function call with the wrong amount of parameters passed to it
+        if (arguments.size() != functionNode.getParameter().size()) {
+            throw new SlugRuntimeException("parameter amount passed does not match function signature");
+        }
+
+        for (int i = 0; i < arguments.size(); i++) {
+            VariableDeclarationNode parameter = (VariableDeclarationNode) functionNode.getParameter().get(i);
+
+            compileAs(arguments.get(i), ValueType.of(parameter.getVariableType()));
+        }
+
+        if (node.isTailCall()) {
+            builder.emit(OpCode.TAIL_CALL, -arguments.size(), functionIndices.get(functionNode.getName()));
+        } else {
+            builder.emit(OpCode.CALL, 1 - arguments.size(), functionIndices.get(functionNode.getName()));
+        }
+    }
+
+    private void compileString(StringNode node) {
+        List<Node> parts = node.getParts();
+        if (parts == null) {
+            emitConstant(node.getValue());
+            return;
+        }
+
+        // Concat the literal parts and the inline variables at runtime
+        for (Node part : parts) {
+            compileAs(part, ValueType.OBJECT);
+        }
+
+        builder.emit(OpCode.CONCAT, 1 - parts.size(), parts.size());
+    }
+
+    private ValueType typeOf(Node node) {
+        if (node instanceof NumberNode || node instanceof BinaryNode || node instanceof UnaryNode) {
+            return ValueType.INT;
+        } else if (node instanceof BoolNode || node instanceof BooleanNode) {
+            return ValueType.BOOL;
+        } else if (node instanceof StringNode) {
+            return ValueType.STRING;
+        } else if (node instanceof VariableUsageNode) {
+            return ValueType.of(((VariableUsageNode) node).getVariableType());
+        }
+
+        return ValueType.OBJECT;
+    }
+
+    private void emitConstant(Object value) {
+        builder.emit(OpCode.LDC, 1, builder.constant(value));
+    }
+
+    private void emitLoad(ValueType type, boolean global, int slot) {
+        int opCode;
+        if (global) {
+            opCode = type.isPrimitive() ? OpCode.IGLOAD : OpCode.AGLOAD;
+        } else {
+            opCode = type.isPrimitive() ? OpCode.ILOAD : OpCode.ALOAD;
+        }
+
+        builder.emit(opCode, 1, slot);
+    }
+
+    private void emitStore(ValueType type, boolean global, int slot) {
+        int opCode;
+        if (global) {
+            opCode = type.isPrimitive() ? OpCode.IGSTORE : OpCode.AGSTORE;
+        } else {
+            opCode = type.isPrimitive() ? OpCode.ISTORE : OpCode.ASTORE;
+        }
+
+        builder.emit(opCode, -1, slot);
+    }
+
+    /**
+     * Holds the code and constants of the function which is currently compiled.
+     */
+    private static final class FunctionBuilder {
+
+        private final String name;
+        private final ValueType[] parameterTypes;
+
+        private int[] code = new int[64];
+        private int size;
+
+        private final List<Object> constants = new ArrayList<>();
+        private final Map<Object, Integer> constantIndices = new HashMap<>();
+
+        private final int maxLocals;
+
+        private int stackDepth;
+        private int maxStack;
+
+        private FunctionBuilder(String name, ValueType[] parameterTypes, int maxLocals) {
+            this.name = name;
+            this.parameterTypes = parameterTypes;
+            this.maxLocals = maxLocals;
+        }
+
+        private int position() {
+            return size;
+        }
+
+        private void emit(int opCode, int stackEffect, int... operands) {
+            if (size + operands.length + 1 > code.length) {
+                code = Arrays.copyOf(code, Math.max(code.length * 2, size + operands.length + 1));
+            }
+
+            code[size++] = opCode;
+            for (int operand : operands) {
+                code[size++] = operand;
+            }
+
+            stackDepth += stackEffect;
+            maxStack = Math.max(maxStack, stackDepth);
+        }
+
+        private int emitJump(int opCode, int stackEffect) {
+            emit(opCode, stackEffect, -1);
+
+            return size - 1;
+        }
+
+        private void patch(int jumpOperand) {
+            code[jumpOperand] = size;
+        }
+
+        private int constant(Object value) {
+            return constantIndices.computeIfAbsent(value, key -> {
+                constants.add(key);
+                return constants.size() - 1;
+            });
+        }
+
+        private CompiledFunction build() {
+            return new CompiledFunction(name, parameterTypes, Arrays.copyOf(code, size), constants.toArray(), maxLocals, maxStack);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2018 "JackWhite20"
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.jackwhite20.slug.core.compiler;
+
+/**
+ * The instruction set of the slug virtual machine.
+ * <p>
+ * Every instruction is a single int in the code array followed by its inline operands. Ints and booleans
+ * (0 or 1) live unboxed on the int stack, strings and other objects on the reference stack. Both stacks share
+ * the same stack pointer, so every slot is either an int or a reference slot which is known at compile time.
+ *
+ * @author Philip 'JackWhite20' <silencephil@gmail.com>
+ */
+public final class OpCode {
+
+    // Constants: ICONST <value>, LDC <constant index>
+    public static final int ICONST = 0;
+    public static final int LDC = 1;
+
+    // Locals: <slot>
+    public static final int ILOAD = 2;
+    public static final int ISTORE = 3;
+    public static final int ALOAD = 4;
+    public static final int ASTORE = 5;
+
+    // Globals: <slot>
+    public static final int IGLOAD = 6;
+    public static final int IGSTORE = 7;
+    public static final int AGLOAD = 8;
+    public static final int AGSTORE = 9;
+
+    // Int arithmetic
+    public static final int IADD = 10;
+    public static final int ISUB = 11;
+    public static final int IMUL = 12;
+    public static final int IDIV = 13;
+    public static final int INEG = 14;
+
+    // Comparisons which push a boolean
+    public static final int IEQ = 15;
+    public static final int INE = 16;
+    public static final int ILT = 17;
+    public static final int IGT = 18;
+    public static final int ILE = 19;
+    public static final int IGE = 20;
+    public static final int AEQ = 21;
+    public static final int ANE = 22;
+
+    // Control flow: <target>
+    public static final int JUMP = 23;
+    public static final int JUMP_IF_FALSE = 24;
+
+    // Fused int compare and jump if the comparison is false: <target>
+    public static final int IFNOT_ICMPEQ = 25;
+    public static final int IFNOT_ICMPNE = 26;
+    public static final int IFNOT_ICMPLT = 27;
+    public static final int IFNOT_ICMPGT = 28;
+    public static final int IFNOT_ICMPLE = 29;
+    public static final int IFNOT_ICMPGE = 30;
+
+    // Conversions between the int and the reference stack
+    public static final int BOX_INT = 31;
+    public static final int BOX_BOOL = 32;
+    public static final int UNBOX_INT = 33;
+    public static final int UNBOX_BOOL = 34;
+
+    // String interpolation: CONCAT <amount of references>
+    public static final int CONCAT = 35;
+
+    // Calls: CALL <function index>, INVOKE_BUILTIN <name constant index> <argument count>
+    public static final int CALL = 36;
+    public static final int INVOKE_BUILTIN = 37;
+    public static final int RETURN = 38;
+
+    public static final int POP = 39;
+
+    // A call in tail position which replaces the frame of the caller: TAIL_CALL <function index>
+    public static final int TAIL_CALL = 40;
+
+    /**
+     * Gets the amount of inline operands which follow the given instruction.
+     *
+     * @param opCode The instruction.
+     * @return The amount of operands.
+     */
+    public static int operandCount(int opCode) {
+        switch (opCode) {
+            case ICONST:
+            case LDC:
+            case ILOAD:
+            case ISTORE:
+            case ALOAD:
+            case ASTORE:
+            case IGLOAD:
+            case IGSTORE:
+            case AGLOAD:
+            case AGSTORE:
+            case JUMP:
+            case JUMP_IF_FALSE:
+            case IFNOT_ICMPEQ:
+            case IFNOT_ICMPNE:
+            case IFNOT_ICMPLT:
+            case IFNOT_ICMPGT:
+            case IFNOT_ICMPLE:
+            case IFNOT_ICMPGE:
+            case CONCAT:
+            case CALL:
+            case TAIL_CALL:
+                return 1;
+            case INVOKE_BUILTIN:
+                return 2;
+            default:
+                return 0;
+        }
+    }
+
+    OpCode() {
+        throw new AssertionError("no instance allowed");
+    }
+}
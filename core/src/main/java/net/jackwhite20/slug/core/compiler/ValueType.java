@@ -0,0 +1,57 @@
+/*
+ * Copyright 2018 "JackWhite20"
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.jackwhite20.slug.core.compiler;
+
+import net.jackwhite20.slug.exception.SlugRuntimeException;
+import net.jackwhite20.slug.lexer.TokenType;
+
+/**
+ * The static type of a value the compiler knows about.
+ *
+ * @author Philip 'JackWhite20' <silencephil@gmail.com>
+ */
+public enum ValueType {
+
+    INT,
+    BOOL,
+    STRING,
+    /**
+     * Values only known at runtime, for example the result of a function call.
+     */
+    OBJECT;
+
+    /**
+     * If the value lives on the int stack (ints and booleans) instead of the reference stack.
+     *
+     * @return True if the value is stored unboxed.
+     */
+    public boolean isPrimitive() {
+        return this == INT || this == BOOL;
+    }
+
+    public static ValueType of(TokenType variableType) {
+        if (variableType == TokenType.INTEGER) {
+            return INT;
+        } else if (variableType == TokenType.BOOL) {
+            return BOOL;
+        } else if (variableType == TokenType.STRING) {
+            return STRING;
+        }
+
+        throw new SlugRuntimeException("invalid variable type " + variableType);
+    }
+}
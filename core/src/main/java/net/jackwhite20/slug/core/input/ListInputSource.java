@@ -0,0 +1,52 @@
+/*
+ * Copyright 2018 "JackWhite20"
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.jackwhite20.slug.core.input;
+
+import net.jackwhite20.slug.input.InputSource;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Provides lines which are held in memory, like the input of a test.
+ *
+ * @author Philip 'JackWhite20' <silencephil@gmail.com>
+ */
+public final class ListInputSource implements InputSource {
+
+    private final List<String> lines;
+    private int next;
+
+    public ListInputSource(List<String> lines) {
+        this.lines = new ArrayList<>(lines);
+    }
+
+    public static ListInputSource of(String... lines) {
+        return new ListInputSource(Arrays.asList(lines));
+    }
+
+    @Override
+    public synchronized String readLine() {
+        return next < lines.size() ? lines.get(next++) : null;
+    }
+
+    @Override
+    public void close() {
+        // Nothing to close
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2018 "JackWhite20"
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.jackwhite20.slug.core.input;
+
+import net.jackwhite20.slug.exception.SlugRuntimeException;
+import net.jackwhite20.slug.input.InputSource;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Reads the lines of a UTF-8 file which is memory mapped, so large batch inputs are neither copied into the
+ * heap up front nor read through a stream. Lines end with "\n" or "\r\n".
+ *
+ * @author Philip 'JackWhite20' <silencephil@gmail.com>
+ */
+public final class MappedInputSource implements InputSource {
+
+    private final MappedByteBuffer buffer;
+
+    // A source may be shared by the contexts of multiple threads
+    private final ReentrantLock lock = new ReentrantLock();
+    private byte[] line = new byte[128];
+    private int position;
+
+    private MappedInputSource(MappedByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    /**
+     * Maps a file.
+     *
+     * @param path The path of the file.
+     * @return The source.
+     * @throws IOException If the file can't be mapped.
+     */
+    public static MappedInputSource open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new SlugRuntimeException("input file " + path + " is too large");
+            }
+
+            // The mapping stays valid after the channel is closed
+            return new MappedInputSource(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    @Override
+    public String readLine() {
+        lock.lock();
+        try {
+            int limit = buffer.limit();
+            if (position >= limit) {
+                return null;
+            }
+
+            int start = position;
+            int end = start;
+            while (end < limit && buffer.get(end) != '\n') {
+                end++;
+            }
+
+            // Skip the separator
+            position = end + 1;
+
+            if (end > start && buffer.get(end - 1) == '\r') {
+                end--;
+            }
+
+            int length = end - start;
+            if (length > line.length) {
+                line = new byte[Math.max(length, line.length * 2)];
+            }
+
+            buffer.position(start);
+            buffer.get(line, 0, length);
+
+            return new String(line, 0, length, StandardCharsets.UTF_8);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        // The mapping is released by the garbage collector
+        lock.lock();
+        try {
+            position = buffer.limit();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
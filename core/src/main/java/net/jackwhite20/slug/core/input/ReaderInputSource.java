@@ -0,0 +1,56 @@
+/*
+ * Copyright 2018 "JackWhite20"
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.jackwhite20.slug.core.input;
+
+import net.jackwhite20.slug.exception.SlugRuntimeException;
+import net.jackwhite20.slug.input.InputSource;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Reads the lines of a reader through a buffer, like the reader of a JSR-223 script context.
+ *
+ * @author Philip 'JackWhite20' <silencephil@gmail.com>
+ */
+public final class ReaderInputSource implements InputSource {
+
+    private final BufferedReader reader;
+
+    public ReaderInputSource(Reader reader) {
+        this.reader = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+    }
+
+    @Override
+    public String readLine() {
+        try {
+            return reader.readLine();
+        } catch (IOException e) {
+            throw new SlugRuntimeException("could not read the input: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            reader.close();
+        } catch (IOException e) {
+            throw new SlugRuntimeException("could not close the input: " + e.getMessage());
+        }
+    }
+}
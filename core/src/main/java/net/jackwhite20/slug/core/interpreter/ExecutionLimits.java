@@ -0,0 +1,59 @@
+/*
+ * Copyright 2018 "JackWhite20"
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.jackwhite20.slug.core.interpreter;
+
+import lombok.Data;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The limits of a single execution. A value of zero means that there is no limit.
+ * <p>
+ * The limits are checked at the back edges of loops and when a function is entered, so an execution may
+ * slightly overshoot them before it is stopped. The time and allocation limits are only checked at every 1024th
+ * of these points, since they are too expensive to measure at each of them.
+ *
+ * @author Philip 'JackWhite20' <silencephil@gmail.com>
+ */
+@Data
+public class ExecutionLimits {
+
+    /**
+     * The maximum amount of executed statements. Every evaluated loop condition and for update counts as one.
+     */
+    private long maxInstructions;
+
+    /**
+     * The maximum wall clock time of the execution in nanoseconds.
+     */
+    private long timeoutNanos;
+
+    /**
+     * The maximum depth of nested function calls.
+     */
+    private int maxCallDepth;
+
+    /**
+     * The maximum amount of bytes the executing thread may allocate. Only enforced if the JVM can measure the
+     * allocations of a thread.
+     */
+    private long maxAllocatedBytes;
+
+    public void setTimeout(long timeout, TimeUnit unit) {
+        this.timeoutNanos = unit.toNanos(timeout);
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2018 "JackWhite20"
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.jackwhite20.slug.core.interpreter;
+
+import net.jackwhite20.slug.variable.Frame;
+
+import java.util.Arrays;
+
+/**
+ * Hands out the activation frames of function calls of a single interpreter.
+ * <p>
+ * Calls are strictly nested, so the pool is a stack and the frame of every call depth is reused by the next
+ * call on that depth. In steady state a call doesn't allocate a frame at all. The pool belongs to the interpreter
+ * and not to a thread, so it is also reused if every execution runs on a new (eg. virtual) thread.
+ *
+ * @author Philip 'JackWhite20' <silencephil@gmail.com>
+ */
+public final class FramePool {
+
+    /**
+     * Frames deeper than this (eg. of a deep recursion) are not kept after they are released.
+     */
+    private static final int MAX_POOLED_FRAMES = 1024;
+
+    private Frame[] frames = new Frame[16];
+    private int depth;
+
+    /**
+     * Gets a frame with at least the given size which needs to be released in the reverse order of acquiring.
+     *
+     * @param size The amount of slots the frame needs.
+     * @return The frame.
+     */
+    public Frame acquire(int size) {
+        if (depth >= MAX_POOLED_FRAMES) {
+            depth++;
+            return new Frame(size);
+        }
+
+        if (depth == frames.length) {
+            frames = Arrays.copyOf(frames, Math.min(frames.length * 2, MAX_POOLED_FRAMES));
+        }
+
+        Frame frame = frames[depth];
+        if (frame == null || frame.size() < size) {
+            frame = new Frame(size);
+            frames[depth] = frame;
+        }
+
+        depth++;
+
+        return frame;
+    }
+
+    public void release(Frame frame) {
+        depth--;
+
+        if (depth < MAX_POOLED_FRAMES) {
+            frame.clear();
+        }
+    }
+}
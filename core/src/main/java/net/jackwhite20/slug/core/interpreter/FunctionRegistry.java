@@ -24,24 +24,23 @@ import java.util.HashMap;
 import java.util.Map;
 
 /**
+ * Holds the functions of a single program while it is parsed, so the resolver can bind calls to them.
+ * Every parser has its own registry, so programs can be parsed concurrently without seeing each other.
+ *
  * @author Philip 'JackWhite20' <silencephil@gmail.com>
  */
 public final class FunctionRegistry {
 
     private static Logger logger = LoggerFactory.getLogger(FunctionRegistry.class);
-    private static Map<String, FunctionNode> functions = new HashMap<>();
-
-    FunctionRegistry() {
-        throw new AssertionError("no instance allowed");
-    }
+    private final Map<String, FunctionNode> functions = new HashMap<>();
 
-    public static void register(FunctionNode functionNode) {
+    public void register(FunctionNode functionNode) {
         functions.put(functionNode.getName(), functionNode);
 
         logger.debug("Registered function {}", functionNode.getName());
     }
 
-    public static FunctionNode lookup(String functionName) {
+    public FunctionNode lookup(String functionName) {
         return functions.get(functionName);
     }
 }
@@ -1,31 +1,145 @@
 package net.jackwhite20.slug.core.interpreter;
 
 import net.jackwhite20.slug.exception.SlugRuntimeException;
+import net.jackwhite20.slug.function.InternalFunction;
+import net.jackwhite20.slug.function.SlugFunctionProvider;
+import net.jackwhite20.slug.input.Input;
+import net.jackwhite20.slug.output.Output;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Scanner;
+import java.util.ServiceLoader;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.function.Function;
 
 /**
+ * Holds the internal functions which scripts can call. Every isolate has its own registry, so a host can add
+ * functions for one isolate without affecting the scripts of the others. The functions of the
+ * {@link SlugFunctionProvider}s on the class path are part of every registry.
+ *
  * @author Philip 'JackWhite20' <silencephil@gmail.com>
  */
 public class InternalFunctionRegistry {
 
-    private static Map<String, Function<List<Object>, Object>> functions = new HashMap<>();
+    private static final Map<String, InternalFunction> DEFAULT_FUNCTIONS;
 
     static {
-        functions.put("WriteLine", params -> {
+        // The default functions are stateless, so every registry can share them
+        Map<String, InternalFunction> functions = new HashMap<>();
+        functions.put("WriteLine", new WriteLine());
+        functions.put("Random", new Random());
+        functions.put("ReadLine", new ReadLine());
+
+        // Provided functions may replace the built in ones
+        for (SlugFunctionProvider provider : ServiceLoader.load(SlugFunctionProvider.class)) {
+            for (InternalFunction function : provider.getFunctions()) {
+                functions.put(function.getName(), function);
+            }
+        }
+
+        DEFAULT_FUNCTIONS = Collections.unmodifiableMap(functions);
+    }
+
+    private final Map<String, InternalFunction> functions = new ConcurrentHashMap<>(DEFAULT_FUNCTIONS);
+
+    /**
+     * Registers an internal function or replaces the function with the same name.
+     *
+     * @param name The name scripts call the function with.
+     * @param function The function which gets the arguments of the call and returns the result or null.
+     */
+    public void register(String name, Function<List<Object>, Object> function) {
+        register(InternalFunction.of(name, function));
+    }
+
+    /**
+     * Registers an internal function or replaces the function with the same name.
+     *
+     * @param function The function.
+     */
+    public void register(InternalFunction function) {
+        functions.put(function.getName(), function);
+    }
+
+    /**
+     * Removes all functions, so a closed isolate doesn't keep the functions of the host alive.
+     */
+    public void clear() {
+        functions.clear();
+    }
+
+    /**
+     * Gets an internal function to bind a call to.
+     *
+     * @param functionName The name of the function.
+     * @return The function.
+     */
+    public InternalFunction lookup(String functionName) {
+        InternalFunction function = functions.get(functionName);
+        if (function != null) {
+            return function;
+        }
+
+        throw new SlugRuntimeException("function " + functionName + " not found");
+    }
+
+    public Object execute(String functionName, List<Object> params) {
+        return lookup(functionName).call(params);
+    }
+
+    public boolean isInternal(String name) {
+        return functions.containsKey(name);
+    }
+
+    private static final class WriteLine extends InternalFunction {
+
+        private WriteLine() {
+            super("WriteLine");
+        }
+
+        @Override
+        public Object call1(Object argument) {
+            Output.current().writeLine(String.valueOf(argument));
+            return null;
+        }
+
+        @Override
+        public Object callInt1(int argument) {
+            Output.current().writeLine(Integer.toString(argument));
+            return null;
+        }
+
+        @Override
+        public Object call(List<Object> params) {
             if (params.size() == 1) {
-                System.out.println(params.get(0));
-                return null;
+                return call1(params.get(0));
             }
 
             throw new SlugRuntimeException("internal function WriteLine needs exactly one argument");
-        });
-        functions.put("Random", args -> {
+        }
+    }
+
+    private static final class Random extends InternalFunction {
+
+        private Random() {
+            super("Random");
+        }
+
+        @Override
+        public Object callInt1(int bound) {
+            return ThreadLocalRandom.current().nextInt(bound);
+        }
+
+        @Override
+        public Object callInt2(int origin, int bound) {
+            return ThreadLocalRandom.current().nextInt(origin, bound);
+        }
+
+        @Override
+        public Object call(List<Object> args) {
             int value = -1;
 
             if (args.size() == 1) {
@@ -35,30 +149,76 @@ public class InternalFunctionRegistry {
             }
 
             return value;
-        });
-        functions.put("ReadLine", arg -> {
-            Scanner scanner = new Scanner(System.in);
+        }
+    }
 
-            String line = scanner.nextLine();
+    private static final class ReadLine extends InternalFunction {
 
-            try {
-                return Integer.parseInt(line);
-            } catch (NumberFormatException e) {
-                return line;
+        private ReadLine() {
+            super("ReadLine");
+        }
+
+        @Override
+        public Object call0() {
+            // The prompt may still be buffered
+            Output.current().flush();
+
+            String line = Input.current().readLine();
+            if (line == null) {
+                throw new SlugRuntimeException("internal function ReadLine reached the end of the input");
             }
-        });
-    }
 
-    static Object execute(String functionName, List<Object> params) {
-        Function<List<Object>, Object> function = functions.get(functionName);
-        if (function != null) {
-            return function.apply(params);
+            return parse(line);
         }
 
-        throw new SlugRuntimeException("function " + functionName + " not found");
-    }
+        @Override
+        public Object call(List<Object> arg) {
+            return call0();
+        }
 
-    public static boolean isInternal(String name) {
-        return functions.containsKey(name);
+        /**
+         * Parses the line as an int if it is one, without throwing an exception for all the lines which aren't.
+         */
+        private static Object parse(String line) {
+            int length = line.length();
+            if (length == 0) {
+                return line;
+            }
+
+            int i = 0;
+            boolean negative = false;
+            if (line.charAt(0) == '-' || line.charAt(0) == '+') {
+                negative = line.charAt(0) == '-';
+                i++;
+
+                if (length == 1) {
+                    return line;
+                }
+            }
+
+            // Accumulate negatively, the smallest int has no positive counterpart
+            long value = 0;
+            for (; i < length; i++) {
+                char c = line.charAt(i);
+                if (c < '0' || c > '9') {
+                    return line;
+                }
+
+                value = value * 10 - (c - '0');
+                if (value < Integer.MIN_VALUE) {
+                    return line;
+                }
+            }
+
+            if (!negative) {
+                if (value == Integer.MIN_VALUE) {
+                    return line;
+                }
+
+                value = -value;
+            }
+
+            return (int) value;
+        }
     }
 }
@@ -16,9 +16,11 @@
 
 package net.jackwhite20.slug.core.interpreter;
 
-import lombok.RequiredArgsConstructor;
+import net.jackwhite20.slug.ast.MainNode;
 import net.jackwhite20.slug.ast.Node;
 import net.jackwhite20.slug.core.parser.Parser;
+import net.jackwhite20.slug.exception.SlugRuntimeException;
+import net.jackwhite20.slug.output.Output;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -27,24 +29,96 @@ import java.util.concurrent.TimeUnit;
 /**
  * @author Philip 'JackWhite20' <silencephil@gmail.com>
  */
-@RequiredArgsConstructor
 public class Interpreter extends NodeVisitor {
 
     private static Logger logger = LoggerFactory.getLogger(Interpreter.class);
     private final Parser parser;
 
+    /**
+     * If the nodes should specialize themselves to the types they see at runtime.
+     */
+    private final boolean specializing;
+
+    public Interpreter(Parser parser) {
+        this(parser, false);
+    }
+
+    public Interpreter(Parser parser, boolean specializing) {
+        this(parser, specializing, parser.getInternalFunctions());
+    }
+
+    public Interpreter(boolean specializing) {
+        this(specializing, new InternalFunctionRegistry());
+    }
+
+    public Interpreter(boolean specializing, InternalFunctionRegistry internalFunctions) {
+        this(null, specializing, internalFunctions);
+    }
+
+    private Interpreter(Parser parser, boolean specializing, InternalFunctionRegistry internalFunctions) {
+        super(internalFunctions);
+
+        this.parser = parser;
+        this.specializing = specializing;
+    }
+
     public void interpret() {
-        long now = System.currentTimeMillis();
+        if (parser == null) {
+            throw new SlugRuntimeException("interpreter has no parser, interpret an already parsed tree instead");
+        }
+
+        long now = System.nanoTime();
         Node tree = parser.parse();
-        logger.debug("Parse time: " + (System.currentTimeMillis() - now) + "ms");
+        logger.debug("Parse time: " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - now) + "ms");
+
+        interpret(tree);
+    }
+
+    /**
+     * Interprets an already parsed tree, like one which is loaded from the cache.
+     *
+     * @param tree The parsed tree.
+     */
+    public void interpret(Node tree) {
+        if (specializing) {
+            new Specializer().specialize((MainNode) tree);
+        }
 
-        now = System.nanoTime();
+        long now = System.nanoTime();
 
         // Start the visiting (interpreting process)
-        visit(tree);
+        execute((MainNode) tree);
 
         long time = System.nanoTime() - now;
 
+        // The whole program ran, so its buffered output goes before the log line
+        Output.current().flush();
+
         logger.debug("Interpreted time: " + TimeUnit.NANOSECONDS.toMillis(time) + "ms (" + time + "ns)");
     }
+
+    /**
+     * Runs an already parsed program with the arguments for the parameters of its 'Main' function.
+     * <p>
+     * Only a specialized tree rewrites itself while it runs, so an unspecialized tree can be executed by multiple
+     * interpreters at the same time.
+     *
+     * @param tree The parsed program.
+     * @param arguments The arguments for the 'Main' function.
+     */
+    public void execute(MainNode tree, Object... arguments) {
+        visitMain(tree, arguments);
+    }
+
+    /**
+     * Initializes the global variables of an already parsed program and calls one of its functions instead of
+     * the 'Main' function.
+     *
+     * @param tree The parsed program.
+     * @param functionName The name of the function.
+     * @param arguments The arguments for the parameters of the function.
+     */
+    public void invoke(MainNode tree, String functionName, Object... arguments) {
+        invokeFunction(tree, functionName, arguments);
+    }
 }
@@ -16,18 +16,17 @@
 
 package net.jackwhite20.slug.core.interpreter;
 
-import net.jackwhite20.slug.ast.BinaryNode;
 import net.jackwhite20.slug.ast.BlockNode;
 import net.jackwhite20.slug.ast.BoolNode;
-import net.jackwhite20.slug.ast.BooleanNode;
+import net.jackwhite20.slug.ast.ExpressionNode;
 import net.jackwhite20.slug.ast.ForNode;
 import net.jackwhite20.slug.ast.FunctionCallNode;
 import net.jackwhite20.slug.ast.FunctionNode;
 import net.jackwhite20.slug.ast.IfNode;
-import net.jackwhite20.slug.ast.MainBlockNode;
 import net.jackwhite20.slug.ast.MainNode;
 import net.jackwhite20.slug.ast.NoOpNode;
 import net.jackwhite20.slug.ast.Node;
+import net.jackwhite20.slug.ast.NodeExecutor;
 import net.jackwhite20.slug.ast.NumberNode;
 import net.jackwhite20.slug.ast.StringNode;
 import net.jackwhite20.slug.ast.UnaryNode;
@@ -36,18 +35,79 @@ import net.jackwhite20.slug.ast.VariableDeclarationAssignNode;
 import net.jackwhite20.slug.ast.VariableDeclarationNode;
 import net.jackwhite20.slug.ast.VariableUsageNode;
 import net.jackwhite20.slug.ast.WhileNode;
+import net.jackwhite20.slug.core.metrics.SlugMetrics;
+import net.jackwhite20.slug.core.profiler.ShadowStack;
+import net.jackwhite20.slug.core.profiler.SlugProfiler;
+import net.jackwhite20.slug.exception.ExecutionAbortedException;
 import net.jackwhite20.slug.exception.SlugRuntimeException;
+import net.jackwhite20.slug.function.InternalFunction;
+import net.jackwhite20.slug.input.Input;
+import net.jackwhite20.slug.input.InputSource;
+import net.jackwhite20.slug.output.Output;
+import net.jackwhite20.slug.output.OutputSink;
 import net.jackwhite20.slug.lexer.TokenType;
+import net.jackwhite20.slug.variable.Frame;
 
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
+ * Interprets the AST by visiting it. Int and boolean expressions are executed through the typed entry points
+ * of the nodes, so they don't box their intermediate values.
+ *
  * @author Philip 'JackWhite20' <silencephil@gmail.com>
  */
-class NodeVisitor {
+class NodeVisitor implements NodeExecutor {
 
-    private BlockNode currentBlock = MainBlockNode.getInstance();
+    /**
+     * The slow limits (time, allocations and interrupts) are only checked at every 1024th check.
+     */
+    private static final int SLOW_CHECK_MASK = 1023;
+
+    private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+
+    private final InternalFunctionRegistry internalFunctions;
+    // Only one execution runs at a time, so the frames are pooled per interpreter
+    private final FramePool framePool = new FramePool();
+
+    private ExecutionLimits limits = new ExecutionLimits();
+    private SlugProfiler profiler;
+    private SlugMetrics metrics = SlugMetrics.NOOP;
+    private OutputSink output;
+    private InputSource input;
+
+    // Only set while a profiled execution runs
+    private ShadowStack shadowStack;
+    private volatile boolean cancelled;
+
+    // The state of the limits of the current execution
+    private long steps;
+    private long maxSteps;
+    private int depth;
+    private int maxDepth;
+    private int checks;
+    private long deadline;
+    private long maxAllocatedBytes;
+    private long allocatedBytesAtStart;
+
+    // The counters of the current execution, only reported if the metrics are enabled
+    private long startNanos;
+    private long functionCalls;
+    private long loopIterations;
+    private long builtinCalls;
+
+    private Frame globals;
+    private Frame frame;
+
+    // The function a call in tail position jumps to once the current function body is left
+    private FunctionNode tailFunction;
+
+    NodeVisitor(InternalFunctionRegistry internalFunctions) {
+        this.internalFunctions = internalFunctions;
+    }
 
     /**
      * Visits the NumberNode and returns it's value.
@@ -60,108 +120,397 @@ class NodeVisitor {
     }
 
     private String visitString(StringNode stringNode) {
-        String stringValue = stringNode.getValue();
-
-        // Try to find inline variables and process them
-        int inlineVar = stringValue.indexOf('$');
-        while (inlineVar != -1) {
-            StringBuilder sb = new StringBuilder();
-            for (int i = inlineVar + 1; i < stringValue.length(); i++) {
-                // Break if whitespace
-                if (Character.isWhitespace(stringValue.charAt(i))) {
-                    break;
+        List<Node> parts = stringNode.getParts();
+        if (parts == null) {
+            return stringNode.getValue();
+        }
+
+        // Concat the literal parts and the values of the inline variables and expressions
+        StringBuilder builder = new StringBuilder(stringNode.getCapacityHint());
+        for (Node part : parts) {
+            if (part instanceof StringNode && ((StringNode) part).getParts() == null) {
+                builder.append(((StringNode) part).getValue());
+            } else {
+                builder.append(visit(part));
+            }
+        }
+
+        return builder.toString();
+    }
+
+    private boolean visitBool(BoolNode node) {
+        return node.isValue();
+    }
+
+    /**
+     * Runs the program with the arguments for the parameters of the 'Main' function. All state of the run is
+     * kept in this visitor, so the same tree can be run by multiple visitors at the same time.
+     */
+    void visitMain(MainNode node, Object[] arguments) {
+        if (node.getFunctions().size() == 0 && node.getGlobalVariables().size() == 0) {
+            throw new SlugRuntimeException("no functions and global variables");
+        }
+
+        OutputSink previousOutput = enterOutput();
+        InputSource previousInput = enterInput();
+        startProfiling(node);
+
+        try {
+            initializeGlobals(node);
+
+            // Only search main function and start interpreting if functions are available
+            if (node.getFunctions().size() > 0) {
+                FunctionNode mainFunction = (FunctionNode) node.getFunctions().get(node.getFunctions().size() - 1);
+
+                if (!mainFunction.getName().equals("Main")) {
+                    throw new SlugRuntimeException("the 'Main' function needs to be the last function");
                 }
 
-                sb.append(stringValue.charAt(i));
+                // Visit the main function
+                callFunction(mainFunction, arguments);
+            }
+        } finally {
+            // A cancellation only applies to a single execution
+            cancelled = false;
+
+            stopProfiling();
+            recordMetrics();
+            leaveOutput(previousOutput);
+            leaveInput(previousInput);
+        }
+    }
+
+    /**
+     * Initializes the global variables of the program and calls a single function of it instead of 'Main'.
+     */
+    void invokeFunction(MainNode node, String functionName, Object[] arguments) {
+        FunctionNode functionNode = null;
+        for (Node function : node.getFunctions()) {
+            if (((FunctionNode) function).getName().equals(functionName)) {
+                functionNode = (FunctionNode) function;
             }
+        }
 
-            String varName = sb.toString();
+        if (functionNode == null) {
+            throw new SlugRuntimeException("function " + functionName + " does not exists");
+        }
 
-            Object variable = currentBlock.lookupVariable(varName);
-            String value = String.valueOf(variable);
+        OutputSink previousOutput = enterOutput();
+        InputSource previousInput = enterInput();
+        startProfiling(node);
 
-            stringValue = stringValue.replace("$" + varName, value);
+        try {
+            initializeGlobals(node);
+            callFunction(functionNode, arguments);
+        } finally {
+            cancelled = false;
 
-            // Index of possible next inline var
-            inlineVar = stringValue.indexOf('$');
+            stopProfiling();
+            recordMetrics();
+            leaveOutput(previousOutput);
+            leaveInput(previousInput);
         }
+    }
 
-        return stringValue;
+    /**
+     * Sets the limits of the following executions.
+     *
+     * @param limits The limits.
+     */
+    public void setLimits(ExecutionLimits limits) {
+        this.limits = limits;
     }
 
-    private boolean visitBool(BoolNode node) {
-        return node.isValue();
+    /**
+     * Sets the profiler which samples the following executions or null to not profile them.
+     *
+     * @param profiler The profiler.
+     */
+    public void setProfiler(SlugProfiler profiler) {
+        this.profiler = profiler;
     }
 
-    private void visitMain(MainNode node) {
-        if (node.getFunctions().size() == 0 && node.getGlobalVariables().size() == 0) {
-            throw new SlugRuntimeException("no functions and global variables");
+    /**
+     * Sets the metrics the following executions are recorded in.
+     *
+     * @param metrics The metrics.
+     */
+    public void setMetrics(SlugMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Sets the sink the following executions write their output to. The sink is not flushed after an execution,
+     * that is up to the owner of the sink.
+     *
+     * @param output The sink or null to write to the sink of the calling thread.
+     */
+    public void setOutput(OutputSink output) {
+        this.output = output;
+    }
+
+    /**
+     * Sets the source the following executions read their input from.
+     *
+     * @param input The source or null to read from the source of the calling thread.
+     */
+    public void setInput(InputSource input) {
+        this.input = input;
+    }
+
+    /**
+     * Cancels the current execution or the next one if none is running. It is stopped at its next loop
+     * iteration or function call.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Withdraws a cancellation which wasn't picked up by an execution yet.
+     */
+    public void clearCancel() {
+        cancelled = false;
+    }
+
+    private void startProfiling(MainNode node) {
+        if (profiler != null) {
+            shadowStack = profiler.register(node);
+        }
+    }
+
+    private void stopProfiling() {
+        if (shadowStack != null) {
+            profiler.unregister(shadowStack);
+            shadowStack = null;
+        }
+    }
+
+    private OutputSink enterOutput() {
+        return output != null ? Output.set(output) : null;
+    }
+
+    private void leaveOutput(OutputSink previousOutput) {
+        if (output != null) {
+            Output.set(previousOutput);
+        }
+    }
+
+    private InputSource enterInput() {
+        return input != null ? Input.set(input) : null;
+    }
+
+    private void leaveInput(InputSource previousInput) {
+        if (input != null) {
+            Input.set(previousInput);
+        }
+    }
+
+    private void startMetrics() {
+        functionCalls = 0;
+        loopIterations = 0;
+        builtinCalls = 0;
+
+        if (metrics.isEnabled()) {
+            startNanos = System.nanoTime();
+        }
+    }
+
+    private void recordMetrics() {
+        if (metrics.isEnabled()) {
+            metrics.recordExecution(System.nanoTime() - startNanos, functionCalls, loopIterations, builtinCalls);
+        }
+    }
+
+    private void startLimits() {
+        steps = 0;
+        depth = 0;
+        checks = 0;
+        tailFunction = null;
+
+        maxSteps = limits.getMaxInstructions() > 0 ? limits.getMaxInstructions() : Long.MAX_VALUE;
+        maxDepth = limits.getMaxCallDepth() > 0 ? limits.getMaxCallDepth() : Integer.MAX_VALUE;
+        deadline = System.nanoTime() + limits.getTimeoutNanos();
+        maxAllocatedBytes = limits.getMaxAllocatedBytes();
+        allocatedBytesAtStart = maxAllocatedBytes > 0 ? allocatedBytes() : -1;
+    }
+
+    /**
+     * Checks the limits, called at the back edges of loops and when a function is entered.
+     */
+    private void checkLimits() {
+        if (steps > maxSteps) {
+            throw new ExecutionAbortedException(ExecutionAbortedException.Reason.INSTRUCTION_LIMIT, "instruction limit of " + maxSteps + " exceeded");
+        }
+
+        // Only a single volatile read, so a cancellation stops the execution at the next back edge or call
+        if (cancelled) {
+            throw new ExecutionAbortedException(ExecutionAbortedException.Reason.CANCELLED, "execution cancelled");
+        }
+
+        if ((++checks & SLOW_CHECK_MASK) == 0) {
+            checkSlowLimits();
+        }
+    }
+
+    private void checkSlowLimits() {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new ExecutionAbortedException(ExecutionAbortedException.Reason.CANCELLED, "execution cancelled");
+        }
+
+        if (limits.getTimeoutNanos() > 0 && System.nanoTime() - deadline > 0) {
+            throw new ExecutionAbortedException(ExecutionAbortedException.Reason.TIME_LIMIT, "time limit of " + TimeUnit.NANOSECONDS.toMillis(limits.getTimeoutNanos()) + "ms exceeded");
         }
 
+        if (allocatedBytesAtStart != -1 && allocatedBytes() - allocatedBytesAtStart > maxAllocatedBytes) {
+            throw new ExecutionAbortedException(ExecutionAbortedException.Reason.ALLOCATION_LIMIT, "allocation limit of " + maxAllocatedBytes + " bytes exceeded");
+        }
+    }
+
+    /**
+     * Gets the bytes the current thread allocated so far or -1 if the JVM can't measure it.
+     */
+    private static long allocatedBytes() {
+        if (THREAD_MX_BEAN instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) THREAD_MX_BEAN).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+
+        return -1;
+    }
+
+    private void initializeGlobals(MainNode node) {
+        startMetrics();
+        startLimits();
+
+        globals = new Frame(node.getGlobalCount());
+
         // Register possible global variables
         for (Node globalVar : node.getGlobalVariables()) {
             visit(globalVar);
         }
+    }
 
-        // Only search main function and start interpreting if functions are available
-        if (node.getFunctions().size() > 0) {
-            FunctionNode mainFunction = (FunctionNode) node.getFunctions().get(node.getFunctions().size() - 1);
+    private void callFunction(FunctionNode functionNode, Object[] arguments) {
+        if (arguments.length != functionNode.getParameter().size()) {
+            throw new SlugRuntimeException("the '" + functionNode.getName() + "' function needs " + functionNode.getParameter().size() + " arguments but got " + arguments.length);
+        }
 
-            if (!mainFunction.getName().equals("Main")) {
-                throw new SlugRuntimeException("the 'Main' function needs to be the last function");
+        Frame functionFrame = framePool.acquire(functionNode.getFrameSize());
+        try {
+            for (int i = 0; i < arguments.length; i++) {
+                storeArgument(functionFrame, (VariableDeclarationNode) functionNode.getParameter().get(i), arguments[i]);
             }
 
-            // Visit the main function
-            visitFunction(mainFunction);
+            visitFunction(functionNode, functionFrame);
+        } finally {
+            framePool.release(functionFrame);
+        }
+    }
+
+    private void storeArgument(Frame target, VariableDeclarationNode parameter, Object argument) {
+        TokenType type = parameter.getVariableType();
+        if (type == TokenType.INTEGER && argument instanceof Integer) {
+            target.setInt(parameter.getSlot(), (Integer) argument);
+        } else if (type == TokenType.BOOL && argument instanceof Boolean) {
+            target.setBoolean(parameter.getSlot(), (Boolean) argument);
+        } else if (type == TokenType.STRING && argument instanceof String) {
+            target.set(parameter.getSlot(), argument);
+        } else {
+            throw new SlugRuntimeException("argument " + argument + " can't be passed to parameter " + parameter.getVariableName() + " of type " + type);
         }
     }
 
-    private void visitFunction(FunctionNode functionNode) {
-        BlockNode block = functionNode.getChildren();
+    private void visitFunction(FunctionNode functionNode, Frame functionFrame) {
+        if (++depth > maxDepth) {
+            depth--;
+            throw new ExecutionAbortedException(ExecutionAbortedException.Reason.CALL_DEPTH_LIMIT, "call depth limit of " + maxDepth + " exceeded");
+        }
+
+        checkLimits();
+
+        functionCalls++;
+
+        Frame callerFrame = frame;
+        frame = functionFrame;
+
+        if (shadowStack != null) {
+            shadowStack.push(functionNode.getName());
+        }
+
+        try {
+            // Visit the actual function block
+            visit(functionNode.getChildren());
 
-        // Visit the actual function block
-        visit(block);
+            // Calls in tail position have replaced the arguments in the frame, so run them without nesting
+            while (tailFunction != null) {
+                FunctionNode calledFunction = tailFunction;
+                tailFunction = null;
+
+                checkLimits();
+
+                functionCalls++;
+
+                if (shadowStack != null) {
+                    shadowStack.pop();
+                    shadowStack.push(calledFunction.getName());
+                }
+
+                visit(calledFunction.getChildren());
+            }
+        } finally {
+            frame = callerFrame;
+            depth--;
+
+            if (shadowStack != null) {
+                shadowStack.pop();
+            }
+        }
     }
 
     private void visitVariableDeclaration(VariableDeclarationNode node) {
-        // Pass null as value to use the default value for it
-        currentBlock.registerVariable(node.getVariableName(), node.getVariableType(), null);
+        Frame target = node.isGlobal() ? globals : frame;
+
+        // The slot may be reused by a previous block or loop iteration, so always store the default value
+        if (node.getVariableType() == TokenType.INTEGER) {
+            target.setInt(node.getSlot(), 0);
+        } else if (node.getVariableType() == TokenType.BOOL) {
+            target.setBoolean(node.getSlot(), false);
+        } else {
+            target.set(node.getSlot(), Frame.defaultValue(node.getVariableType()));
+        }
     }
 
     private void visitVariableDeclarationAssign(VariableDeclarationAssignNode node) {
-        // Get the value from the right expression
-        Object value = visit(node.getRight());
-
-        currentBlock.registerVariable(node.getVariableName(), node.getVariableType(), value);
+        store(node.isGlobal() ? globals : frame, node.getSlot(), node.getVariableType(), node.getRight());
     }
 
     private void visitVariableAssign(VariableAssignNode node) {
-        // Get the value from the right expression
-        Object value = visit(node.getRight());
-
-        currentBlock.updateVariable(node.getVariableName(), value);
+        store(node.isGlobal() ? globals : frame, node.getSlot(), node.getVariableType(), node.getRight());
     }
 
-    private Object visitVariableUsage(VariableUsageNode node) {
-        String variableName = node.getVariableName();
-
-        return currentBlock.lookupVariable(variableName);
+    /**
+     * Stores the value of the expression in the slot. Ints and booleans are executed and stored unboxed.
+     */
+    private void store(Frame target, int slot, TokenType variableType, Node expression) {
+        if (variableType == TokenType.INTEGER) {
+            target.setInt(slot, expression.executeInt(this));
+        } else if (variableType == TokenType.BOOL) {
+            target.setBoolean(slot, expression.executeBoolean(this));
+        } else {
+            Object value = visit(expression);
+
+            // Use the default value if the expression has no value (eg. a function call)
+            target.set(slot, value != null ? value : Frame.defaultValue(variableType));
+        }
     }
 
     private Object visitFunctionCall(FunctionCallNode node) {
         FunctionNode functionNode = node.getFunctionNode();
 
         if (functionNode == null) {
-            List<Object> paramValues = new ArrayList<>();
-
-            // Get the parameter values from all parameters
-            for (Node param : node.getParameter()) {
-                paramValues.add(visit(param));
-            }
+            builtinCalls++;
 
-            // Execute the internal function which returns the direct object type (for example int or string)
-            // No need to visit eg. a NumberNode -> It would be a waste of performance
-            return InternalFunctionRegistry.execute(node.getName(), paramValues);
+            return callInternalFunction(node);
         }
 
         // Don't allow a function call with the wrong amount of parameters passed to it
@@ -169,129 +518,179 @@ class NodeVisitor {
             throw new SlugRuntimeException("parameter amount passed does not match function signature");
         }
 
-        for (int i = 0; i < functionNode.getParameter().size(); i++) {
-            // We can safely cast because this is checked in the parser
-            VariableDeclarationNode variableDeclaration = (VariableDeclarationNode) functionNode.getParameter().get(i);
-
-            // Get the parameter value
-            Object value = visit(node.getParameter().get(i));
-
-            // Register the variable explicitly in the block of the function and pass null to init with the default value
-            functionNode.getChildren().registerVariable(variableDeclaration.getVariableName(), variableDeclaration.getVariableType(), value);
+        if (node.isTailCall()) {
+            tailCall(functionNode, node);
+            return null;
         }
 
-        // We need to set the parent from the function to call to the current block
-        // to be able to jump back after the block has been visited
-        node.getFunctionNode().getChildren().setParent(currentBlock);
+        // Every call gets its own frame, so recursive calls don't share their variables
+        Frame functionFrame = framePool.acquire(functionNode.getFrameSize());
+        try {
+            // The parameters are the first slots of the frame of the function
+            for (int i = 0; i < functionNode.getParameter().size(); i++) {
+                // We can safely cast because this is checked in the parser
+                VariableDeclarationNode variableDeclaration = (VariableDeclarationNode) functionNode.getParameter().get(i);
 
-        // Visit the the function we want to call
-        visitFunction(node.getFunctionNode());
+                store(functionFrame, i, variableDeclaration.getVariableType(), node.getParameter().get(i));
+            }
+
+            // Visit the the function we want to call
+            visitFunction(functionNode, functionFrame);
+        } finally {
+            framePool.release(functionFrame);
+        }
 
         // TODO: Function return types and logic
         return null;
     }
 
-    private Object visitBinary(BinaryNode node) {
-        if (node.getOperator() == TokenType.MINUS) {
-            return (int) visit(node.getLeft()) - (int) visit(node.getRight());
-        } else if (node.getOperator() == TokenType.PLUS) {
-            return (int) visit(node.getLeft()) + (int) visit(node.getRight());
-        } else if (node.getOperator() == TokenType.MULTIPLY) {
-            return (int) visit(node.getLeft()) * (int) visit(node.getRight());
-        } else if (node.getOperator() == TokenType.DIVIDE) {
-            return (int) visit(node.getLeft()) / (int) visit(node.getRight());
+    /**
+     * Replaces the arguments in the frame of the current function by the arguments of the call. The called
+     * function is run by {@link #visitFunction} after the current body is left, nothing else runs in between.
+     */
+    private void tailCall(FunctionNode functionNode, FunctionCallNode node) {
+        int parameterCount = functionNode.getParameter().size();
+
+        // The arguments may read the parameters they replace, so they are evaluated into a scratch frame first
+        Frame arguments = framePool.acquire(parameterCount);
+        try {
+            for (int i = 0; i < parameterCount; i++) {
+                VariableDeclarationNode variableDeclaration = (VariableDeclarationNode) functionNode.getParameter().get(i);
+
+                store(arguments, i, variableDeclaration.getVariableType(), node.getParameter().get(i));
+            }
+
+            frame.clear();
+            frame.copyFrom(arguments, parameterCount);
+        } finally {
+            framePool.release(arguments);
         }
 
-        throw new SlugRuntimeException("unhandled binary operator " + node.getOperator());
+        tailFunction = functionNode;
     }
 
-    private Object visitUnary(UnaryNode node) {
-        if (!(node.getExpression() instanceof NumberNode)) {
-            throw new SlugRuntimeException("unary node expression needs to be a number node");
+    /**
+     * Calls an internal function through the entry point for the amount and type of the arguments, only calls
+     * with more than two arguments collect them in a list.
+     */
+    private Object callInternalFunction(FunctionCallNode node) {
+        InternalFunction function = node.getInternalFunction();
+        if (function == null) {
+            // Trees loaded from the cache are bound by their first call
+            function = internalFunctions.lookup(node.getName());
+            node.bindInternalFunction(function);
         }
 
-        if (node.getOperator().getTokenType() == TokenType.PLUS) {
-            return +visitNumber((NumberNode) node.getExpression());
-        } else if (node.getOperator().getTokenType() == TokenType.MINUS) {
-            return -visitNumber((NumberNode) node.getExpression());
-        }
+        List<Node> parameter = node.getParameter();
+        switch (parameter.size()) {
+            case 0:
+                return function.call0();
+            case 1:
+                if (node.isIntArguments()) {
+                    return function.callInt1(parameter.get(0).executeInt(this));
+                }
 
-        throw new SlugRuntimeException("invalid unary operator " + node.getOperator().getTokenType());
-    }
+                return function.call1(visit(parameter.get(0)));
+            case 2:
+                if (node.isIntArguments()) {
+                    return function.callInt2(parameter.get(0).executeInt(this), parameter.get(1).executeInt(this));
+                }
 
-    private boolean visitBoolean(BooleanNode node) {
-        // TODO: Better handling and more supported types
-        int a = (int) visit(node.getLeft());
-        int b = (int) visit(node.getRight());
+                return function.call2(visit(parameter.get(0)), visit(parameter.get(1)));
+            default:
+                List<Object> arguments = new ArrayList<>(parameter.size());
+                for (Node param : parameter) {
+                    arguments.add(visit(param));
+                }
 
-        if (node.getOperator() == TokenType.EQUAL) {
-            return a == b;
-        } else if (node.getOperator() == TokenType.GREATER) {
-            return a > b;
-        } else if (node.getOperator() == TokenType.LESS) {
-            return a < b;
-        } else if (node.getOperator() == TokenType.GREATER_EQUAL) {
-            return a >= b;
-        } else if (node.getOperator() == TokenType.LESS_EQUAL) {
-            return a <= b;
-        } else if (node.getOperator() == TokenType.NOT_EQUAL) {
-            return a != b;
+                return function.call(arguments);
         }
-
-        throw new SlugRuntimeException("invalid boolean operator " + node.getOperator());
     }
 
     private void visitIf(IfNode node) {
-        Node expression = node.getExpression();
-
-        // The expression from the if node needs to be a boolean node
-        if (!(expression instanceof BooleanNode)) {
-            throw new SlugRuntimeException("the expression from an if node needs to be a boolean node");
+        // Any expression with a bool value is a condition, like a bool variable
+        if (node.getExpression().executeBoolean(this)) {
+            visitBlock(node.getTrueNodes());
+        } else if (node.getFalseNodes() != null) {
+            visitBlock(node.getFalseNodes());
         }
-
-        boolean state = visitBoolean((BooleanNode) expression);
-
-        visitBlock(state ? node.getTrueNodes() : node.getFalseNodes());
     }
 
     private void visitWhile(WhileNode node) {
-        if (!(node.getExpression() instanceof BooleanNode)) {
-            throw new SlugRuntimeException("the while expression need to be a boolean node");
+        // An aborted execution drops its whole shadow stack, so the loop is only popped when it is left normally
+        if (shadowStack != null) {
+            shadowStack.pushLoop(node);
         }
 
-        while (visitBoolean((BooleanNode) node.getExpression())) {
+        // Read the expression in every iteration, it may have been replaced by a specialized node
+        while (node.getExpression().executeBoolean(this)) {
+            // The condition counts too, so a loop with an empty body still uses up the budget
+            steps += 1 + node.getChildren().size();
+            loopIterations++;
+
             for (Node children : node.getChildren()) {
                 visit(children);
             }
+
+            checkLimits();
+        }
+
+        if (shadowStack != null) {
+            shadowStack.pop();
         }
     }
 
     private void visitFor(ForNode node) {
         visit(node.getDeclaration());
 
-        while (visitBoolean((BooleanNode) node.getCondition())) {
+        if (shadowStack != null) {
+            shadowStack.pushLoop(node);
+        }
+
+        while (node.getCondition().executeBoolean(this)) {
+            // The condition and the update expression, the statements of the block are counted by it
+            steps += 2;
+            loopIterations++;
+
             visitBlock(node.getBlock());
 
             // At the end visit the expression to eg. increase the variable used in the declaration
             visit(node.getExpression());
+
+            checkLimits();
+        }
+
+        if (shadowStack != null) {
+            shadowStack.pop();
         }
     }
 
     private void visitBlock(BlockNode node) {
-        // Update the current block to the new one
-        currentBlock = node;
+        steps += node.getStatements().size();
 
         for (Node statement : node.getStatements()) {
             visit(statement);
         }
+    }
+
+    @Override
+    public Object execute(Node node) {
+        return visit(node);
+    }
+
+    @Override
+    public Frame getFrame() {
+        return frame;
+    }
 
-        // We left the block, so set the current block to the parent of this block
-        currentBlock = currentBlock.getParent();
+    @Override
+    public Frame getGlobals() {
+        return globals;
     }
 
     Object visit(Node node) {
         if (node instanceof MainNode) {
-            visitMain(((MainNode) node));
+            visitMain((MainNode) node, new Object[0]);
             return null;
         } else if (node instanceof NumberNode) {
             return visitNumber(((NumberNode) node));
@@ -299,10 +698,9 @@ class NodeVisitor {
             return visitString((StringNode) node);
         } else if (node instanceof BoolNode) {
             return visitBool((BoolNode) node);
-        } else if (node instanceof BinaryNode) {
-            return visitBinary((BinaryNode) node);
-        } else if (node instanceof UnaryNode) {
-            return visitUnary((UnaryNode) node);
+        } else if (node instanceof ExpressionNode || node instanceof UnaryNode || node instanceof VariableUsageNode) {
+            // Expressions execute themselves, specialized nodes override it
+            return node.execute(this);
         } else if (node instanceof VariableDeclarationNode) {
             visitVariableDeclaration((VariableDeclarationNode) node);
             return null;
@@ -312,12 +710,8 @@ class NodeVisitor {
         } else if (node instanceof VariableAssignNode) {
             visitVariableAssign(((VariableAssignNode) node));
             return null;
-        } else if (node instanceof VariableUsageNode) {
-            return visitVariableUsage(((VariableUsageNode) node));
         } else if (node instanceof FunctionCallNode) {
             return visitFunctionCall(((FunctionCallNode) node));
-        } else if (node instanceof BooleanNode) {
-            return visitBoolean(((BooleanNode) node));
         } else if (node instanceof IfNode) {
             visitIf(((IfNode) node));
             return null;
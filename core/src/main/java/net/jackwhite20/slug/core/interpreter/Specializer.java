@@ -0,0 +1,158 @@
+/*
+ * Copyright 2018 "JackWhite20"
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.jackwhite20.slug.core.interpreter;
+
+import net.jackwhite20.slug.ast.BinaryNode;
+import net.jackwhite20.slug.ast.BlockNode;
+import net.jackwhite20.slug.ast.BooleanNode;
+import net.jackwhite20.slug.ast.ExpressionNode;
+import net.jackwhite20.slug.ast.ForNode;
+import net.jackwhite20.slug.ast.FunctionCallNode;
+import net.jackwhite20.slug.ast.FunctionNode;
+import net.jackwhite20.slug.ast.IfNode;
+import net.jackwhite20.slug.ast.MainNode;
+import net.jackwhite20.slug.ast.Node;
+import net.jackwhite20.slug.ast.StringNode;
+import net.jackwhite20.slug.ast.UnaryNode;
+import net.jackwhite20.slug.ast.VariableAssignNode;
+import net.jackwhite20.slug.ast.VariableDeclarationAssignNode;
+import net.jackwhite20.slug.ast.VariableUsageNode;
+import net.jackwhite20.slug.ast.WhileNode;
+import net.jackwhite20.slug.ast.specialized.UninitializedBinaryNode;
+import net.jackwhite20.slug.ast.specialized.UninitializedBooleanNode;
+import net.jackwhite20.slug.ast.specialized.UninitializedVariableUsageNode;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Replaces the binary, boolean and variable usage nodes of a resolved AST with their uninitialized variants.
+ * These specialize themselves when they are executed the first time.
+ * <p>
+ * The nodes rewrite the tree while it is executed, so a specialized tree must not be executed by multiple
+ * threads at the same time.
+ *
+ * @author Philip 'JackWhite20' <silencephil@gmail.com>
+ */
+public class Specializer {
+
+    public void specialize(MainNode mainNode) {
+        for (Node globalVariable : mainNode.getGlobalVariables()) {
+            specializeStatement(globalVariable);
+        }
+
+        for (Node function : mainNode.getFunctions()) {
+            specializeStatement(((FunctionNode) function).getChildren());
+        }
+    }
+
+    private void specializeStatement(Node node) {
+        if (node instanceof VariableDeclarationAssignNode) {
+            specializeExpression(((VariableDeclarationAssignNode) node).getRight());
+        } else if (node instanceof VariableAssignNode) {
+            specializeExpression(((VariableAssignNode) node).getRight());
+        } else if (node instanceof FunctionCallNode) {
+            specializeExpression(node);
+        } else if (node instanceof IfNode) {
+            IfNode ifNode = (IfNode) node;
+
+            specializeExpression(ifNode.getExpression());
+            specializeStatement(ifNode.getTrueNodes());
+            specializeStatement(ifNode.getFalseNodes());
+        } else if (node instanceof WhileNode) {
+            WhileNode whileNode = (WhileNode) node;
+
+            specializeExpression(whileNode.getExpression());
+            for (Node children : whileNode.getChildren()) {
+                specializeStatement(children);
+            }
+        } else if (node instanceof ForNode) {
+            ForNode forNode = (ForNode) node;
+
+            specializeStatement(forNode.getDeclaration());
+            specializeExpression(forNode.getCondition());
+            specializeStatement(forNode.getBlock());
+            specializeStatement(forNode.getExpression());
+        } else if (node instanceof BlockNode) {
+            for (Node statement : ((BlockNode) node).getStatements()) {
+                specializeStatement(statement);
+            }
+        }
+    }
+
+    /**
+     * Specializes an expression bottom up. Generated expressions can be nested far deeper than the Java stack
+     * allows, so all nodes are collected parents first with an explicit stack and specialized in reverse order.
+     */
+    private void specializeExpression(Node expression) {
+        if (expression == null) {
+            return;
+        }
+
+        Deque<Node> pending = new ArrayDeque<>();
+        Deque<Node> order = new ArrayDeque<>();
+        pending.push(expression);
+
+        while (!pending.isEmpty()) {
+            Node node = pending.pop();
+            order.push(node);
+
+            if (node instanceof ExpressionNode) {
+                push(pending, ((ExpressionNode) node).getLeft());
+                push(pending, ((ExpressionNode) node).getRight());
+            } else if (node instanceof UnaryNode) {
+                push(pending, ((UnaryNode) node).getExpression());
+            } else if (node instanceof FunctionCallNode) {
+                for (Node parameter : ((FunctionCallNode) node).getParameter()) {
+                    push(pending, parameter);
+                }
+            } else if (node instanceof StringNode && ((StringNode) node).getParts() != null) {
+                for (Node part : ((StringNode) node).getParts()) {
+                    push(pending, part);
+                }
+            }
+        }
+
+        // The operands are specialized first, the new node takes them over
+        while (!order.isEmpty()) {
+            Node node = order.pop();
+
+            if (node.getClass() == BinaryNode.class) {
+                ExpressionNode binary = (ExpressionNode) node;
+                replace(node, new UninitializedBinaryNode(binary.getLeft(), binary.getOperator(), binary.getRight()));
+            } else if (node.getClass() == BooleanNode.class) {
+                ExpressionNode bool = (ExpressionNode) node;
+                replace(node, new UninitializedBooleanNode(bool.getLeft(), bool.getOperator(), bool.getRight()));
+            } else if (node.getClass() == VariableUsageNode.class) {
+                replace(node, new UninitializedVariableUsageNode((VariableUsageNode) node));
+            }
+        }
+    }
+
+    private static void push(Deque<Node> pending, Node node) {
+        if (node != null) {
+            pending.push(node);
+        }
+    }
+
+    private static void replace(Node node, Node newNode) {
+        // Nodes which are not held by a parent (statements of a block) stay generic
+        if (node.getParentNode() != null) {
+            node.replace(newNode);
+        }
+    }
+}
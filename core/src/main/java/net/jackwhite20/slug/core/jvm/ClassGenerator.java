@@ -0,0 +1,368 @@
+/*
+ * Copyright 2018 "JackWhite20"
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.jackwhite20.slug.core.jvm;
+
+import net.jackwhite20.slug.core.compiler.CompiledFunction;
+import net.jackwhite20.slug.core.compiler.CompiledProgram;
+import net.jackwhite20.slug.core.compiler.OpCode;
+import net.jackwhite20.slug.core.compiler.ValueType;
+import net.jackwhite20.slug.exception.SlugRuntimeException;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Handle;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.StringConcatFactory;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Translates a {@link CompiledProgram} into a JVM class.
+ * <p>
+ * Every function becomes a static method and every global variable a static field. The instructions of the
+ * virtual machine already separate ints from references, so they map to JVM instructions one by one: locals
+ * become JVM locals, int arithmetic and comparisons become their native instructions. Internal functions
+ * are linked by the {@link SlugRuntime}.
+ *
+ * @author Philip 'JackWhite20' <silencephil@gmail.com>
+ */
+public class ClassGenerator {
+
+    private static final String OBJECT = "java/lang/Object";
+    private static final String OBJECT_DESCRIPTOR = "Ljava/lang/Object;";
+    private static final String RUNTIME = Type.getInternalName(SlugRuntime.class);
+    private static final String GLOBALS_METHOD = "$globals";
+
+    private static final Handle BUILTIN_BOOTSTRAP = new Handle(Opcodes.H_INVOKESTATIC, RUNTIME, "bootstrapBuiltin",
+            MethodType.methodType(CallSite.class, MethodHandles.Lookup.class, String.class, MethodType.class).toMethodDescriptorString(), false);
+
+    private static final Handle CONCAT_BOOTSTRAP = new Handle(Opcodes.H_INVOKESTATIC, Type.getInternalName(StringConcatFactory.class), "makeConcatWithConstants",
+            MethodType.methodType(CallSite.class, MethodHandles.Lookup.class, String.class, MethodType.class, String.class, Object[].class).toMethodDescriptorString(), false);
+
+    private final CompiledProgram program;
+    private final String className;
+
+    /**
+     * The type of every global variable, ints and bools are stored unboxed.
+     */
+    private final boolean[] primitiveGlobals;
+
+    public ClassGenerator(CompiledProgram program, String className) {
+        this.program = program;
+        this.className = className.replace('.', '/');
+        this.primitiveGlobals = new boolean[program.getGlobalCount()];
+    }
+
+    /**
+     * Generates the class.
+     *
+     * @return The bytes of the class file.
+     */
+    public byte[] generate() {
+        findGlobalTypes(program.getGlobalInitializer());
+        for (CompiledFunction function : program.getFunctions()) {
+            findGlobalTypes(function);
+        }
+
+        ClassWriter classWriter = new ClassWriter(ClassWriter.COMPUTE_FRAMES);
+        classWriter.visit(Opcodes.V11, Opcodes.ACC_PUBLIC | Opcodes.ACC_FINAL | Opcodes.ACC_SUPER, className, null, OBJECT, null);
+
+        for (int i = 0; i < primitiveGlobals.length; i++) {
+            classWriter.visitField(Opcodes.ACC_PRIVATE | Opcodes.ACC_STATIC, globalName(i), globalDescriptor(i), null, null).visitEnd();
+        }
+
+        generateFunction(classWriter, program.getGlobalInitializer(), GLOBALS_METHOD, true);
+        for (CompiledFunction function : program.getFunctions()) {
+            generateFunction(classWriter, function, function.getName(), false);
+        }
+
+        generateMain(classWriter);
+
+        classWriter.visitEnd();
+
+        return classWriter.toByteArray();
+    }
+
+    private void generateMain(ClassWriter classWriter) {
+        MethodVisitor method = classWriter.visitMethod(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC, "main", "([Ljava/lang/String;)V", null, null);
+        method.visitCode();
+
+        method.visitMethodInsn(Opcodes.INVOKESTATIC, className, GLOBALS_METHOD, "()V", false);
+
+        if (program.getMainIndex() != -1) {
+            CompiledFunction main = program.getFunctions()[program.getMainIndex()];
+
+            method.visitMethodInsn(Opcodes.INVOKESTATIC, className, main.getName(), descriptor(main), false);
+            method.visitInsn(Opcodes.POP);
+        }
+
+        method.visitInsn(Opcodes.RETURN);
+        method.visitMaxs(0, 0);
+        method.visitEnd();
+    }
+
+    private void generateFunction(ClassWriter classWriter, CompiledFunction function, String name, boolean initializer) {
+        int access = initializer ? Opcodes.ACC_PRIVATE | Opcodes.ACC_STATIC : Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC;
+        MethodVisitor method = classWriter.visitMethod(access, name, initializer ? "()V" : descriptor(function), null, null);
+        method.visitCode();
+
+        int[] code = function.getCode();
+        Object[] constants = function.getConstants();
+
+        // Tail calls of the function itself jump back to its start
+        Label start = new Label();
+        method.visitLabel(start);
+
+        // Every jump target of the virtual machine code gets a label
+        Map<Integer, Label> labels = new HashMap<>();
+        for (int pc = 0; pc < code.length; pc += 1 + OpCode.operandCount(code[pc])) {
+            if (isJump(code[pc])) {
+                labels.computeIfAbsent(code[pc + 1], target -> new Label());
+            }
+        }
+
+        int pc = 0;
+        while (pc < code.length) {
+            Label label = labels.get(pc);
+            if (label != null) {
+                method.visitLabel(label);
+            }
+
+            int opCode = code[pc];
+            int operand = OpCode.operandCount(opCode) > 0 ? code[pc + 1] : 0;
+
+            switch (opCode) {
+                case OpCode.ICONST:
+                    method.visitLdcInsn(operand);
+                    break;
+                case OpCode.LDC:
+                    method.visitLdcInsn(constants[operand]);
+                    break;
+                case OpCode.ILOAD:
+                    method.visitVarInsn(Opcodes.ILOAD, operand);
+                    break;
+                case OpCode.ISTORE:
+                    method.visitVarInsn(Opcodes.ISTORE, operand);
+                    break;
+                case OpCode.ALOAD:
+                    method.visitVarInsn(Opcodes.ALOAD, operand);
+                    break;
+                case OpCode.ASTORE:
+                    method.visitVarInsn(Opcodes.ASTORE, operand);
+                    break;
+                case OpCode.IGLOAD:
+                case OpCode.AGLOAD:
+                    method.visitFieldInsn(Opcodes.GETSTATIC, className, globalName(operand), globalDescriptor(operand));
+                    break;
+                case OpCode.IGSTORE:
+                case OpCode.AGSTORE:
+                    method.visitFieldInsn(Opcodes.PUTSTATIC, className, globalName(operand), globalDescriptor(operand));
+                    break;
+                case OpCode.IADD:
+                    method.visitInsn(Opcodes.IADD);
+                    break;
+                case OpCode.ISUB:
+                    method.visitInsn(Opcodes.ISUB);
+                    break;
+                case OpCode.IMUL:
+                    method.visitInsn(Opcodes.IMUL);
+                    break;
+                case OpCode.IDIV:
+                    method.visitInsn(Opcodes.IDIV);
+                    break;
+                case OpCode.INEG:
+                    method.visitInsn(Opcodes.INEG);
+                    break;
+                case OpCode.IEQ:
+                case OpCode.INE:
+                case OpCode.ILT:
+                case OpCode.IGT:
+                case OpCode.ILE:
+                case OpCode.IGE:
+                    generateComparison(method, opCode);
+                    break;
+                case OpCode.AEQ:
+                case OpCode.ANE:
+                    method.visitMethodInsn(Opcodes.INVOKESTATIC, "java/util/Objects", "equals", "(Ljava/lang/Object;Ljava/lang/Object;)Z", false);
+                    if (opCode == OpCode.ANE) {
+                        method.visitInsn(Opcodes.ICONST_1);
+                        method.visitInsn(Opcodes.IXOR);
+                    }
+                    break;
+                case OpCode.JUMP:
+                    method.visitJumpInsn(Opcodes.GOTO, labels.get(operand));
+                    break;
+                case OpCode.JUMP_IF_FALSE:
+                    method.visitJumpInsn(Opcodes.IFEQ, labels.get(operand));
+                    break;
+                case OpCode.IFNOT_ICMPEQ:
+                    method.visitJumpInsn(Opcodes.IF_ICMPNE, labels.get(operand));
+                    break;
+                case OpCode.IFNOT_ICMPNE:
+                    method.visitJumpInsn(Opcodes.IF_ICMPEQ, labels.get(operand));
+                    break;
+                case OpCode.IFNOT_ICMPLT:
+                    method.visitJumpInsn(Opcodes.IF_ICMPGE, labels.get(operand));
+                    break;
+                case OpCode.IFNOT_ICMPGT:
+                    method.visitJumpInsn(Opcodes.IF_ICMPLE, labels.get(operand));
+                    break;
+                case OpCode.IFNOT_ICMPLE:
+                    method.visitJumpInsn(Opcodes.IF_ICMPGT, labels.get(operand));
+                    break;
+                case OpCode.IFNOT_ICMPGE:
+                    method.visitJumpInsn(Opcodes.IF_ICMPLT, labels.get(operand));
+                    break;
+                case OpCode.BOX_INT:
+                    method.visitMethodInsn(Opcodes.INVOKESTATIC, "java/lang/Integer", "valueOf", "(I)Ljava/lang/Integer;", false);
+                    break;
+                case OpCode.BOX_BOOL:
+                    method.visitMethodInsn(Opcodes.INVOKESTATIC, "java/lang/Boolean", "valueOf", "(Z)Ljava/lang/Boolean;", false);
+                    break;
+                case OpCode.UNBOX_INT:
+                    method.visitMethodInsn(Opcodes.INVOKESTATIC, RUNTIME, "unboxInt", "(Ljava/lang/Object;)I", false);
+                    break;
+                case OpCode.UNBOX_BOOL:
+                    method.visitMethodInsn(Opcodes.INVOKESTATIC, RUNTIME, "unboxBool", "(Ljava/lang/Object;)Z", false);
+                    break;
+                case OpCode.CONCAT:
+                    // Every part is an argument of the concatenation without a constant
+                    method.visitInvokeDynamicInsn("concat", objectArguments(operand, "Ljava/lang/String;"), CONCAT_BOOTSTRAP,
+                            "\u0001".repeat(operand));
+                    break;
+                case OpCode.INVOKE_BUILTIN:
+                    method.visitInvokeDynamicInsn((String) constants[operand], objectArguments(code[pc + 2], OBJECT_DESCRIPTOR), BUILTIN_BOOTSTRAP);
+                    break;
+                case OpCode.CALL: {
+                    CompiledFunction callee = program.getFunctions()[operand];
+
+                    method.visitMethodInsn(Opcodes.INVOKESTATIC, className, callee.getName(), descriptor(callee), false);
+                    break;
+                }
+                case OpCode.TAIL_CALL: {
+                    CompiledFunction callee = program.getFunctions()[operand];
+
+                    if (callee == function) {
+                        // The arguments become the parameters, the last argument is on top of the stack
+                        ValueType[] parameterTypes = function.getParameterTypes();
+                        for (int i = parameterTypes.length - 1; i >= 0; i--) {
+                            method.visitVarInsn(parameterTypes[i].isPrimitive() ? Opcodes.ISTORE : Opcodes.ASTORE, i);
+                        }
+
+                        method.visitJumpInsn(Opcodes.GOTO, start);
+                    } else {
+                        // The JVM has no tail calls between methods, but the caller can return right away
+                        method.visitMethodInsn(Opcodes.INVOKESTATIC, className, callee.getName(), descriptor(callee), false);
+                        method.visitInsn(Opcodes.ARETURN);
+                    }
+                    break;
+                }
+                case OpCode.RETURN:
+                    if (initializer) {
+                        method.visitInsn(Opcodes.RETURN);
+                    } else {
+                        // Functions have no return values, so every call results in null
+                        method.visitInsn(Opcodes.ACONST_NULL);
+                        method.visitInsn(Opcodes.ARETURN);
+                    }
+                    break;
+                case OpCode.POP:
+                    method.visitInsn(Opcodes.POP);
+                    break;
+                default:
+                    throw new SlugRuntimeException("invalid op code " + opCode + " in function " + function.getName());
+            }
+
+            pc += 1 + OpCode.operandCount(opCode);
+        }
+
+        method.visitMaxs(0, 0);
+        method.visitEnd();
+    }
+
+    private void generateComparison(MethodVisitor method, int opCode) {
+        Label isTrue = new Label();
+        Label end = new Label();
+
+        method.visitJumpInsn(comparisonJump(opCode), isTrue);
+        method.visitInsn(Opcodes.ICONST_0);
+        method.visitJumpInsn(Opcodes.GOTO, end);
+        method.visitLabel(isTrue);
+        method.visitInsn(Opcodes.ICONST_1);
+        method.visitLabel(end);
+    }
+
+    private static int comparisonJump(int opCode) {
+        switch (opCode) {
+            case OpCode.IEQ:
+                return Opcodes.IF_ICMPEQ;
+            case OpCode.INE:
+                return Opcodes.IF_ICMPNE;
+            case OpCode.ILT:
+                return Opcodes.IF_ICMPLT;
+            case OpCode.IGT:
+                return Opcodes.IF_ICMPGT;
+            case OpCode.ILE:
+                return Opcodes.IF_ICMPLE;
+            default:
+                return Opcodes.IF_ICMPGE;
+        }
+    }
+
+    private static boolean isJump(int opCode) {
+        return opCode == OpCode.JUMP || opCode == OpCode.JUMP_IF_FALSE
+                || (opCode >= OpCode.IFNOT_ICMPEQ && opCode <= OpCode.IFNOT_ICMPGE);
+    }
+
+    private void findGlobalTypes(CompiledFunction function) {
+        int[] code = function.getCode();
+        for (int pc = 0; pc < code.length; pc += 1 + OpCode.operandCount(code[pc])) {
+            if (code[pc] == OpCode.IGLOAD || code[pc] == OpCode.IGSTORE) {
+                primitiveGlobals[code[pc + 1]] = true;
+            }
+        }
+    }
+
+    private String globalName(int index) {
+        return "global" + index;
+    }
+
+    private String globalDescriptor(int index) {
+        return primitiveGlobals[index] ? "I" : OBJECT_DESCRIPTOR;
+    }
+
+    /**
+     * Ints and bools are passed unboxed, all other parameters as objects.
+     */
+    private static String descriptor(CompiledFunction function) {
+        StringBuilder descriptor = new StringBuilder("(");
+        for (ValueType parameterType : function.getParameterTypes()) {
+            descriptor.append(parameterType.isPrimitive() ? "I" : OBJECT_DESCRIPTOR);
+        }
+
+        return descriptor.append(")").append(OBJECT_DESCRIPTOR).toString();
+    }
+
+    private static String objectArguments(int amount, String returnDescriptor) {
+        return "(" + OBJECT_DESCRIPTOR.repeat(amount) + ")" + returnDescriptor;
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2018 "JackWhite20"
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.jackwhite20.slug.core.jvm;
+
+import net.jackwhite20.slug.core.interpreter.InternalFunctionRegistry;
+import net.jackwhite20.slug.exception.SlugRuntimeException;
+import net.jackwhite20.slug.function.InternalFunction;
+import net.jackwhite20.slug.function.SlugFunctionProvider;
+import net.jackwhite20.slug.input.Input;
+import net.jackwhite20.slug.input.InputSource;
+import net.jackwhite20.slug.output.Output;
+import net.jackwhite20.slug.output.OutputSink;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+
+/**
+ * Writes a compiled script as a runnable jar which contains the generated class and the runtime it needs.
+ *
+ * @author Philip 'JackWhite20' <silencephil@gmail.com>
+ */
+public class JarWriter {
+
+    /**
+     * The classes the generated code depends on, their nested classes are written too.
+     */
+    private static final Class<?>[] RUNTIME_CLASSES = {
+            SlugRuntime.class,
+            InternalFunctionRegistry.class,
+            InternalFunction.class,
+            SlugFunctionProvider.class,
+            Output.class,
+            OutputSink.class,
+            Input.class,
+            InputSource.class,
+            SlugRuntimeException.class
+    };
+
+    public void write(Path path, String className, byte[] classBytes) throws IOException {
+        Manifest manifest = new Manifest();
+        manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        manifest.getMainAttributes().put(Attributes.Name.MAIN_CLASS, className);
+
+        try (JarOutputStream jar = new JarOutputStream(Files.newOutputStream(path), manifest)) {
+            writeEntry(jar, className.replace('.', '/') + ".class", classBytes);
+
+            for (Class<?> runtimeClass : RUNTIME_CLASSES) {
+                writeClass(jar, runtimeClass);
+            }
+        }
+    }
+
+    private static void writeClass(JarOutputStream jar, Class<?> runtimeClass) throws IOException {
+        String name = runtimeClass.getName().replace('.', '/') + ".class";
+
+        try (InputStream in = runtimeClass.getClassLoader().getResourceAsStream(name)) {
+            if (in == null) {
+                throw new SlugRuntimeException("runtime class " + name + " not found");
+            }
+
+            jar.putNextEntry(new JarEntry(name));
+            in.transferTo(jar);
+            jar.closeEntry();
+        }
+
+        for (Class<?> nestedClass : runtimeClass.getDeclaredClasses()) {
+            writeClass(jar, nestedClass);
+        }
+    }
+
+    private static void writeEntry(JarOutputStream jar, String name, byte[] bytes) throws IOException {
+        jar.putNextEntry(new JarEntry(name));
+        jar.write(bytes);
+        jar.closeEntry();
+    }
+}
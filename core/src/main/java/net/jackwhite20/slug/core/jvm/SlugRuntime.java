@@ -0,0 +1,97 @@
+/*
+ * Copyright 2018 "JackWhite20"
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.jackwhite20.slug.core.jvm;
+
+import net.jackwhite20.slug.core.interpreter.InternalFunctionRegistry;
+import net.jackwhite20.slug.exception.SlugRuntimeException;
+import net.jackwhite20.slug.function.InternalFunction;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.ConstantCallSite;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Arrays;
+
+/**
+ * The runtime support of classes generated by the {@link ClassGenerator}. It is copied into every compiled jar
+ * together with the {@link InternalFunctionRegistry}, so compiled scripts don't depend on the interpreter.
+ *
+ * @author Philip 'JackWhite20' <silencephil@gmail.com>
+ */
+public final class SlugRuntime {
+
+    private static final MethodHandle INVOKE_BUILTIN;
+
+    // A compiled script is the only program of its JVM, so it has a single set of internal functions
+    private static final InternalFunctionRegistry INTERNAL_FUNCTIONS = new InternalFunctionRegistry();
+
+    static {
+        try {
+            INVOKE_BUILTIN = MethodHandles.lookup().findStatic(SlugRuntime.class, "invokeBuiltin",
+                    MethodType.methodType(Object.class, InternalFunction.class, Object[].class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    SlugRuntime() {
+        throw new AssertionError("no instance allowed");
+    }
+
+    /**
+     * Links a call of an internal function. The name of the call site is the name of the function and its
+     * type takes the boxed arguments.
+     *
+     * @param lookup The lookup of the calling class.
+     * @param name   The name of the internal function.
+     * @param type   The type of the call site.
+     * @return The linked call site.
+     */
+    public static CallSite bootstrapBuiltin(MethodHandles.Lookup lookup, String name, MethodType type) {
+        // The function is bound once per call site instead of being looked up by every call
+        MethodHandle target = MethodHandles.insertArguments(INVOKE_BUILTIN, 0, INTERNAL_FUNCTIONS.lookup(name))
+                .asCollector(Object[].class, type.parameterCount());
+
+        return new ConstantCallSite(target.asType(type));
+    }
+
+    private static Object invokeBuiltin(InternalFunction function, Object[] arguments) {
+        return function.call(Arrays.asList(arguments));
+    }
+
+    public static int unboxInt(Object value) {
+        if (value instanceof Integer) {
+            return (Integer) value;
+        } else if (value == null) {
+            // Functions without a result yield the default value
+            return 0;
+        }
+
+        throw new SlugRuntimeException("expected an int but got " + value);
+    }
+
+    public static boolean unboxBool(Object value) {
+        if (value instanceof Boolean) {
+            return (Boolean) value;
+        } else if (value == null) {
+            return false;
+        }
+
+        throw new SlugRuntimeException("expected a bool but got " + value);
+    }
+}
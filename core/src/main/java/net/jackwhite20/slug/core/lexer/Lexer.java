@@ -25,7 +25,7 @@ import java.util.Map;
 /**
  * @author Philip 'JackWhite20' <silencephil@gmail.com>
  */
-public class Lexer {
+public class Lexer implements TokenSource {
 
     private static final char EOF = '|';
     private static Map<String, Token> reservedKeywords = new HashMap<>();
@@ -138,6 +138,7 @@ public class Lexer {
         return possibleKeyword;
     }
 
+    @Override
     public Token nextToken() {
         while (currentChar != EOF) {
             // Handle comments
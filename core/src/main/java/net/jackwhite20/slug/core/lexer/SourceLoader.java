@@ -0,0 +1,146 @@
+/*
+ * Copyright 2018 "JackWhite20"
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.jackwhite20.slug.core.lexer;
+
+import net.jackwhite20.slug.exception.SlugRuntimeException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Loads slug source files for the {@link TableLexer} without holding them multiple times in memory.
+ * <p>
+ * The file is memory mapped. Pure ASCII files (the common case) are lexed directly from the mapped buffer, so
+ * they don't take any heap. Other files are decoded from the mapped buffer into a single char buffer.
+ *
+ * @author Philip 'JackWhite20' <silencephil@gmail.com>
+ */
+public final class SourceLoader {
+
+    private static final long NON_ASCII_MASK = 0x8080808080808080L;
+
+    SourceLoader() {
+        throw new AssertionError("no instance allowed");
+    }
+
+    /**
+     * Loads the UTF-8 encoded source file.
+     *
+     * @param path The path of the file.
+     * @return The source.
+     * @throws IOException If the file can't be read.
+     */
+    public static CharSequence load(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new SlugRuntimeException("source file " + path + " is too large");
+            }
+
+            if (size == 0) {
+                return "";
+            }
+
+            // The mapping stays valid after the channel is closed
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+
+            if (isAscii(buffer)) {
+                return new AsciiSequence(buffer);
+            }
+
+            return decode(buffer);
+        }
+    }
+
+    private static boolean isAscii(ByteBuffer buffer) {
+        int limit = buffer.limit();
+        int i = 0;
+
+        // Check eight bytes at once
+        for (; i + 8 <= limit; i += 8) {
+            if ((buffer.getLong(i) & NON_ASCII_MASK) != 0) {
+                return false;
+            }
+        }
+
+        for (; i < limit; i++) {
+            if (buffer.get(i) < 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static CharSequence decode(ByteBuffer buffer) throws CharacterCodingException {
+        // Malformed input is replaced like new String(bytes, UTF_8) does it
+        CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+        // UTF-8 never has more chars than bytes
+        CharBuffer chars = CharBuffer.allocate(buffer.remaining());
+        decoder.decode(buffer.duplicate(), chars, true);
+        decoder.flush(chars);
+
+        return chars.flip();
+    }
+
+    /**
+     * A view of an ASCII encoded buffer as chars.
+     */
+    private static final class AsciiSequence implements CharSequence {
+
+        private final ByteBuffer buffer;
+
+        private AsciiSequence(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int length() {
+            return buffer.limit();
+        }
+
+        @Override
+        public char charAt(int index) {
+            return (char) buffer.get(index);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return new AsciiSequence(buffer.duplicate().position(start).limit(end).slice());
+        }
+
+        @Override
+        public String toString() {
+            byte[] bytes = new byte[buffer.limit()];
+            buffer.duplicate().position(0).get(bytes);
+
+            return new String(bytes, StandardCharsets.US_ASCII);
+        }
+    }
+}
@@ -0,0 +1,335 @@
+/*
+ * Copyright 2018 "JackWhite20"
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.jackwhite20.slug.core.lexer;
+
+import net.jackwhite20.slug.exception.SlugRuntimeException;
+import net.jackwhite20.slug.lexer.Token;
+import net.jackwhite20.slug.lexer.TokenType;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * A lexer which produces the same tokens as the {@link Lexer} without copying the source.
+ * <p>
+ * ASCII chars are classified by a lookup table, keywords are found by a perfect hash over their first char,
+ * their last char and their length. Names, numbers and strings are tokens which only reference their offsets
+ * in the source, operators and keywords are shared token instances.
+ *
+ * @author Philip 'JackWhite20' <silencephil@gmail.com>
+ */
+public class TableLexer implements TokenSource {
+
+    // Char classes
+    private static final byte OTHER = 0;
+    private static final byte WHITESPACE = 1;
+    private static final byte LETTER = 2;
+    private static final byte DIGIT = 3;
+    private static final byte OPERATOR = 4;
+
+    private static final byte[] CHAR_CLASSES = new byte[128];
+    private static final Token[] OPERATORS = new Token[128];
+
+    private static final String[] KEYWORDS = {"class", "func", "call", "bool", "int", "string", "if", "for", "while", "else", "return", "new"};
+    private static final TokenType[] KEYWORD_TYPES = {TokenType.CLASS, TokenType.FUNC, TokenType.CALL, TokenType.BOOL, TokenType.INTEGER,
+            TokenType.STRING, TokenType.IF, TokenType.FOR, TokenType.WHILE, TokenType.ELSE, TokenType.RETURN, TokenType.NEW};
+
+    private static final int KEYWORD_TABLE_SIZE = 32;
+    private static final char[][] KEYWORD_TABLE = new char[KEYWORD_TABLE_SIZE][];
+    private static final Token[] KEYWORD_TOKENS = new Token[KEYWORD_TABLE_SIZE];
+
+    private static final Map<TokenType, Token> SHARED_TOKENS = new EnumMap<>(TokenType.class);
+    private static final Token NONE = new Token(TokenType.NONE, "NONE");
+
+    static {
+        for (char c = 0; c < 128; c++) {
+            if (Character.isWhitespace(c)) {
+                CHAR_CLASSES[c] = WHITESPACE;
+            } else if (Character.isAlphabetic(c)) {
+                CHAR_CLASSES[c] = LETTER;
+            } else if (Character.isDigit(c)) {
+                CHAR_CLASSES[c] = DIGIT;
+            }
+        }
+
+        operator(';', TokenType.SEMICOLON);
+        operator(',', TokenType.COMMA);
+        operator('+', TokenType.PLUS);
+        operator('-', TokenType.MINUS);
+        operator('*', TokenType.MULTIPLY);
+        operator('/', TokenType.DIVIDE);
+        operator('(', TokenType.LEFT_PARAN);
+        operator(')', TokenType.RIGHT_PARAN);
+        operator('{', TokenType.CURLY_LEFT_PARAN);
+        operator('}', TokenType.CURLY_RIGHT_PARAN);
+        operator('=', TokenType.ASSIGN);
+        operator('>', TokenType.GREATER);
+        operator('<', TokenType.LESS);
+
+        // Operators which may be followed by a '='
+        shared(TokenType.EQUAL, "==");
+        shared(TokenType.NOT_EQUAL, "!=");
+        shared(TokenType.GREATER_EQUAL, ">=");
+        shared(TokenType.LESS_EQUAL, "<=");
+        CHAR_CLASSES['!'] = OPERATOR;
+
+        for (int i = 0; i < KEYWORDS.length; i++) {
+            char[] keyword = KEYWORDS[i].toCharArray();
+
+            int hash = keywordHash(keyword[0], keyword[keyword.length - 1], keyword.length);
+            if (KEYWORD_TABLE[hash] != null) {
+                throw new AssertionError("keyword hash collision between " + KEYWORDS[i] + " and " + new String(KEYWORD_TABLE[hash]));
+            }
+
+            KEYWORD_TABLE[hash] = keyword;
+            KEYWORD_TOKENS[hash] = new Token(KEYWORD_TYPES[i], KEYWORDS[i]);
+        }
+    }
+
+    private final CharSequence input;
+    private final int end;
+    private int pos;
+
+    /**
+     * Creates a lexer over the given source, for example a string or a memory mapped file from the
+     * {@link SourceLoader}.
+     *
+     * @param input The source.
+     */
+    public TableLexer(CharSequence input) {
+        this.input = input;
+        this.end = input.length();
+    }
+
+    @Override
+    public Token nextToken() {
+        CharSequence input = this.input;
+
+        while (pos < end) {
+            char c = input.charAt(pos);
+            byte charClass = c < 128 ? CHAR_CLASSES[c] : unicodeClass(c);
+
+            switch (charClass) {
+                case WHITESPACE:
+                    pos++;
+                    break;
+                case LETTER:
+                    return name();
+                case DIGIT:
+                    return number();
+                case OPERATOR:
+                    return operator(c);
+                default:
+                    if (c == '"') {
+                        return string();
+                    } else if (c == '#') {
+                        skipComment();
+                        break;
+                    }
+
+                    throw new SlugRuntimeException("unexpected character '" + c + "' at " + pos);
+            }
+        }
+
+        return NONE;
+    }
+
+    private Token name() {
+        int start = pos;
+
+        // Names start with a letter and continue with letters or digits
+        while (pos < end && isLetterOrDigit(input.charAt(pos))) {
+            pos++;
+        }
+
+        int length = pos - start;
+
+        int hash = keywordHash(input.charAt(start), input.charAt(pos - 1), length);
+        char[] keyword = KEYWORD_TABLE[hash];
+        if (keyword != null && regionEquals(keyword, start, length)) {
+            return KEYWORD_TOKENS[hash];
+        }
+
+        // Check if we got a function call (also used for function declaration)
+        if (pos < end && input.charAt(pos) == '(') {
+            return new Token(TokenType.CALL, input, start, length);
+        }
+
+        if (isBoolean(start, length)) {
+            return new Token(TokenType.BOOL, input, start, length);
+        }
+
+        return new Token(TokenType.NAME, input, start, length);
+    }
+
+    private Token number() {
+        int start = pos;
+        while (pos < end && isDigit(input.charAt(pos))) {
+            pos++;
+        }
+
+        return new Token(TokenType.INTEGER, input, start, pos - start);
+    }
+
+    private Token string() {
+        // Skip the opening '"', strings may contain all chars
+        int start = ++pos;
+        while (pos < end && input.charAt(pos) != '"') {
+            pos++;
+        }
+
+        // Strings needs to end with '"'
+        if (pos == end) {
+            throw new IllegalStateException("strings needs to end with '\"'");
+        }
+
+        return new Token(TokenType.STRING, input, start, pos++ - start);
+    }
+
+    private Token operator(char c) {
+        pos++;
+
+        boolean followedByAssign = pos < end && input.charAt(pos) == '=';
+        switch (c) {
+            case '=':
+                if (followedByAssign) {
+                    pos++;
+                    return SHARED_TOKENS.get(TokenType.EQUAL);
+                }
+                break;
+            case '>':
+                if (followedByAssign) {
+                    pos++;
+                    return SHARED_TOKENS.get(TokenType.GREATER_EQUAL);
+                }
+                break;
+            case '<':
+                if (followedByAssign) {
+                    pos++;
+                    return SHARED_TOKENS.get(TokenType.LESS_EQUAL);
+                }
+                break;
+            case '!':
+                if (followedByAssign) {
+                    pos++;
+                    return SHARED_TOKENS.get(TokenType.NOT_EQUAL);
+                }
+
+                throw new SlugRuntimeException("unexpected character '!' at " + (pos - 1));
+        }
+
+        return OPERATORS[c];
+    }
+
+    private void skipComment() {
+        // Comments start and end with ##
+        if (pos + 1 >= end || input.charAt(pos + 1) != '#') {
+            throw new IllegalStateException("EOF reached while lexing comments");
+        }
+
+        pos += 2;
+        while (pos < end && input.charAt(pos) != '#') {
+            pos++;
+        }
+
+        if (pos == end) {
+            throw new IllegalStateException("comments should end with ##");
+        }
+
+        if (pos + 1 >= end || input.charAt(pos + 1) != '#') {
+            throw new IllegalStateException("missing # to close comment");
+        }
+
+        pos += 2;
+    }
+
+    private boolean regionEquals(char[] keyword, int start, int length) {
+        if (keyword.length != length) {
+            return false;
+        }
+
+        for (int i = 0; i < length; i++) {
+            if (input.charAt(start + i) != keyword[i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private boolean isBoolean(int start, int length) {
+        if (length == 4) {
+            return matchesIgnoreCase("true", start);
+        } else if (length == 5) {
+            return matchesIgnoreCase("false", start);
+        }
+
+        return false;
+    }
+
+    private boolean matchesIgnoreCase(String expected, int start) {
+        for (int i = 0; i < expected.length(); i++) {
+            if (Character.toLowerCase(input.charAt(start + i)) != expected.charAt(i)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static int keywordHash(char first, char last, int length) {
+        return (first + last * 13 + length) & (KEYWORD_TABLE_SIZE - 1);
+    }
+
+    private static boolean isLetterOrDigit(char c) {
+        if (c < 128) {
+            byte charClass = CHAR_CLASSES[c];
+
+            return charClass == LETTER || charClass == DIGIT;
+        }
+
+        return Character.isLetterOrDigit(c);
+    }
+
+    private static boolean isDigit(char c) {
+        return c < 128 ? CHAR_CLASSES[c] == DIGIT : Character.isDigit(c);
+    }
+
+    private static byte unicodeClass(char c) {
+        if (Character.isWhitespace(c)) {
+            return WHITESPACE;
+        } else if (Character.isAlphabetic(c)) {
+            return LETTER;
+        } else if (Character.isDigit(c)) {
+            return DIGIT;
+        }
+
+        return OTHER;
+    }
+
+    private static void operator(char c, TokenType tokenType) {
+        CHAR_CLASSES[c] = OPERATOR;
+        OPERATORS[c] = shared(tokenType, String.valueOf(c));
+    }
+
+    private static Token shared(TokenType tokenType, String value) {
+        Token token = new Token(tokenType, value);
+        SHARED_TOKENS.put(tokenType, token);
+
+        return token;
+    }
+}
@@ -14,14 +14,21 @@
  * limitations under the License.
  */
 
-package net.jackwhite20.slug.variable;
+package net.jackwhite20.slug.core.lexer;
+
+import net.jackwhite20.slug.lexer.Token;
 
 /**
+ * Produces the tokens the parser consumes.
+ *
  * @author Philip 'JackWhite20' <silencephil@gmail.com>
  */
-public class BlockVariableRegistry extends VariableRegistry {
+public interface TokenSource {
 
-    public BlockVariableRegistry(String name) {
-        super(name);
-    }
+    /**
+     * Gets the next token of the source.
+     *
+     * @return The next token or a token of the type {@link net.jackwhite20.slug.lexer.TokenType#NONE} at the end.
+     */
+    Token nextToken();
 }
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2018 "JackWhite20"
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.jackwhite20.slug.core.metrics;
+
+import net.jackwhite20.slug.exception.SlugRuntimeException;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Provides {@link ProgramMetrics} which are registered as MBeans under
+ * "net.jackwhite20.slug:type=Program,name=&lt;program name&gt;,id=&lt;id&gt;". The id keeps programs with
+ * the same name apart.
+ * <p>
+ * The MBeans stay registered until the provider is closed, so a host which compiles programs over and over
+ * should close the provider together with the isolate.
+ *
+ * @author Philip 'JackWhite20' <silencephil@gmail.com>
+ */
+public final class JmxMetricsProvider implements MetricsProvider, AutoCloseable {
+
+    private static final AtomicLong NEXT_ID = new AtomicLong();
+
+    private final MBeanServer server;
+    private final List<ObjectName> registered = new CopyOnWriteArrayList<>();
+
+    public JmxMetricsProvider() {
+        this(ManagementFactory.getPlatformMBeanServer());
+    }
+
+    public JmxMetricsProvider(MBeanServer server) {
+        this.server = server;
+    }
+
+    @Override
+    public SlugMetrics forProgram(String programName) {
+        ProgramMetrics metrics = new ProgramMetrics(programName);
+
+        try {
+            ObjectName name = new ObjectName("net.jackwhite20.slug:type=Program,name=" + ObjectName.quote(programName) + ",id=" + NEXT_ID.incrementAndGet());
+            server.registerMBean(metrics, name);
+            registered.add(name);
+        } catch (JMException e) {
+            throw new SlugRuntimeException("could not register the metrics of " + programName + ": " + e.getMessage());
+        }
+
+        return metrics;
+    }
+
+    /**
+     * Unregisters the MBeans of all programs of this provider.
+     */
+    @Override
+    public void close() {
+        for (ObjectName name : registered) {
+            try {
+                server.unregisterMBean(name);
+            } catch (JMException ignore) {
+                // Already unregistered by someone else
+            }
+        }
+
+        registered.clear();
+    }
+}
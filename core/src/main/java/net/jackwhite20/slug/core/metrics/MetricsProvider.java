@@ -0,0 +1,39 @@
+/*
+ * Copyright 2018 "JackWhite20"
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.jackwhite20.slug.core.metrics;
+
+/**
+ * Creates the metrics of the programs an isolate compiles.
+ *
+ * @author Philip 'JackWhite20' <silencephil@gmail.com>
+ */
+@FunctionalInterface
+public interface MetricsProvider {
+
+    /**
+     * Provides no metrics.
+     */
+    MetricsProvider NOOP = name -> SlugMetrics.NOOP;
+
+    /**
+     * Creates the metrics of a program which is about to be compiled.
+     *
+     * @param programName The name of the program, the file name for programs loaded from a file.
+     * @return The metrics of the program.
+     */
+    SlugMetrics forProgram(String programName);
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2018 "JackWhite20"
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.jackwhite20.slug.core.metrics;
+
+/**
+ * The phases a program goes through, from its source to its execution.
+ *
+ * @author Philip 'JackWhite20' <silencephil@gmail.com>
+ */
+public enum Phase {
+
+    /**
+     * Turning the source into tokens.
+     */
+    LEX,
+    /**
+     * Building and resolving the AST, without the time spent in the lexer.
+     */
+    PARSE,
+    /**
+     * Running the optimization passes.
+     */
+    OPTIMIZE,
+    /**
+     * A single execution of the program or of one of its functions.
+     */
+    EXECUTE
+}
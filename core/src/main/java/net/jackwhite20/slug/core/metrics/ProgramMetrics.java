@@ -0,0 +1,133 @@
+/*
+ * Copyright 2018 "JackWhite20"
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.jackwhite20.slug.core.metrics;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects the metrics of a single program in a histogram per phase and in counters.
+ *
+ * @author Philip 'JackWhite20' <silencephil@gmail.com>
+ */
+public final class ProgramMetrics implements SlugMetrics, ProgramMetricsMXBean {
+
+    private final String programName;
+    private final Map<Phase, Histogram> histograms = new EnumMap<>(Phase.class);
+    private final LongAdder functionCalls = new LongAdder();
+    private final LongAdder loopIterations = new LongAdder();
+    private final LongAdder builtinCalls = new LongAdder();
+
+    public ProgramMetrics(String programName) {
+        this.programName = programName;
+
+        // Filled up front, so the map is only read afterwards
+        for (Phase phase : Phase.values()) {
+            histograms.put(phase, new Histogram());
+        }
+    }
+
+    @Override
+    public void recordPhase(Phase phase, long nanos) {
+        histograms.get(phase).record(nanos);
+    }
+
+    @Override
+    public void recordExecution(long nanos, long functionCalls, long loopIterations, long builtinCalls) {
+        histograms.get(Phase.EXECUTE).record(nanos);
+
+        this.functionCalls.add(functionCalls);
+        this.loopIterations.add(loopIterations);
+        this.builtinCalls.add(builtinCalls);
+    }
+
+    /**
+     * Gets the histogram of a phase.
+     *
+     * @param phase The phase.
+     * @return The histogram of the phase.
+     */
+    public Histogram getHistogram(Phase phase) {
+        return histograms.get(phase);
+    }
+
+    @Override
+    public String getProgramName() {
+        return programName;
+    }
+
+    @Override
+    public long getLexNanos() {
+        return histograms.get(Phase.LEX).getMax();
+    }
+
+    @Override
+    public long getParseNanos() {
+        return histograms.get(Phase.PARSE).getMax();
+    }
+
+    @Override
+    public long getOptimizeNanos() {
+        return histograms.get(Phase.OPTIMIZE).getMax();
+    }
+
+    @Override
+    public long getExecutions() {
+        return histograms.get(Phase.EXECUTE).getCount();
+    }
+
+    @Override
+    public double getExecuteMeanNanos() {
+        return histograms.get(Phase.EXECUTE).getMean();
+    }
+
+    @Override
+    public long getExecuteP50Nanos() {
+        return histograms.get(Phase.EXECUTE).getValueAtPercentile(50);
+    }
+
+    @Override
+    public long getExecuteP90Nanos() {
+        return histograms.get(Phase.EXECUTE).getValueAtPercentile(90);
+    }
+
+    @Override
+    public long getExecuteP99Nanos() {
+        return histograms.get(Phase.EXECUTE).getValueAtPercentile(99);
+    }
+
+    @Override
+    public long getExecuteMaxNanos() {
+        return histograms.get(Phase.EXECUTE).getMax();
+    }
+
+    @Override
+    public long getFunctionCalls() {
+        return functionCalls.sum();
+    }
+
+    @Override
+    public long getLoopIterations() {
+        return loopIterations.sum();
+    }
+
+    @Override
+    public long getBuiltinCalls() {
+        return builtinCalls.sum();
+    }
+}
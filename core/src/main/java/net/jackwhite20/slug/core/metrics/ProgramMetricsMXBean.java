@@ -0,0 +1,51 @@
+/*
+ * Copyright 2018 "JackWhite20"
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.jackwhite20.slug.core.metrics;
+
+/**
+ * The JMX view of the metrics of a single program. All times are in nanoseconds.
+ *
+ * @author Philip 'JackWhite20' <silencephil@gmail.com>
+ */
+public interface ProgramMetricsMXBean {
+
+    String getProgramName();
+
+    long getLexNanos();
+
+    long getParseNanos();
+
+    long getOptimizeNanos();
+
+    long getExecutions();
+
+    double getExecuteMeanNanos();
+
+    long getExecuteP50Nanos();
+
+    long getExecuteP90Nanos();
+
+    long getExecuteP99Nanos();
+
+    long getExecuteMaxNanos();
+
+    long getFunctionCalls();
+
+    long getLoopIterations();
+
+    long getBuiltinCalls();
+}
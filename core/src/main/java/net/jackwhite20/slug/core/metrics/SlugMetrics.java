@@ -0,0 +1,74 @@
+/*
+ * Copyright 2018 "JackWhite20"
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.jackwhite20.slug.core.metrics;
+
+/**
+ * Receives the metrics of a single program. Implementations need to be thread safe, because a program can be
+ * executed by multiple threads at the same time.
+ * <p>
+ * The phases are timed and the counters are collected by the parser and the interpreter and reported once per
+ * phase or execution, so an implementation is never called per instruction.
+ *
+ * @author Philip 'JackWhite20' <silencephil@gmail.com>
+ */
+public interface SlugMetrics {
+
+    /**
+     * Records nothing. The parser and interpreter don't even measure the times for it.
+     */
+    SlugMetrics NOOP = new SlugMetrics() {
+        @Override
+        public boolean isEnabled() {
+            return false;
+        }
+
+        @Override
+        public void recordPhase(Phase phase, long nanos) {
+        }
+
+        @Override
+        public void recordExecution(long nanos, long functionCalls, long loopIterations, long builtinCalls) {
+        }
+    };
+
+    /**
+     * Gets if the metrics should be measured at all.
+     *
+     * @return True if they should be measured.
+     */
+    default boolean isEnabled() {
+        return true;
+    }
+
+    /**
+     * Records the time of one of the compile phases.
+     *
+     * @param phase The phase.
+     * @param nanos The time in nanoseconds.
+     */
+    void recordPhase(Phase phase, long nanos);
+
+    /**
+     * Records a finished execution, also one which is aborted.
+     *
+     * @param nanos The time of the execution in nanoseconds.
+     * @param functionCalls The amount of calls of Slug functions, including the called function itself.
+     * @param loopIterations The amount of while and for loop iterations.
+     * @param builtinCalls The amount of calls of internal functions.
+     */
+    void recordExecution(long nanos, long functionCalls, long loopIterations, long builtinCalls);
+}
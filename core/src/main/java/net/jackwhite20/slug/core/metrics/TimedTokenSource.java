@@ -0,0 +1,55 @@
+/*
+ * Copyright 2018 "JackWhite20"
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.jackwhite20.slug.core.metrics;
+
+import net.jackwhite20.slug.core.lexer.TokenSource;
+import net.jackwhite20.slug.lexer.Token;
+
+/**
+ * Measures the time another token source spends producing tokens. The parser pulls the tokens one by one, so
+ * this is the only way to tell the lexing and the parsing time apart.
+ *
+ * @author Philip 'JackWhite20' <silencephil@gmail.com>
+ */
+public final class TimedTokenSource implements TokenSource {
+
+    private final TokenSource tokenSource;
+    private long nanos;
+
+    public TimedTokenSource(TokenSource tokenSource) {
+        this.tokenSource = tokenSource;
+    }
+
+    @Override
+    public Token nextToken() {
+        long start = System.nanoTime();
+        try {
+            return tokenSource.nextToken();
+        } finally {
+            nanos += System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * Gets the time spent in the wrapped token source so far.
+     *
+     * @return The time in nanoseconds.
+     */
+    public long getNanos() {
+        return nanos;
+    }
+}
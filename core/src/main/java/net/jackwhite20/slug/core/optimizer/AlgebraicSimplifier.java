@@ -0,0 +1,92 @@
+/*
+ * Copyright 2018 "JackWhite20"
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.jackwhite20.slug.core.optimizer;
+
+import net.jackwhite20.slug.ast.BinaryNode;
+import net.jackwhite20.slug.ast.Node;
+import net.jackwhite20.slug.ast.NumberNode;
+import net.jackwhite20.slug.ast.UnaryNode;
+import net.jackwhite20.slug.ast.VariableUsageNode;
+import net.jackwhite20.slug.lexer.TokenType;
+
+/**
+ * Removes arithmetic which doesn't change the value, like x + 0, x - 0, x * 1 and x / 1, and replaces
+ * x * 0 with 0 if x has no side effects.
+ *
+ * @author Philip 'JackWhite20' <silencephil@gmail.com>
+ */
+public class AlgebraicSimplifier extends TreeRewriter {
+
+    @Override
+    protected Node rewriteExpression(Node node) {
+        if (!(node instanceof BinaryNode)) {
+            return node;
+        }
+
+        BinaryNode binaryNode = (BinaryNode) node;
+        Node left = binaryNode.getLeft();
+        Node right = binaryNode.getRight();
+
+        switch (binaryNode.getOperator()) {
+            case PLUS:
+                if (isConstant(right, 0) && isInt(left)) {
+                    return left;
+                } else if (isConstant(left, 0) && isInt(right)) {
+                    return right;
+                }
+                break;
+            case MINUS:
+                if (isConstant(right, 0) && isInt(left)) {
+                    return left;
+                }
+                break;
+            case MULTIPLY:
+                if (isConstant(right, 1) && isInt(left)) {
+                    return left;
+                } else if (isConstant(left, 1) && isInt(right)) {
+                    return right;
+                } else if ((isConstant(right, 0) && isPure(left)) || (isConstant(left, 0) && isPure(right))) {
+                    return new NumberNode(0);
+                }
+                break;
+            case DIVIDE:
+                if (isConstant(right, 1) && isInt(left)) {
+                    return left;
+                }
+                break;
+        }
+
+        return node;
+    }
+
+    private static boolean isConstant(Node node, int value) {
+        return node instanceof NumberNode && ((NumberNode) node).getValue() == value;
+    }
+
+    /**
+     * Only operands which are ints anyway can replace the arithmetic, other values would be converted by it.
+     */
+    private static boolean isInt(Node node) {
+        return node instanceof NumberNode || node instanceof BinaryNode || node instanceof UnaryNode
+                || (node instanceof VariableUsageNode && ((VariableUsageNode) node).getVariableType() == TokenType.INTEGER);
+    }
+
+    private static boolean isPure(Node node) {
+        return node instanceof NumberNode
+                || (node instanceof VariableUsageNode && ((VariableUsageNode) node).getVariableType() == TokenType.INTEGER);
+    }
+}
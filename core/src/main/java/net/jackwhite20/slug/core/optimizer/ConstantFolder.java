@@ -0,0 +1,103 @@
+/*
+ * Copyright 2018 "JackWhite20"
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.jackwhite20.slug.core.optimizer;
+
+import net.jackwhite20.slug.ast.BinaryNode;
+import net.jackwhite20.slug.ast.BoolNode;
+import net.jackwhite20.slug.ast.BooleanNode;
+import net.jackwhite20.slug.ast.Node;
+import net.jackwhite20.slug.ast.NumberNode;
+import net.jackwhite20.slug.ast.StringNode;
+import net.jackwhite20.slug.ast.UnaryNode;
+import net.jackwhite20.slug.lexer.TokenType;
+
+/**
+ * Evaluates expressions whose operands are literals at compile time.
+ *
+ * @author Philip 'JackWhite20' <silencephil@gmail.com>
+ */
+public class ConstantFolder extends TreeRewriter {
+
+    @Override
+    protected Node rewriteExpression(Node node) {
+        if (node instanceof BinaryNode) {
+            BinaryNode binaryNode = (BinaryNode) node;
+
+            if (binaryNode.getLeft() instanceof NumberNode && binaryNode.getRight() instanceof NumberNode) {
+                int right = ((NumberNode) binaryNode.getRight()).getValue();
+
+                // Keep the division so it fails at runtime like before
+                if (binaryNode.getOperator() == TokenType.DIVIDE && right == 0) {
+                    return node;
+                }
+
+                return new NumberNode(binaryNode.apply(((NumberNode) binaryNode.getLeft()).getValue(), right));
+            }
+        } else if (node instanceof BooleanNode) {
+            BooleanNode booleanNode = (BooleanNode) node;
+
+            Object left = literalValue(booleanNode.getLeft());
+            Object right = literalValue(booleanNode.getRight());
+            if (left == null || right == null) {
+                return node;
+            }
+
+            if (left instanceof Integer && right instanceof Integer) {
+                return new BoolNode(booleanNode.compare((int) (Integer) left, (int) (Integer) right));
+            }
+
+            if (booleanNode.getOperator() == TokenType.EQUAL || booleanNode.getOperator() == TokenType.NOT_EQUAL) {
+                return new BoolNode(booleanNode.compare(left, right));
+            }
+        } else if (node instanceof StringNode && ((StringNode) node).getParts() != null) {
+            // Templates whose inline expressions are all folded become a single literal
+            StringBuilder builder = new StringBuilder();
+            for (Node part : ((StringNode) node).getParts()) {
+                Object value = literalValue(part);
+                if (value == null) {
+                    return node;
+                }
+
+                builder.append(value);
+            }
+
+            return new StringNode(builder.toString());
+        } else if (node instanceof UnaryNode) {
+            UnaryNode unaryNode = (UnaryNode) node;
+
+            if (unaryNode.getExpression() instanceof NumberNode) {
+                int value = ((NumberNode) unaryNode.getExpression()).getValue();
+
+                return new NumberNode(unaryNode.getOperator().getTokenType() == TokenType.MINUS ? -value : value);
+            }
+        }
+
+        return node;
+    }
+
+    private static Object literalValue(Node node) {
+        if (node instanceof NumberNode) {
+            return ((NumberNode) node).getValue();
+        } else if (node instanceof BoolNode) {
+            return ((BoolNode) node).isValue();
+        } else if (node instanceof StringNode && ((StringNode) node).getParts() == null) {
+            return ((StringNode) node).getValue();
+        }
+
+        return null;
+    }
+}
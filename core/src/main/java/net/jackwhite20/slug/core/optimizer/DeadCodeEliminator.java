@@ -0,0 +1,55 @@
+/*
+ * Copyright 2018 "JackWhite20"
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.jackwhite20.slug.core.optimizer;
+
+import net.jackwhite20.slug.ast.BoolNode;
+import net.jackwhite20.slug.ast.ForNode;
+import net.jackwhite20.slug.ast.IfNode;
+import net.jackwhite20.slug.ast.NoOpNode;
+import net.jackwhite20.slug.ast.Node;
+import net.jackwhite20.slug.ast.WhileNode;
+
+/**
+ * Removes no op statements, branches of ifs with a constant condition and loops which never run.
+ *
+ * @author Philip 'JackWhite20' <silencephil@gmail.com>
+ */
+public class DeadCodeEliminator extends TreeRewriter {
+
+    @Override
+    protected Node rewriteStatement(Node node) {
+        if (node instanceof NoOpNode) {
+            return null;
+        } else if (node instanceof IfNode && ((IfNode) node).getExpression() instanceof BoolNode) {
+            IfNode ifNode = (IfNode) node;
+
+            // The remaining branch keeps its block, so its variables stay in their own scope
+            return ((BoolNode) ifNode.getExpression()).isValue() ? ifNode.getTrueNodes() : ifNode.getFalseNodes();
+        } else if (node instanceof WhileNode && isFalse(((WhileNode) node).getExpression())) {
+            return null;
+        } else if (node instanceof ForNode && isFalse(((ForNode) node).getCondition())) {
+            // The declaration still runs once
+            return ((ForNode) node).getDeclaration();
+        }
+
+        return node;
+    }
+
+    private static boolean isFalse(Node node) {
+        return node instanceof BoolNode && !((BoolNode) node).isValue();
+    }
+}
@@ -14,14 +14,21 @@
  * limitations under the License.
  */
 
-package net.jackwhite20.slug.variable;
+package net.jackwhite20.slug.core.optimizer;
+
+import net.jackwhite20.slug.ast.MainNode;
 
 /**
+ * A single transformation of the resolved AST which doesn't change the behavior of the script.
+ *
  * @author Philip 'JackWhite20' <silencephil@gmail.com>
  */
-public final class GlobalVariableRegistry extends VariableRegistry {
+public interface OptimizationPass {
 
-    public GlobalVariableRegistry() {
-        super("Global");
-    }
+    /**
+     * Optimizes the AST in place.
+     *
+     * @param mainNode The resolved main node.
+     */
+    void optimize(MainNode mainNode);
 }
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2018 "JackWhite20"
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.jackwhite20.slug.core.optimizer;
+
+import net.jackwhite20.slug.ast.MainNode;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Runs a pipeline of {@link OptimizationPass}es over the resolved AST.
+ *
+ * @author Philip 'JackWhite20' <silencephil@gmail.com>
+ */
+public class Optimizer {
+
+    private final List<OptimizationPass> passes = new ArrayList<>();
+
+    /**
+     * Creates an optimizer with the default passes. Folding runs first, so the elimination sees the folded
+     * conditions.
+     *
+     * @return The optimizer.
+     */
+    public static Optimizer defaults() {
+        return new Optimizer()
+                .addPass(new ConstantFolder())
+                .addPass(new AlgebraicSimplifier())
+                .addPass(new DeadCodeEliminator());
+    }
+
+    /**
+     * Creates an optimizer without passes.
+     *
+     * @return The optimizer.
+     */
+    public static Optimizer none() {
+        return new Optimizer();
+    }
+
+    public Optimizer addPass(OptimizationPass pass) {
+        passes.add(pass);
+
+        return this;
+    }
+
+    public List<OptimizationPass> getPasses() {
+        return Collections.unmodifiableList(passes);
+    }
+
+    public void optimize(MainNode mainNode) {
+        for (OptimizationPass pass : passes) {
+            pass.optimize(mainNode);
+        }
+    }
+}
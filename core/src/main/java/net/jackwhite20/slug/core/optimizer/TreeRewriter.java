@@ -0,0 +1,170 @@
+/*
+ * Copyright 2018 "JackWhite20"
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.jackwhite20.slug.core.optimizer;
+
+import net.jackwhite20.slug.ast.BlockNode;
+import net.jackwhite20.slug.ast.ExpressionNode;
+import net.jackwhite20.slug.ast.ForNode;
+import net.jackwhite20.slug.ast.FunctionCallNode;
+import net.jackwhite20.slug.ast.FunctionNode;
+import net.jackwhite20.slug.ast.IfNode;
+import net.jackwhite20.slug.ast.MainNode;
+import net.jackwhite20.slug.ast.Node;
+import net.jackwhite20.slug.ast.StringNode;
+import net.jackwhite20.slug.ast.UnaryNode;
+import net.jackwhite20.slug.ast.VariableAssignNode;
+import net.jackwhite20.slug.ast.VariableDeclarationAssignNode;
+import net.jackwhite20.slug.ast.WhileNode;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.ListIterator;
+
+/**
+ * Walks the AST bottom up and lets the pass replace every statement and expression. Children are rewritten
+ * before their parent, so a pass sees the already rewritten operands of an expression.
+ *
+ * @author Philip 'JackWhite20' <silencephil@gmail.com>
+ */
+public abstract class TreeRewriter implements OptimizationPass {
+
+    @Override
+    public void optimize(MainNode mainNode) {
+        rewriteStatements(mainNode.getGlobalVariables());
+
+        for (Node function : mainNode.getFunctions()) {
+            rewriteStatements(((FunctionNode) function).getChildren().getStatements());
+        }
+    }
+
+    /**
+     * Rewrites a statement of a block.
+     *
+     * @param node The statement with its rewritten children.
+     * @return The replacement or null to remove the statement.
+     */
+    protected Node rewriteStatement(Node node) {
+        return node;
+    }
+
+    /**
+     * Rewrites an expression.
+     *
+     * @param node The expression with its rewritten operands.
+     * @return The replacement.
+     */
+    protected Node rewriteExpression(Node node) {
+        return node;
+    }
+
+    private void rewriteStatements(List<Node> statements) {
+        ListIterator<Node> iterator = statements.listIterator();
+        while (iterator.hasNext()) {
+            Node statement = iterator.next();
+
+            rewriteChildren(statement);
+
+            Node replacement = rewriteStatement(statement);
+            if (replacement == null) {
+                iterator.remove();
+            } else if (replacement != statement) {
+                iterator.set(replacement);
+            }
+        }
+    }
+
+    private void rewriteChildren(Node node) {
+        if (node instanceof VariableDeclarationAssignNode) {
+            expression(((VariableDeclarationAssignNode) node).getRight());
+        } else if (node instanceof VariableAssignNode) {
+            expression(((VariableAssignNode) node).getRight());
+        } else if (node instanceof FunctionCallNode) {
+            expression(node);
+        } else if (node instanceof IfNode) {
+            IfNode ifNode = (IfNode) node;
+
+            expression(ifNode.getExpression());
+            rewriteChildren(ifNode.getTrueNodes());
+            rewriteChildren(ifNode.getFalseNodes());
+        } else if (node instanceof WhileNode) {
+            expression(((WhileNode) node).getExpression());
+            rewriteStatements(((WhileNode) node).getChildren());
+        } else if (node instanceof ForNode) {
+            ForNode forNode = (ForNode) node;
+
+            // The declaration and the expression are part of the loop and can't be removed
+            rewriteChildren(forNode.getDeclaration());
+            expression(forNode.getCondition());
+            rewriteChildren(forNode.getBlock());
+            rewriteChildren(forNode.getExpression());
+        } else if (node instanceof BlockNode) {
+            rewriteStatements(((BlockNode) node).getStatements());
+        }
+    }
+
+    /**
+     * Rewrites an expression bottom up. Generated expressions can be nested far deeper than the Java stack
+     * allows, so all nodes are collected parents first with an explicit stack and rewritten in reverse order.
+     */
+    private void expression(Node expression) {
+        if (expression == null) {
+            return;
+        }
+
+        Deque<Node> pending = new ArrayDeque<>();
+        Deque<Node> order = new ArrayDeque<>();
+        pending.push(expression);
+
+        while (!pending.isEmpty()) {
+            Node node = pending.pop();
+            order.push(node);
+
+            // Children are collected before anything is rewritten, so replaced ones are still visited
+            if (node instanceof ExpressionNode) {
+                push(pending, ((ExpressionNode) node).getLeft());
+                push(pending, ((ExpressionNode) node).getRight());
+            } else if (node instanceof UnaryNode) {
+                push(pending, ((UnaryNode) node).getExpression());
+            } else if (node instanceof FunctionCallNode) {
+                for (Node parameter : ((FunctionCallNode) node).getParameter()) {
+                    push(pending, parameter);
+                }
+            } else if (node instanceof StringNode && ((StringNode) node).getParts() != null) {
+                for (Node part : ((StringNode) node).getParts()) {
+                    push(pending, part);
+                }
+            }
+        }
+
+        while (!order.isEmpty()) {
+            Node node = order.pop();
+            Node replacement = rewriteExpression(node);
+
+            // Expressions are always held by a parent which replaces them, call statements are rewritten as statement
+            if (replacement != node && node.getParentNode() != null) {
+                node.replace(replacement);
+            }
+        }
+    }
+
+    private static void push(Deque<Node> pending, Node node) {
+        if (node != null) {
+            pending.push(node);
+        }
+    }
+}
@@ -0,0 +1,297 @@
+/*
+ * Copyright 2018 "JackWhite20"
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.jackwhite20.slug.core.output;
+
+import net.jackwhite20.slug.exception.SlugRuntimeException;
+import net.jackwhite20.slug.output.OutputSink;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hands the lines to a writer thread through a bounded ring buffer, so the script doesn't wait for the I/O of
+ * another sink. A script which writes faster than the sink can keep up waits until the buffer has room again.
+ * <p>
+ * The writer thread writes the lines in batches and flushes the other sink when it has nothing to write, or
+ * at most once per flush interval if one is set.
+ *
+ * @author Philip 'JackWhite20' <silencephil@gmail.com>
+ */
+public final class AsyncOutputSink implements OutputSink {
+
+    private static final int DEFAULT_CAPACITY = 8192;
+
+    private static final Object CLOSE = new Object();
+
+    private final OutputSink sink;
+    private final BlockingQueue<Object> queue;
+    private final long flushIntervalNanos;
+    private final Thread writer;
+
+    private volatile boolean closed;
+    private volatile Throwable failure;
+
+    // Set when the writer thread stops, nothing takes elements out of the ring buffer after that
+    private volatile boolean stopped;
+
+    /**
+     * Creates a sink which flushes the other sink whenever it is idle.
+     *
+     * @param sink The sink the writer thread writes to.
+     */
+    public AsyncOutputSink(OutputSink sink) {
+        this(sink, DEFAULT_CAPACITY, 0, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Creates a sink.
+     *
+     * @param sink The sink the writer thread writes to.
+     * @param capacity The amount of lines the ring buffer can hold.
+     * @param flushInterval The minimum time between two flushes of the other sink or 0 to flush it whenever
+     *                      there is nothing to write.
+     * @param unit The unit of the flush interval.
+     */
+    public AsyncOutputSink(OutputSink sink, int capacity, long flushInterval, TimeUnit unit) {
+        this.sink = sink;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.flushIntervalNanos = unit.toNanos(flushInterval);
+
+        this.writer = new Thread(this::drain, "Slug Output Writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    @Override
+    public void writeLine(String line) {
+        checkState();
+
+        if (!put(line)) {
+            checkStopped();
+        }
+    }
+
+    /**
+     * Waits until all lines written so far are written and flushed by the writer thread.
+     */
+    @Override
+    public void flush() {
+        checkState();
+
+        FlushRequest request = new FlushRequest();
+        if (!put(request)) {
+            checkStopped();
+        }
+
+        // The writer thread may have stopped and released the waiting requests before this one was added
+        if (stopped) {
+            releaseFlushRequests();
+        }
+
+        try {
+            request.done.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SlugRuntimeException("interrupted while flushing the output");
+        }
+
+        checkFailure();
+    }
+
+    /**
+     * Writes the remaining lines, closes the other sink and stops the writer thread.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+
+        closed = true;
+        put(CLOSE);
+
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        checkFailure();
+    }
+
+    /**
+     * Adds the element to the ring buffer and waits for room if it is full.
+     *
+     * @return False if the writer thread stopped, so nobody would take the element anymore.
+     */
+    private boolean put(Object element) {
+        try {
+            // Don't wait for room forever if the writer thread stops in the meantime
+            while (!queue.offer(element, 10, TimeUnit.MILLISECONDS)) {
+                if (stopped) {
+                    return false;
+                }
+            }
+
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SlugRuntimeException("interrupted while writing the output");
+        }
+    }
+
+    private void checkState() {
+        if (closed) {
+            throw new SlugRuntimeException("output sink is closed");
+        }
+
+        checkFailure();
+    }
+
+    private void checkStopped() {
+        checkFailure();
+
+        throw new SlugRuntimeException("output sink is closed");
+    }
+
+    private void checkFailure() {
+        Throwable failure = this.failure;
+        if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        } else if (failure instanceof Error) {
+            throw (Error) failure;
+        } else if (failure != null) {
+            throw new SlugRuntimeException("could not write the output: " + failure);
+        }
+    }
+
+    private void drain() {
+        List<Object> batch = new ArrayList<>();
+        boolean unflushed = false;
+        long lastFlush = System.nanoTime();
+
+        try {
+            while (true) {
+                Object first;
+                if (unflushed && flushIntervalNanos > 0) {
+                    // Wake up to flush the lines which are still buffered when the interval elapsed
+                    first = queue.poll(lastFlush + flushIntervalNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+                } else {
+                    first = queue.take();
+                }
+
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch);
+
+                    for (Object element : batch) {
+                        if (element == CLOSE) {
+                            run(sink::close);
+                            return;
+                        } else if (element instanceof FlushRequest) {
+                            run(sink::flush);
+                            unflushed = false;
+                            lastFlush = System.nanoTime();
+
+                            ((FlushRequest) element).done.countDown();
+                        } else {
+                            write((String) element);
+                            unflushed = true;
+                        }
+                    }
+
+                    batch.clear();
+                }
+
+                if (unflushed && queue.isEmpty() && System.nanoTime() - lastFlush >= flushIntervalNanos) {
+                    run(sink::flush);
+                    unflushed = false;
+                    lastFlush = System.nanoTime();
+                }
+            }
+        } catch (InterruptedException ignore) {
+            // Nothing interrupts the writer thread, stop if something does anyway
+        } catch (Throwable t) {
+            fail(t);
+        } finally {
+            stopped = true;
+
+            // Nobody would release the flushes which wait behind the close or the failure otherwise
+            for (Object element : batch) {
+                if (element instanceof FlushRequest) {
+                    ((FlushRequest) element).done.countDown();
+                }
+            }
+            releaseFlushRequests();
+        }
+    }
+
+    /**
+     * Releases the flushes which wait in the ring buffer after the writer thread stopped, the lines are dropped.
+     */
+    private void releaseFlushRequests() {
+        Object element;
+        while ((element = queue.poll()) != null) {
+            if (element instanceof FlushRequest) {
+                ((FlushRequest) element).done.countDown();
+            }
+        }
+    }
+
+    private void write(String line) {
+        if (failure != null) {
+            return;
+        }
+
+        try {
+            sink.writeLine(line);
+        } catch (Throwable t) {
+            fail(t);
+        }
+    }
+
+    /**
+     * Runs an operation of the other sink. After the first failure everything is dropped, so the script
+     * doesn't block on a full buffer, and the failure is thrown by the next call of the script.
+     */
+    private void run(Runnable operation) {
+        if (failure != null) {
+            return;
+        }
+
+        try {
+            operation.run();
+        } catch (Throwable t) {
+            fail(t);
+        }
+    }
+
+    private void fail(Throwable t) {
+        if (failure == null) {
+            failure = t;
+        }
+    }
+
+    private static final class FlushRequest {
+
+        private final CountDownLatch done = new CountDownLatch(1);
+    }
+}
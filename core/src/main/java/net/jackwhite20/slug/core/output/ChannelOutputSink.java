@@ -0,0 +1,181 @@
+/*
+ * Copyright 2018 "JackWhite20"
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.jackwhite20.slug.core.output;
+
+import net.jackwhite20.slug.exception.SlugRuntimeException;
+import net.jackwhite20.slug.output.OutputSink;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Encodes the lines into a buffer which is written to a channel when it is full, when the flush
+ * interval elapsed since the last write to the channel or when the sink is flushed.
+ * <p>
+ * The flush interval is only checked when a line is written, wrap the sink in an {@link AsyncOutputSink} to
+ * flush idle output without waiting for the next line.
+ *
+ * @author Philip 'JackWhite20' <silencephil@gmail.com>
+ */
+public final class ChannelOutputSink implements OutputSink {
+
+    private static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    private static final CharBuffer LINE_SEPARATOR = CharBuffer.wrap(System.lineSeparator()).asReadOnlyBuffer();
+
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer;
+    private final long flushIntervalNanos;
+    private final CharsetEncoder encoder;
+
+    // A sink may be shared by the contexts of multiple threads
+    private final ReentrantLock lock = new ReentrantLock();
+    private long lastFlush = System.nanoTime();
+
+    /**
+     * Creates a UTF-8 sink with a 64 KiB buffer which is only written when it is full or flushed.
+     *
+     * @param channel The channel.
+     */
+    public ChannelOutputSink(WritableByteChannel channel) {
+        this(channel, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Creates a sink with a 64 KiB buffer which is only written when it is full or flushed.
+     *
+     * @param channel The channel.
+     * @param charset The charset of the output.
+     */
+    public ChannelOutputSink(WritableByteChannel channel, Charset charset) {
+        this(channel, charset, DEFAULT_BUFFER_SIZE, 0, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Creates a sink.
+     *
+     * @param channel The channel.
+     * @param charset The charset of the output, characters it can't encode are replaced.
+     * @param bufferSize The size of the buffer in bytes.
+     * @param flushInterval The time after which buffered lines are written with the next line or 0 to only
+     *                      write them when the buffer is full.
+     * @param unit The unit of the flush interval.
+     */
+    public ChannelOutputSink(WritableByteChannel channel, Charset charset, int bufferSize, long flushInterval, TimeUnit unit) {
+        this.channel = channel;
+        this.encoder = charset.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.buffer = ByteBuffer.allocateDirect(Math.max(bufferSize, 16));
+        this.flushIntervalNanos = unit.toNanos(flushInterval);
+    }
+
+    /**
+     * Opens a UTF-8 sink which replaces the content of a file.
+     *
+     * @param path The path of the file.
+     * @return The sink.
+     * @throws IOException If the file can't be opened.
+     */
+    public static ChannelOutputSink open(Path path) throws IOException {
+        return new ChannelOutputSink(FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING));
+    }
+
+    @Override
+    public void writeLine(String line) {
+        lock.lock();
+        try {
+            encode(CharBuffer.wrap(line));
+            encode(LINE_SEPARATOR.duplicate());
+
+            if (flushIntervalNanos > 0 && System.nanoTime() - lastFlush >= flushIntervalNanos) {
+                writeBuffer();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void flush() {
+        lock.lock();
+        try {
+            writeBuffer();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            writeBuffer();
+            channel.close();
+        } catch (IOException e) {
+            throw new SlugRuntimeException("could not close the output: " + e.getMessage());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void encode(CharBuffer chars) {
+        encoder.reset();
+
+        while (true) {
+            CoderResult result = encoder.encode(chars, buffer, true);
+            if (result.isOverflow()) {
+                writeBuffer();
+                continue;
+            }
+
+            if (encoder.flush(buffer).isOverflow()) {
+                writeBuffer();
+                encoder.flush(buffer);
+            }
+
+            return;
+        }
+    }
+
+    private void writeBuffer() {
+        lastFlush = System.nanoTime();
+
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            throw new SlugRuntimeException("could not write the output: " + e.getMessage());
+        } finally {
+            buffer.clear();
+        }
+    }
+}
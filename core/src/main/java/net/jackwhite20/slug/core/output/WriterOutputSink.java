@@ -0,0 +1,67 @@
+/*
+ * Copyright 2018 "JackWhite20"
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.jackwhite20.slug.core.output;
+
+import net.jackwhite20.slug.exception.SlugRuntimeException;
+import net.jackwhite20.slug.output.OutputSink;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes the lines to a writer, like the writer of a JSR-223 script context.
+ *
+ * @author Philip 'JackWhite20' <silencephil@gmail.com>
+ */
+public final class WriterOutputSink implements OutputSink {
+
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    private final Writer writer;
+
+    public WriterOutputSink(Writer writer) {
+        this.writer = writer;
+    }
+
+    @Override
+    public void writeLine(String line) {
+        try {
+            writer.write(line);
+            writer.write(LINE_SEPARATOR);
+        } catch (IOException e) {
+            throw new SlugRuntimeException("could not write the output: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void flush() {
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            throw new SlugRuntimeException("could not flush the output: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            writer.close();
+        } catch (IOException e) {
+            throw new SlugRuntimeException("could not close the output: " + e.getMessage());
+        }
+    }
+}
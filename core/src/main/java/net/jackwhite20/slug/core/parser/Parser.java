@@ -18,7 +18,12 @@ package net.jackwhite20.slug.core.parser;
 
 import net.jackwhite20.slug.core.interpreter.FunctionRegistry;
 import net.jackwhite20.slug.core.interpreter.InternalFunctionRegistry;
-import net.jackwhite20.slug.core.lexer.Lexer;
+import net.jackwhite20.slug.core.lexer.TableLexer;
+import net.jackwhite20.slug.core.lexer.TokenSource;
+import net.jackwhite20.slug.core.metrics.Phase;
+import net.jackwhite20.slug.core.metrics.SlugMetrics;
+import net.jackwhite20.slug.core.metrics.TimedTokenSource;
+import net.jackwhite20.slug.core.optimizer.Optimizer;
 import net.jackwhite20.slug.exception.SlugRuntimeException;
 import net.jackwhite20.slug.lexer.Token;
 import net.jackwhite20.slug.lexer.TokenType;
@@ -51,13 +56,71 @@ import java.util.List;
  */
 public class Parser {
 
-    private Lexer lexer;
+    private static final int COMPARISON = 1;
+    private static final int ADDITIVE = 2;
+    private static final int MULTIPLICATIVE = 3;
+    private static final int UNARY = 4;
+
+    // Binary operator precedence by token type, zero ends an expression
+    private static final int[] PRECEDENCE = new int[TokenType.values().length];
+
+    // Markers on the operator stack, compared by identity
+    private static final Token PARENTHESIS = new Token(TokenType.LEFT_PARAN, "(");
+    private static final Token PREFIX_PLUS = new Token(TokenType.PLUS, "+");
+    private static final Token PREFIX_MINUS = new Token(TokenType.MINUS, "-");
+
+    static {
+        PRECEDENCE[TokenType.EQUAL.ordinal()] = COMPARISON;
+        PRECEDENCE[TokenType.NOT_EQUAL.ordinal()] = COMPARISON;
+        PRECEDENCE[TokenType.GREATER.ordinal()] = COMPARISON;
+        PRECEDENCE[TokenType.LESS.ordinal()] = COMPARISON;
+        PRECEDENCE[TokenType.GREATER_EQUAL.ordinal()] = COMPARISON;
+        PRECEDENCE[TokenType.LESS_EQUAL.ordinal()] = COMPARISON;
+        PRECEDENCE[TokenType.PLUS.ordinal()] = ADDITIVE;
+        PRECEDENCE[TokenType.MINUS.ordinal()] = ADDITIVE;
+        PRECEDENCE[TokenType.MULTIPLY.ordinal()] = MULTIPLICATIVE;
+        PRECEDENCE[TokenType.DIVIDE.ordinal()] = MULTIPLICATIVE;
+    }
+
+    private TokenSource lexer;
     private Token currentToken;
     private BlockNode currentBlock = new MainBlockNode();
+    private final Optimizer optimizer;
+    private final FunctionRegistry functionRegistry = new FunctionRegistry();
+    private final InternalFunctionRegistry internalFunctions;
+    private final SlugMetrics metrics;
+
+    // Only set if the metrics are enabled
+    private TimedTokenSource timedLexer;
+    private long startNanos;
+
+    public Parser(TokenSource lexer) {
+        this(lexer, Optimizer.defaults());
+    }
+
+    public Parser(TokenSource lexer, Optimizer optimizer) {
+        this(lexer, optimizer, new InternalFunctionRegistry());
+    }
+
+    public Parser(TokenSource lexer, Optimizer optimizer, InternalFunctionRegistry internalFunctions) {
+        this(lexer, optimizer, internalFunctions, SlugMetrics.NOOP);
+    }
+
+    public Parser(TokenSource lexer, Optimizer optimizer, InternalFunctionRegistry internalFunctions, SlugMetrics metrics) {
+        this.optimizer = optimizer;
+        this.internalFunctions = internalFunctions;
+        this.metrics = metrics;
+
+        if (metrics.isEnabled()) {
+            // The first token is already read here, so the parse time starts here too
+            this.startNanos = System.nanoTime();
+            this.timedLexer = new TimedTokenSource(lexer);
+            this.lexer = timedLexer;
+        } else {
+            this.lexer = lexer;
+        }
 
-    public Parser(Lexer lexer) {
-        this.lexer = lexer;
-        this.currentToken = lexer.nextToken();
+        this.currentToken = this.lexer.nextToken();
     }
 
     private void eat(TokenType tokenType) {
@@ -106,7 +169,7 @@ public class Parser {
         FunctionNode functionNode = new FunctionNode(functionName, blockNode, parameters);
 
         // Register the global function
-        FunctionRegistry.register(functionNode);
+        functionRegistry.register(functionNode);
 
         return functionNode;
     }
@@ -134,7 +197,7 @@ public class Parser {
 
         List<Node> parameter = new ArrayList<>();
         while (currentToken.getTokenType() != TokenType.RIGHT_PARAN) {
-            parameter.add(factor());
+            parameter.add(expression());
 
             // Parameters should be separated with a comma
             if (currentToken.getTokenType() == TokenType.COMMA) {
@@ -144,14 +207,8 @@ public class Parser {
 
         eat(TokenType.RIGHT_PARAN);
 
-        FunctionNode functionNodeToCall = FunctionRegistry.lookup(name);
-
-        // Do not continue if the function to call does not exists and if it is not an internal function
-        if (functionNodeToCall == null && !InternalFunctionRegistry.isInternal(name)) {
-            throw new SlugRuntimeException("function " + name + " does not exists");
-        }
-
-        return new FunctionCallNode(name, functionNodeToCall, parameter);
+        // The called function is bound by the resolver to allow calls to functions declared later
+        return new FunctionCallNode(name, parameter);
     }
 
     private Node parseDeclareOrAndAssignStatement() {
@@ -234,7 +291,7 @@ public class Parser {
 
         Node declaration = parseDeclareOrAndAssignStatement();
         eat(TokenType.SEMICOLON);
-        Node condition = term();
+        Node condition = expression();
         if (!(condition instanceof BooleanNode)) {
             throw new SlugRuntimeException("for condition needs to be a boolean node");
         }
@@ -297,28 +354,156 @@ public class Parser {
         return node;
     }
 
-    private Node factor() {
+    /**
+     * Splits a string with inline variables ($name) and inline expressions (${expression}) once into its
+     * literal parts and the parts which are evaluated at runtime.
+     */
+    private StringNode parseString(String value) {
+        StringNode stringNode = new StringNode(value);
+
+        int inline = value.indexOf('$');
+        if (inline == -1) {
+            return stringNode;
+        }
+
+        List<Node> parts = new ArrayList<>();
+        int start = 0;
+        while (inline != -1) {
+            if (inline > start) {
+                parts.add(new StringNode(value.substring(start, inline)));
+            }
+
+            int end;
+            if (inline + 1 < value.length() && value.charAt(inline + 1) == '{') {
+                end = closingBrace(value, inline + 1);
+
+                Parser inlineParser = new Parser(new TableLexer(value.substring(inline + 2, end)), optimizer, internalFunctions);
+                parts.add(inlineParser.parseInlineExpression());
+
+                // Skip the closing brace
+                end++;
+            } else {
+                // The name of an inline variable ends with a whitespace
+                end = inline + 1;
+                while (end < value.length() && !Character.isWhitespace(value.charAt(end))) {
+                    end++;
+                }
+
+                // The resolver replaces unknown variables with their old representation
+                parts.add(new VariableUsageNode(value.substring(inline + 1, end)));
+            }
+
+            start = end;
+            inline = value.indexOf('$', end);
+        }
+
+        if (start < value.length()) {
+            parts.add(new StringNode(value.substring(start)));
+        }
+
+        stringNode.setParts(parts);
+
+        return stringNode;
+    }
+
+    private static int closingBrace(String value, int openBrace) {
+        int depth = 0;
+        for (int i = openBrace; i < value.length(); i++) {
+            if (value.charAt(i) == '{') {
+                depth++;
+            } else if (value.charAt(i) == '}' && --depth == 0) {
+                return i;
+            }
+        }
+
+        throw new SlugRuntimeException("inline expression in string \"" + value + "\" needs to end with '}'");
+    }
+
+    private Node parseInlineExpression() {
+        Node node = expression();
+
+        if (currentToken.getTokenType() != TokenType.NONE) {
+            throw new SlugRuntimeException("unexpected " + currentToken.getValue() + " in inline expression");
+        }
+
+        return node;
+    }
+
+    /**
+     * Parses an expression without recursion: operands and operators are kept on explicit stacks and an operator
+     * is applied as soon as an operator with a lower or the same precedence follows, so deeply nested expressions
+     * can't overflow the Java stack. Only function call arguments and inline string expressions recurse.
+     */
+    private Node expression() {
+        // Operators, prefix operators and open parentheses waiting for their operands
+        List<Token> operators = new ArrayList<>();
+        List<Node> operands = new ArrayList<>();
+        int openParentheses = 0;
+
+        while (true) {
+            // Prefix operators and parentheses before the next operand are pushed as markers
+            TokenType type = currentToken.getTokenType();
+            while (type == TokenType.PLUS || type == TokenType.MINUS || type == TokenType.LEFT_PARAN) {
+                if (type == TokenType.LEFT_PARAN) {
+                    operators.add(PARENTHESIS);
+                    openParentheses++;
+                } else {
+                    operators.add(type == TokenType.PLUS ? PREFIX_PLUS : PREFIX_MINUS);
+                }
+
+                eat(type);
+                type = currentToken.getTokenType();
+            }
+
+            operands.add(primary());
+
+            // Close all parentheses directly after the operand, a parenthesis without an open one ends the expression
+            while (openParentheses > 0 && currentToken.getTokenType() == TokenType.RIGHT_PARAN) {
+                eat(TokenType.RIGHT_PARAN);
+                openParentheses--;
+
+                while (operators.get(operators.size() - 1) != PARENTHESIS) {
+                    reduce(operators, operands);
+                }
+                operators.remove(operators.size() - 1);
+            }
+
+            int precedence = PRECEDENCE[currentToken.getTokenType().ordinal()];
+            if (precedence == 0) {
+                break;
+            }
+
+            // All operators are left associative, so operators with the same precedence are applied first
+            while (!operators.isEmpty() && precedenceOf(operators.get(operators.size() - 1)) >= precedence) {
+                reduce(operators, operands);
+            }
+
+            operators.add(currentToken);
+            eat(currentToken.getTokenType());
+        }
+
+        if (openParentheses > 0) {
+            throw new SlugRuntimeException("expected " + openParentheses + " closing parentheses in expression");
+        }
+
+        while (!operators.isEmpty()) {
+            reduce(operators, operands);
+        }
+
+        return operands.get(0);
+    }
+
+    private Node primary() {
         Token tmp = currentToken;
-        if (tmp.getTokenType() == TokenType.PLUS) {
-            eat(TokenType.PLUS);
-            return new UnaryNode(tmp, factor());
-        } else if (tmp.getTokenType() == TokenType.MINUS) {
-            eat(TokenType.MINUS);
-            return new UnaryNode(tmp, factor());
-        } else if (tmp.getTokenType() == TokenType.INTEGER) {
+        if (tmp.getTokenType() == TokenType.INTEGER) {
             eat(TokenType.INTEGER);
-            return new NumberNode(tmp.getValue());
+            return new NumberNode(tmp.intValue());
         } else if (tmp.getTokenType() == TokenType.STRING) {
             eat(TokenType.STRING);
-            return new StringNode(tmp.getValue());
+            return parseString(tmp.getValue());
         } else if (tmp.getTokenType() == TokenType.BOOL) {
             eat(TokenType.BOOL);
             return new BoolNode(tmp.getValue());
-        } else if (tmp.getTokenType() == TokenType.LEFT_PARAN) {
-            eat(TokenType.LEFT_PARAN);
-            Node node = expression();
-            eat(TokenType.RIGHT_PARAN);
-            return node;
         } else if (tmp.getTokenType() == TokenType.CALL) {
             return parseFunctionCall();
         } else {
@@ -326,59 +511,36 @@ public class Parser {
         }
     }
 
-    private Node term() {
-        Node res = factor();
-
-        while (currentToken.getTokenType() == TokenType.MULTIPLY ||
-                currentToken.getTokenType() == TokenType.DIVIDE ||
-                currentToken.getTokenType() == TokenType.GREATER ||
-                currentToken.getTokenType() == TokenType.LESS ||
-                currentToken.getTokenType() == TokenType.GREATER_EQUAL ||
-                currentToken.getTokenType() == TokenType.LESS_EQUAL ||
-                currentToken.getTokenType() == TokenType.NOT_EQUAL ||
-                currentToken.getTokenType() == TokenType.EQUAL) {
-            Token tmp = currentToken;
-            if (tmp.getTokenType() == TokenType.MULTIPLY) {
-                eat(TokenType.MULTIPLY);
-            } else if (tmp.getTokenType() == TokenType.DIVIDE) {
-                eat(TokenType.DIVIDE);
-            } else {
-                // Handle boolean operators (>=, >, <, etc.)
-                eat(tmp.getTokenType());
-
-                // We got a boolean operation here
-                res = new BooleanNode(res, tmp.getTokenType(), factor());
-                continue;
-            }
+    private static void reduce(List<Token> operators, List<Node> operands) {
+        Token operator = operators.remove(operators.size() - 1);
+        Node right = operands.remove(operands.size() - 1);
 
-            res = new BinaryNode(res, tmp.getTokenType(), factor());
+        if (operator == PREFIX_PLUS || operator == PREFIX_MINUS) {
+            operands.add(new UnaryNode(operator, right));
+            return;
         }
 
-        return res;
+        Node left = operands.remove(operands.size() - 1);
+        if (PRECEDENCE[operator.getTokenType().ordinal()] == COMPARISON) {
+            operands.add(new BooleanNode(left, operator.getTokenType(), right));
+        } else {
+            operands.add(new BinaryNode(left, operator.getTokenType(), right));
+        }
     }
 
-    private Node expression() {
-        Node result = term();
-
-        while (currentToken.getTokenType() == TokenType.PLUS || currentToken.getTokenType() == TokenType.MINUS) {
-            Token tmp = currentToken;
-            if (tmp.getTokenType() == TokenType.PLUS) {
-                eat(TokenType.PLUS);
-            } else if (tmp.getTokenType() == TokenType.MINUS) {
-                eat(TokenType.MINUS);
-            } else if (tmp.getTokenType() == TokenType.MULTIPLY) {
-                eat(TokenType.MULTIPLY);
-            } else if (tmp.getTokenType() == TokenType.DIVIDE) {
-                eat(TokenType.DIVIDE);
-            }
+    private static int precedenceOf(Token operator) {
+        if (operator == PARENTHESIS) {
+            return 0;
+        }
 
-            result = new BinaryNode(result, tmp.getTokenType(), term());
+        if (operator == PREFIX_PLUS || operator == PREFIX_MINUS) {
+            return UNARY;
         }
 
-        return result;
+        return PRECEDENCE[operator.getTokenType().ordinal()];
     }
 
-    private Node parseSlugMainFile() {
+    private MainNode parseSlugMainFile() {
         // A SLUG file can start with possible global variables
         List<Node> globalVariables = new ArrayList<>();
         while (Token.isVariable(currentToken.getTokenType())) {
@@ -401,6 +563,36 @@ public class Parser {
      * @return The interpretable AST.
      */
     public Node parse() {
-        return parseSlugMainFile();
+        MainNode mainNode = parseSlugMainFile();
+
+        // Assign the frame slots to all variables
+        new Resolver(functionRegistry, internalFunctions).resolve(mainNode);
+
+        if (!metrics.isEnabled()) {
+            optimizer.optimize(mainNode);
+            new TailCallMarker().mark(mainNode);
+
+            return mainNode;
+        }
+
+        long optimizeStart = System.nanoTime();
+        optimizer.optimize(mainNode);
+        new TailCallMarker().mark(mainNode);
+        long optimizeEnd = System.nanoTime();
+
+        metrics.recordPhase(Phase.LEX, timedLexer.getNanos());
+        metrics.recordPhase(Phase.PARSE, optimizeStart - startNanos - timedLexer.getNanos());
+        metrics.recordPhase(Phase.OPTIMIZE, optimizeEnd - optimizeStart);
+
+        return mainNode;
+    }
+
+    /**
+     * Gets the internal functions which calls are resolved against.
+     *
+     * @return The internal functions.
+     */
+    public InternalFunctionRegistry getInternalFunctions() {
+        return internalFunctions;
     }
 }
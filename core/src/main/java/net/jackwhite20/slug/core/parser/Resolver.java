@@ -0,0 +1,331 @@
+/*
+ * Copyright 2018 "JackWhite20"
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.jackwhite20.slug.core.parser;
+
+import net.jackwhite20.slug.ast.BlockNode;
+import net.jackwhite20.slug.ast.ExpressionNode;
+import net.jackwhite20.slug.ast.ForNode;
+import net.jackwhite20.slug.ast.FunctionCallNode;
+import net.jackwhite20.slug.ast.FunctionNode;
+import net.jackwhite20.slug.ast.IfNode;
+import net.jackwhite20.slug.ast.MainNode;
+import net.jackwhite20.slug.ast.Node;
+import net.jackwhite20.slug.ast.StringNode;
+import net.jackwhite20.slug.ast.UnaryNode;
+import net.jackwhite20.slug.ast.VariableAssignNode;
+import net.jackwhite20.slug.ast.VariableDeclarationAssignNode;
+import net.jackwhite20.slug.ast.VariableDeclarationNode;
+import net.jackwhite20.slug.ast.VariableUsageNode;
+import net.jackwhite20.slug.ast.WhileNode;
+import net.jackwhite20.slug.core.interpreter.FunctionRegistry;
+import net.jackwhite20.slug.core.interpreter.InternalFunctionRegistry;
+import net.jackwhite20.slug.exception.SlugRuntimeException;
+import net.jackwhite20.slug.exception.VariableNotFoundException;
+import net.jackwhite20.slug.lexer.TokenType;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Assigns every variable a slot in the frame of its function or in the global frame and binds every function
+ * call to the called function. Calls are bound after all functions are parsed, so functions can call
+ * themselves and functions which are declared after them.
+ * <p>
+ * Scopes are lexical: a function sees its parameters, the variables of its enclosing blocks and the global
+ * variables. Slots of a block are reused by the following sibling blocks after it has been left.
+ *
+ * @author Philip 'JackWhite20' <silencephil@gmail.com>
+ */
+public class Resolver {
+
+    private final FunctionRegistry functionRegistry;
+    private final InternalFunctionRegistry internalFunctions;
+    private final Map<String, Variable> globals = new HashMap<>();
+    private final Deque<Map<String, Variable>> scopes = new ArrayDeque<>();
+    private final Deque<Integer> scopeSlots = new ArrayDeque<>();
+    private int nextSlot;
+    private int frameSize;
+
+    public Resolver(FunctionRegistry functionRegistry, InternalFunctionRegistry internalFunctions) {
+        this.functionRegistry = functionRegistry;
+        this.internalFunctions = internalFunctions;
+    }
+
+    public void resolve(MainNode mainNode) {
+        // Global variables are declared without a scope
+        for (Node globalVariable : mainNode.getGlobalVariables()) {
+            resolveStatement(globalVariable);
+        }
+
+        mainNode.setGlobalCount(globals.size());
+
+        for (Node function : mainNode.getFunctions()) {
+            resolveFunction((FunctionNode) function);
+        }
+    }
+
+    private void resolveFunction(FunctionNode functionNode) {
+        nextSlot = 0;
+        frameSize = 0;
+
+        pushScope();
+
+        // Parameters are the first slots of the frame so the caller can fill them directly
+        for (Node parameter : functionNode.getParameter()) {
+            declare((VariableDeclarationNode) parameter);
+        }
+
+        resolveBlock(functionNode.getChildren());
+
+        popScope();
+
+        functionNode.setFrameSize(frameSize);
+    }
+
+    private void resolveBlock(BlockNode blockNode) {
+        pushScope();
+
+        for (Node statement : blockNode.getStatements()) {
+            resolveStatement(statement);
+        }
+
+        popScope();
+    }
+
+    private void resolveStatement(Node node) {
+        if (node instanceof VariableDeclarationNode) {
+            declare((VariableDeclarationNode) node);
+        } else if (node instanceof VariableDeclarationAssignNode) {
+            VariableDeclarationAssignNode declaration = (VariableDeclarationAssignNode) node;
+
+            // Resolve the value first, the variable is not visible in its own initializer
+            resolveExpression(declaration.getRight());
+
+            Variable variable = declare(declaration.getVariableName(), declaration.getVariableType());
+            declaration.setSlot(variable.slot);
+            declaration.setGlobal(variable.global);
+        } else if (node instanceof VariableAssignNode) {
+            VariableAssignNode assign = (VariableAssignNode) node;
+
+            resolveExpression(assign.getRight());
+
+            Variable variable = resolve(assign.getVariableName());
+            assign.setSlot(variable.slot);
+            assign.setGlobal(variable.global);
+            assign.setVariableType(variable.type);
+        } else if (node instanceof FunctionCallNode) {
+            resolveExpression(node);
+        } else if (node instanceof IfNode) {
+            IfNode ifNode = (IfNode) node;
+
+            resolveExpression(ifNode.getExpression());
+            resolveBlock(ifNode.getTrueNodes());
+            if (ifNode.getFalseNodes() != null) {
+                resolveBlock(ifNode.getFalseNodes());
+            }
+        } else if (node instanceof WhileNode) {
+            WhileNode whileNode = (WhileNode) node;
+
+            resolveExpression(whileNode.getExpression());
+
+            pushScope();
+            for (Node children : whileNode.getChildren()) {
+                resolveStatement(children);
+            }
+            popScope();
+        } else if (node instanceof ForNode) {
+            ForNode forNode = (ForNode) node;
+
+            // The declaration is only visible inside of the loop
+            pushScope();
+            resolveStatement(forNode.getDeclaration());
+            resolveExpression(forNode.getCondition());
+            resolveBlock(forNode.getBlock());
+            resolveStatement(forNode.getExpression());
+            popScope();
+        } else if (node instanceof BlockNode) {
+            resolveBlock((BlockNode) node);
+        } else if (node instanceof FunctionNode) {
+            throw new SlugRuntimeException("function " + ((FunctionNode) node).getName() + " needs to be declared at the top level");
+        }
+    }
+
+    /**
+     * Resolves the variables and binds the calls of an expression. Generated expressions can be nested far
+     * deeper than the Java stack allows, so the tree is walked with an explicit stack.
+     */
+    private void resolveExpression(Node expression) {
+        Deque<Node> pending = new ArrayDeque<>();
+        List<FunctionCallNode> calls = null;
+
+        if (expression != null) {
+            pending.push(expression);
+        }
+
+        while (!pending.isEmpty()) {
+            Node node = pending.pop();
+
+            if (node instanceof VariableUsageNode) {
+                VariableUsageNode usage = (VariableUsageNode) node;
+
+                Variable variable = resolve(usage.getVariableName());
+                usage.setSlot(variable.slot);
+                usage.setGlobal(variable.global);
+                usage.setVariableType(variable.type);
+            } else if (node instanceof ExpressionNode) {
+                // Push the right operand first, so the left one is resolved first
+                push(pending, ((ExpressionNode) node).getRight());
+                push(pending, ((ExpressionNode) node).getLeft());
+            } else if (node instanceof UnaryNode) {
+                push(pending, ((UnaryNode) node).getExpression());
+            } else if (node instanceof FunctionCallNode) {
+                List<Node> parameter = ((FunctionCallNode) node).getParameter();
+                for (int i = parameter.size() - 1; i >= 0; i--) {
+                    push(pending, parameter.get(i));
+                }
+
+                // A call is bound after its arguments are resolved, the binding looks at their types
+                if (calls == null) {
+                    calls = new ArrayList<>();
+                }
+                calls.add((FunctionCallNode) node);
+            } else if (node instanceof StringNode) {
+                resolveString((StringNode) node, pending);
+            }
+        }
+
+        if (calls != null) {
+            // Inner calls were found after the calls they are an argument of
+            for (int i = calls.size() - 1; i >= 0; i--) {
+                bind(calls.get(i));
+            }
+        }
+    }
+
+    private void resolveString(StringNode node, Deque<Node> pending) {
+        if (node.getParts() == null) {
+            return;
+        }
+
+        List<Node> parts = new ArrayList<>(node.getParts());
+        for (int i = parts.size() - 1; i >= 0; i--) {
+            Node part = parts.get(i);
+
+            if (part instanceof VariableUsageNode && lookup(((VariableUsageNode) part).getVariableName()) == null) {
+                // Unknown inline variables are printed as null
+                part.replace(new StringNode("null"));
+            } else {
+                pending.push(part);
+            }
+        }
+    }
+
+    private static void push(Deque<Node> pending, Node node) {
+        if (node != null) {
+            pending.push(node);
+        }
+    }
+
+    private void bind(FunctionCallNode call) {
+        FunctionNode functionNode = functionRegistry.lookup(call.getName());
+
+        // Do not continue if the function to call does not exists and if it is not an internal function
+        if (functionNode == null && !internalFunctions.isInternal(call.getName())) {
+            throw new SlugRuntimeException("function " + call.getName() + " does not exists");
+        }
+
+        call.setFunctionNode(functionNode);
+
+        // Calls of internal functions don't need to look them up by their name anymore
+        if (functionNode == null) {
+            call.bindInternalFunction(internalFunctions.lookup(call.getName()));
+        }
+    }
+
+    private void declare(VariableDeclarationNode declaration) {
+        Variable variable = declare(declaration.getVariableName(), declaration.getVariableType());
+
+        declaration.setSlot(variable.slot);
+        declaration.setGlobal(variable.global);
+    }
+
+    private Variable declare(String name, TokenType type) {
+        // Only declare if the variable isn't declared in an upper scope
+        if (lookup(name) != null) {
+            throw new SlugRuntimeException("variable " + name + " already exists");
+        }
+
+        Variable variable;
+        if (scopes.isEmpty()) {
+            variable = new Variable(globals.size(), type, true);
+            globals.put(name, variable);
+        } else {
+            variable = new Variable(nextSlot++, type, false);
+            frameSize = Math.max(frameSize, nextSlot);
+            scopes.peek().put(name, variable);
+        }
+
+        return variable;
+    }
+
+    private Variable resolve(String name) {
+        Variable variable = lookup(name);
+        if (variable == null) {
+            throw new VariableNotFoundException(name);
+        }
+
+        return variable;
+    }
+
+    private Variable lookup(String name) {
+        for (Map<String, Variable> scope : scopes) {
+            Variable variable = scope.get(name);
+            if (variable != null) {
+                return variable;
+            }
+        }
+
+        return globals.get(name);
+    }
+
+    private void pushScope() {
+        scopes.push(new HashMap<>());
+        scopeSlots.push(nextSlot);
+    }
+
+    private void popScope() {
+        scopes.pop();
+        nextSlot = scopeSlots.pop();
+    }
+
+    private static final class Variable {
+
+        private final int slot;
+        private final TokenType type;
+        private final boolean global;
+
+        private Variable(int slot, TokenType type, boolean global) {
+            this.slot = slot;
+            this.type = type;
+            this.global = global;
+        }
+    }
+}
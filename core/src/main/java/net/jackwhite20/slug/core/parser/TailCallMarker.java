@@ -0,0 +1,104 @@
+/*
+ * Copyright 2018 "JackWhite20"
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.jackwhite20.slug.core.parser;
+
+import net.jackwhite20.slug.ast.BlockNode;
+import net.jackwhite20.slug.ast.FunctionCallNode;
+import net.jackwhite20.slug.ast.FunctionNode;
+import net.jackwhite20.slug.ast.IfNode;
+import net.jackwhite20.slug.ast.MainNode;
+import net.jackwhite20.slug.ast.NoOpNode;
+import net.jackwhite20.slug.ast.Node;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Marks the calls of script functions which are the last statement their function executes. Such a call
+ * doesn't need a frame of its own, it replaces the arguments in the frame of the calling function and jumps to
+ * the called function, so tail recursive functions run in constant stack space.
+ * <p>
+ * Calls in loops are never in tail position. The marker runs after the optimizer, which may remove the
+ * statements behind a call.
+ *
+ * @author Philip 'JackWhite20' <silencephil@gmail.com>
+ */
+public class TailCallMarker {
+
+    private final List<TailCall> tailCalls = new ArrayList<>();
+
+    public void mark(MainNode mainNode) {
+        for (Node function : mainNode.getFunctions()) {
+            FunctionNode functionNode = (FunctionNode) function;
+
+            markTail(functionNode.getChildren(), functionNode);
+        }
+
+        // A frame is reused by every function it jumps to, so it needs to be as large as the largest of them
+        boolean changed;
+        do {
+            changed = false;
+
+            for (TailCall tailCall : tailCalls) {
+                if (tailCall.callee.getFrameSize() > tailCall.caller.getFrameSize()) {
+                    tailCall.caller.setFrameSize(tailCall.callee.getFrameSize());
+                    changed = true;
+                }
+            }
+        } while (changed);
+    }
+
+    private void markTail(Node node, FunctionNode function) {
+        if (node instanceof FunctionCallNode) {
+            FunctionCallNode call = (FunctionCallNode) node;
+
+            // Internal functions have no frame which could be reused
+            if (call.getFunctionNode() != null) {
+                call.setTailCall(true);
+                tailCalls.add(new TailCall(function, call.getFunctionNode()));
+            }
+        } else if (node instanceof IfNode) {
+            IfNode ifNode = (IfNode) node;
+
+            markTail(ifNode.getTrueNodes(), function);
+            if (ifNode.getFalseNodes() != null) {
+                markTail(ifNode.getFalseNodes(), function);
+            }
+        } else if (node instanceof BlockNode) {
+            List<Node> statements = ((BlockNode) node).getStatements();
+
+            // No ops behind the last statement don't execute anything
+            for (int i = statements.size() - 1; i >= 0; i--) {
+                if (!(statements.get(i) instanceof NoOpNode)) {
+                    markTail(statements.get(i), function);
+                    break;
+                }
+            }
+        }
+    }
+
+    private static final class TailCall {
+
+        private final FunctionNode caller;
+        private final FunctionNode callee;
+
+        private TailCall(FunctionNode caller, FunctionNode callee) {
+            this.caller = caller;
+            this.callee = callee;
+        }
+    }
+}
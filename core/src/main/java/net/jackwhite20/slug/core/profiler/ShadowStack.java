@@ -0,0 +1,90 @@
+/*
+ * Copyright 2018 "JackWhite20"
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.jackwhite20.slug.core.profiler;
+
+import net.jackwhite20.slug.ast.Node;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * The stack of the Slug functions and loops an execution is currently in. It is written by the executing
+ * thread and read by the sampler thread of the {@link SlugProfiler}.
+ * <p>
+ * Reads are not synchronized with the writes, a sample may see a frame which was just left. That is fine for
+ * a sampling profiler and keeps pushing and popping cheap.
+ *
+ * @author Philip 'JackWhite20' <silencephil@gmail.com>
+ */
+public final class ShadowStack {
+
+    private final Map<Node, String> loopLabels;
+    private volatile String[] frames = new String[32];
+    private volatile int depth;
+
+    ShadowStack(Map<Node, String> loopLabels) {
+        this.loopLabels = loopLabels;
+    }
+
+    /**
+     * Pushes a loop by its label, like "Main:while#1" for the first loop of the 'Main' function.
+     *
+     * @param loop The while or for node.
+     */
+    public void pushLoop(Node loop) {
+        push(loopLabels.getOrDefault(loop, "loop"));
+    }
+
+    public void push(String frame) {
+        String[] current = frames;
+        if (depth == current.length) {
+            // Publish a new array, the sampler may still read the old one
+            current = Arrays.copyOf(current, current.length * 2);
+            frames = current;
+        }
+
+        current[depth] = frame;
+        depth++;
+    }
+
+    public void pop() {
+        depth--;
+    }
+
+    /**
+     * Copies the current frames, the outermost frame first.
+     *
+     * @return The frames or null if the stack is empty.
+     */
+    String[] snapshot() {
+        String[] current = frames;
+        int size = Math.min(depth, current.length);
+        if (size <= 0) {
+            return null;
+        }
+
+        String[] snapshot = Arrays.copyOf(current, size);
+        for (String frame : snapshot) {
+            // A frame which is pushed right now may not be visible yet
+            if (frame == null) {
+                return null;
+            }
+        }
+
+        return snapshot;
+    }
+}
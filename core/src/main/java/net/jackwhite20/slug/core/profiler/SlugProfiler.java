@@ -0,0 +1,272 @@
+/*
+ * Copyright 2018 "JackWhite20"
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.jackwhite20.slug.core.profiler;
+
+import net.jackwhite20.slug.ast.BlockNode;
+import net.jackwhite20.slug.ast.ForNode;
+import net.jackwhite20.slug.ast.FunctionNode;
+import net.jackwhite20.slug.ast.IfNode;
+import net.jackwhite20.slug.ast.MainNode;
+import net.jackwhite20.slug.ast.Node;
+import net.jackwhite20.slug.ast.WhileNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Samples which Slug functions and loops the running executions are in.
+ * <p>
+ * Every execution keeps a {@link ShadowStack} of its functions and loops, a background thread takes a sample
+ * of all of them at a fixed interval. The result can be written as collapsed stacks (one line per distinct
+ * stack with its sample count) for flame graph tools or summarized as the hottest functions and loops.
+ *
+ * @author Philip 'JackWhite20' <silencephil@gmail.com>
+ */
+public final class SlugProfiler {
+
+    private static Logger logger = LoggerFactory.getLogger(SlugProfiler.class);
+
+    private final long intervalNanos;
+    private final Set<ShadowStack> stacks = ConcurrentHashMap.newKeySet();
+
+    // The labels of the loops of every profiled program, nodes are compared by identity
+    private final Map<MainNode, Map<Node, String>> loopLabels = new IdentityHashMap<>();
+
+    // Only written by the sampler thread, read after it stopped
+    private final Map<String, Long> samples = new HashMap<>();
+    private long sampleCount;
+
+    private Thread sampler;
+    private volatile boolean running;
+
+    public SlugProfiler() {
+        this(1, TimeUnit.MILLISECONDS);
+    }
+
+    public SlugProfiler(long interval, TimeUnit unit) {
+        this.intervalNanos = unit.toNanos(interval);
+    }
+
+    /**
+     * Starts sampling the registered executions.
+     */
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+
+        running = true;
+        sampler = new Thread(this::sample, "slug-profiler");
+        sampler.setDaemon(true);
+        sampler.start();
+    }
+
+    /**
+     * Stops sampling and waits until the sampler thread is done.
+     */
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+
+        running = false;
+        LockSupport.unpark(sampler);
+
+        try {
+            sampler.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        logger.debug("Took {} samples", sampleCount);
+    }
+
+    /**
+     * Registers an execution of the program, its shadow stack is sampled until it is unregistered.
+     *
+     * @param mainNode The executed program.
+     * @return The shadow stack the execution needs to maintain.
+     */
+    public ShadowStack register(MainNode mainNode) {
+        Map<Node, String> labels;
+        synchronized (loopLabels) {
+            labels = loopLabels.computeIfAbsent(mainNode, SlugProfiler::labelLoops);
+        }
+
+        ShadowStack stack = new ShadowStack(labels);
+        stacks.add(stack);
+
+        return stack;
+    }
+
+    public void unregister(ShadowStack stack) {
+        stacks.remove(stack);
+    }
+
+    /**
+     * Writes the samples as collapsed stacks, eg. "Main;Fib;Fib 42", which flame graph tools take as input.
+     * Only call it after the profiler is stopped.
+     *
+     * @param writer The writer.
+     * @throws IOException If writing fails.
+     */
+    public void writeCollapsed(Writer writer) throws IOException {
+        List<String> lines = new ArrayList<>(samples.keySet());
+        Collections.sort(lines);
+
+        for (String stack : lines) {
+            writer.write(stack + " " + samples.get(stack) + "\n");
+        }
+
+        writer.flush();
+    }
+
+    /**
+     * Writes the collapsed stacks to a file.
+     *
+     * @param path The path of the file.
+     * @throws IOException If writing fails.
+     */
+    public void writeCollapsed(Path path) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            writeCollapsed(writer);
+        }
+    }
+
+    /**
+     * Summarizes the hottest functions and loops by the samples they were on top of the stack (self) and the
+     * samples they were anywhere on the stack (total). Only call it after the profiler is stopped.
+     *
+     * @param limit The maximum amount of functions and loops.
+     * @return The report.
+     */
+    public String topReport(int limit) {
+        Map<String, Long> self = new HashMap<>();
+        Map<String, Long> total = new HashMap<>();
+
+        for (Map.Entry<String, Long> entry : samples.entrySet()) {
+            String[] frames = entry.getKey().split(";");
+
+            self.merge(frames[frames.length - 1], entry.getValue(), Long::sum);
+
+            // Count recursive frames only once per stack
+            for (String frame : new HashSet<>(Arrays.asList(frames))) {
+                total.merge(frame, entry.getValue(), Long::sum);
+            }
+        }
+
+        List<String> frames = new ArrayList<>(total.keySet());
+        frames.sort((a, b) -> {
+            int compare = Long.compare(self.getOrDefault(b, 0L), self.getOrDefault(a, 0L));
+            return compare != 0 ? compare : Long.compare(total.get(b), total.get(a));
+        });
+
+        StringBuilder report = new StringBuilder("Hottest functions and loops (" + sampleCount + " samples):\n");
+        report.append(String.format("%8s %8s  %s%n", "self", "total", "frame"));
+        for (String frame : frames.subList(0, Math.min(limit, frames.size()))) {
+            report.append(String.format("%7.1f%% %7.1f%%  %s%n", percent(self.getOrDefault(frame, 0L)), percent(total.get(frame)), frame));
+        }
+
+        return report.toString();
+    }
+
+    public long getSampleCount() {
+        return sampleCount;
+    }
+
+    private double percent(long count) {
+        return sampleCount == 0 ? 0 : count * 100.0 / sampleCount;
+    }
+
+    private void sample() {
+        StringBuilder builder = new StringBuilder();
+
+        while (running) {
+            for (ShadowStack stack : stacks) {
+                String[] frames = stack.snapshot();
+                if (frames == null) {
+                    continue;
+                }
+
+                builder.setLength(0);
+                for (String frame : frames) {
+                    if (builder.length() > 0) {
+                        builder.append(';');
+                    }
+                    builder.append(frame);
+                }
+
+                samples.merge(builder.toString(), 1L, Long::sum);
+                sampleCount++;
+            }
+
+            LockSupport.parkNanos(intervalNanos);
+        }
+    }
+
+    /**
+     * Labels the loops of every function in source order, like "Main:while#1" and "Main:for#2".
+     */
+    private static Map<Node, String> labelLoops(MainNode mainNode) {
+        Map<Node, String> labels = new IdentityHashMap<>();
+
+        for (Node function : mainNode.getFunctions()) {
+            FunctionNode functionNode = (FunctionNode) function;
+            labelLoops(functionNode.getName(), functionNode.getChildren(), labels, new int[1]);
+        }
+
+        return labels;
+    }
+
+    private static void labelLoops(String function, Node node, Map<Node, String> labels, int[] counter) {
+        if (node instanceof WhileNode) {
+            labels.put(node, function + ":while#" + ++counter[0]);
+
+            for (Node child : ((WhileNode) node).getChildren()) {
+                labelLoops(function, child, labels, counter);
+            }
+        } else if (node instanceof ForNode) {
+            labels.put(node, function + ":for#" + ++counter[0]);
+
+            labelLoops(function, ((ForNode) node).getBlock(), labels, counter);
+        } else if (node instanceof IfNode) {
+            labelLoops(function, ((IfNode) node).getTrueNodes(), labels, counter);
+            labelLoops(function, ((IfNode) node).getFalseNodes(), labels, counter);
+        } else if (node instanceof BlockNode) {
+            for (Node statement : ((BlockNode) node).getStatements()) {
+                labelLoops(function, statement, labels, counter);
+            }
+        }
+    }
+}
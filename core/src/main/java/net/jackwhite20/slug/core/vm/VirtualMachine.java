@@ -0,0 +1,446 @@
+/*
+ * Copyright 2018 "JackWhite20"
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.jackwhite20.slug.core.vm;
+
+import net.jackwhite20.slug.core.compiler.CompiledFunction;
+import net.jackwhite20.slug.core.compiler.CompiledProgram;
+import net.jackwhite20.slug.core.compiler.OpCode;
+import net.jackwhite20.slug.core.interpreter.InternalFunctionRegistry;
+import net.jackwhite20.slug.exception.SlugRuntimeException;
+import net.jackwhite20.slug.function.InternalFunction;
+import net.jackwhite20.slug.output.Output;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Executes a {@link CompiledProgram} in a single dispatch loop.
+ * <p>
+ * Locals and the operand stack of all active functions live in one int and one reference array, a call only
+ * moves the frame base to the arguments the caller pushed. So calls don't allocate and don't recurse on the
+ * Java stack.
+ *
+ * @author Philip 'JackWhite20' <silencephil@gmail.com>
+ */
+public class VirtualMachine {
+
+    private static Logger logger = LoggerFactory.getLogger(VirtualMachine.class);
+
+    private static final int INITIAL_STACK_SIZE = 1024;
+    private static final int MAX_STACK_SIZE = 1 << 22;
+    private static final int INITIAL_CALL_DEPTH = 64;
+
+    private final CompiledProgram program;
+    private final InternalFunctionRegistry internalFunctions;
+
+    // The functions of the program with their builtin calls bound to the registry
+    private final CompiledFunction globalInitializer;
+    private final CompiledFunction[] functions;
+
+    private int[] ints = new int[INITIAL_STACK_SIZE];
+    private Object[] refs = new Object[INITIAL_STACK_SIZE];
+
+    private int[] globalInts;
+    private Object[] globalRefs;
+
+    // The saved state of the callers
+    private CompiledFunction[] callFunctions = new CompiledFunction[INITIAL_CALL_DEPTH];
+    private int[] callPcs = new int[INITIAL_CALL_DEPTH];
+    private int[] callBases = new int[INITIAL_CALL_DEPTH];
+
+    public VirtualMachine(CompiledProgram program) {
+        this(program, new InternalFunctionRegistry());
+    }
+
+    public VirtualMachine(CompiledProgram program, InternalFunctionRegistry internalFunctions) {
+        this.program = program;
+        this.internalFunctions = internalFunctions;
+        this.globalInts = new int[program.getGlobalCount()];
+        this.globalRefs = new Object[program.getGlobalCount()];
+        this.globalInitializer = link(program.getGlobalInitializer());
+
+        this.functions = new CompiledFunction[program.getFunctions().length];
+        for (int i = 0; i < functions.length; i++) {
+            functions[i] = link(program.getFunctions()[i]);
+        }
+    }
+
+    /**
+     * Copies the function with the operand of every builtin call pointing to the bound internal function
+     * instead of its name, so a call doesn't look the function up. The bound functions are appended to the
+     * constants, the name may also be used as a string constant.
+     */
+    private CompiledFunction link(CompiledFunction function) {
+        int[] code = function.getCode().clone();
+        List<Object> constants = new ArrayList<>(Arrays.asList(function.getConstants()));
+        Map<String, Integer> bound = new HashMap<>();
+
+        for (int pc = 0; pc < code.length; pc += 1 + OpCode.operandCount(code[pc])) {
+            if (code[pc] == OpCode.INVOKE_BUILTIN) {
+                code[pc + 1] = bound.computeIfAbsent((String) constants.get(code[pc + 1]), name -> {
+                    constants.add(internalFunctions.lookup(name));
+                    return constants.size() - 1;
+                });
+            }
+        }
+
+        return new CompiledFunction(function.getName(), function.getParameterTypes(), code, constants.toArray(),
+                function.getMaxLocals(), function.getMaxStack());
+    }
+
+    public void run() {
+        long now = System.nanoTime();
+
+        execute(globalInitializer);
+
+        if (program.getMainIndex() != -1) {
+            execute(functions[program.getMainIndex()]);
+        }
+
+        long time = System.nanoTime() - now;
+
+        // The whole program ran, so its buffered output goes before the log line
+        Output.current().flush();
+
+        logger.debug("Executed time: " + TimeUnit.NANOSECONDS.toMillis(time) + "ms (" + time + "ns)");
+    }
+
+    private void execute(CompiledFunction entry) {
+        CompiledFunction[] functions = this.functions;
+        int[] globalInts = this.globalInts;
+        Object[] globalRefs = this.globalRefs;
+
+        ensureCapacity(entry.getMaxLocals() + entry.getMaxStack());
+        int[] ints = this.ints;
+        Object[] refs = this.refs;
+
+        CompiledFunction function = entry;
+        int[] code = function.getCode();
+        Object[] constants = function.getConstants();
+        int pc = 0;
+        int base = 0;
+        int sp = function.getMaxLocals();
+        int callDepth = 0;
+
+        while (true) {
+            switch (code[pc++]) {
+                case OpCode.ICONST:
+                    ints[sp++] = code[pc++];
+                    break;
+                case OpCode.LDC:
+                    refs[sp++] = constants[code[pc++]];
+                    break;
+                case OpCode.ILOAD:
+                    ints[sp++] = ints[base + code[pc++]];
+                    break;
+                case OpCode.ISTORE:
+                    ints[base + code[pc++]] = ints[--sp];
+                    break;
+                case OpCode.ALOAD:
+                    refs[sp++] = refs[base + code[pc++]];
+                    break;
+                case OpCode.ASTORE:
+                    refs[base + code[pc++]] = refs[--sp];
+                    refs[sp] = null;
+                    break;
+                case OpCode.IGLOAD:
+                    ints[sp++] = globalInts[code[pc++]];
+                    break;
+                case OpCode.IGSTORE:
+                    globalInts[code[pc++]] = ints[--sp];
+                    break;
+                case OpCode.AGLOAD:
+                    refs[sp++] = globalRefs[code[pc++]];
+                    break;
+                case OpCode.AGSTORE:
+                    globalRefs[code[pc++]] = refs[--sp];
+                    refs[sp] = null;
+                    break;
+                case OpCode.IADD:
+                    sp--;
+                    ints[sp - 1] += ints[sp];
+                    break;
+                case OpCode.ISUB:
+                    sp--;
+                    ints[sp - 1] -= ints[sp];
+                    break;
+                case OpCode.IMUL:
+                    sp--;
+                    ints[sp - 1] *= ints[sp];
+                    break;
+                case OpCode.IDIV:
+                    sp--;
+                    ints[sp - 1] /= ints[sp];
+                    break;
+                case OpCode.INEG:
+                    ints[sp - 1] = -ints[sp - 1];
+                    break;
+                case OpCode.IEQ:
+                    sp--;
+                    ints[sp - 1] = ints[sp - 1] == ints[sp] ? 1 : 0;
+                    break;
+                case OpCode.INE:
+                    sp--;
+                    ints[sp - 1] = ints[sp - 1] != ints[sp] ? 1 : 0;
+                    break;
+                case OpCode.ILT:
+                    sp--;
+                    ints[sp - 1] = ints[sp - 1] < ints[sp] ? 1 : 0;
+                    break;
+                case OpCode.IGT:
+                    sp--;
+                    ints[sp - 1] = ints[sp - 1] > ints[sp] ? 1 : 0;
+                    break;
+                case OpCode.ILE:
+                    sp--;
+                    ints[sp - 1] = ints[sp - 1] <= ints[sp] ? 1 : 0;
+                    break;
+                case OpCode.IGE:
+                    sp--;
+                    ints[sp - 1] = ints[sp - 1] >= ints[sp] ? 1 : 0;
+                    break;
+                case OpCode.AEQ:
+                case OpCode.ANE: {
+                    sp--;
+                    boolean equal = Objects.equals(refs[sp - 1], refs[sp]);
+                    ints[sp - 1] = equal == (code[pc - 1] == OpCode.AEQ) ? 1 : 0;
+                    refs[sp - 1] = null;
+                    refs[sp] = null;
+                    break;
+                }
+                case OpCode.JUMP:
+                    pc = code[pc];
+                    break;
+                case OpCode.JUMP_IF_FALSE:
+                    pc = ints[--sp] == 0 ? code[pc] : pc + 1;
+                    break;
+                case OpCode.IFNOT_ICMPEQ:
+                    sp -= 2;
+                    pc = ints[sp] == ints[sp + 1] ? pc + 1 : code[pc];
+                    break;
+                case OpCode.IFNOT_ICMPNE:
+                    sp -= 2;
+                    pc = ints[sp] != ints[sp + 1] ? pc + 1 : code[pc];
+                    break;
+                case OpCode.IFNOT_ICMPLT:
+                    sp -= 2;
+                    pc = ints[sp] < ints[sp + 1] ? pc + 1 : code[pc];
+                    break;
+                case OpCode.IFNOT_ICMPGT:
+                    sp -= 2;
+                    pc = ints[sp] > ints[sp + 1] ? pc + 1 : code[pc];
+                    break;
+                case OpCode.IFNOT_ICMPLE:
+                    sp -= 2;
+                    pc = ints[sp] <= ints[sp + 1] ? pc + 1 : code[pc];
+                    break;
+                case OpCode.IFNOT_ICMPGE:
+                    sp -= 2;
+                    pc = ints[sp] >= ints[sp + 1] ? pc + 1 : code[pc];
+                    break;
+                case OpCode.BOX_INT:
+                    refs[sp - 1] = ints[sp - 1];
+                    break;
+                case OpCode.BOX_BOOL:
+                    refs[sp - 1] = ints[sp - 1] != 0;
+                    break;
+                case OpCode.UNBOX_INT:
+                    ints[sp - 1] = unboxInt(refs[sp - 1]);
+                    refs[sp - 1] = null;
+                    break;
+                case OpCode.UNBOX_BOOL:
+                    ints[sp - 1] = unboxBool(refs[sp - 1]) ? 1 : 0;
+                    refs[sp - 1] = null;
+                    break;
+                case OpCode.CONCAT: {
+                    int parts = code[pc++];
+                    sp -= parts;
+
+                    // Convert the parts first to presize the builder
+                    int length = 0;
+                    for (int i = sp; i < sp + parts; i++) {
+                        refs[i] = String.valueOf(refs[i]);
+                        length += ((String) refs[i]).length();
+                    }
+
+                    StringBuilder builder = new StringBuilder(length);
+                    for (int i = sp; i < sp + parts; i++) {
+                        builder.append((String) refs[i]);
+                        refs[i] = null;
+                    }
+
+                    refs[sp++] = builder.toString();
+                    break;
+                }
+                case OpCode.INVOKE_BUILTIN: {
+                    InternalFunction builtin = (InternalFunction) constants[code[pc++]];
+                    int argumentCount = code[pc++];
+                    sp -= argumentCount;
+
+                    // Only calls with more than two arguments need a list
+                    Object result;
+                    if (argumentCount == 0) {
+                        result = builtin.call0();
+                    } else if (argumentCount == 1) {
+                        result = builtin.call1(refs[sp]);
+                    } else if (argumentCount == 2) {
+                        result = builtin.call2(refs[sp], refs[sp + 1]);
+                    } else {
+                        List<Object> arguments = new ArrayList<>(argumentCount);
+                        for (int i = sp; i < sp + argumentCount; i++) {
+                            arguments.add(refs[i]);
+                        }
+
+                        result = builtin.call(arguments);
+                    }
+
+                    for (int i = sp; i < sp + argumentCount; i++) {
+                        refs[i] = null;
+                    }
+
+                    refs[sp++] = result;
+                    break;
+                }
+                case OpCode.CALL: {
+                    CompiledFunction callee = functions[code[pc++]];
+
+                    if (callDepth == callFunctions.length) {
+                        growCallStack();
+                    }
+                    callFunctions[callDepth] = function;
+                    callPcs[callDepth] = pc;
+                    callBases[callDepth] = base;
+                    callDepth++;
+
+                    // The arguments the caller pushed are the first locals of the callee
+                    base = sp - callee.getParameterCount();
+                    sp = base + callee.getMaxLocals();
+
+                    if (sp + callee.getMaxStack() > ints.length) {
+                        ensureCapacity(sp + callee.getMaxStack());
+                        ints = this.ints;
+                        refs = this.refs;
+                    }
+
+                    function = callee;
+                    code = callee.getCode();
+                    constants = callee.getConstants();
+                    pc = 0;
+                    break;
+                }
+                case OpCode.TAIL_CALL: {
+                    CompiledFunction callee = functions[code[pc++]];
+                    int argumentCount = callee.getParameterCount();
+
+                    // The arguments replace the locals of the current frame, the caller of it stays the same
+                    System.arraycopy(ints, sp - argumentCount, ints, base, argumentCount);
+                    System.arraycopy(refs, sp - argumentCount, refs, base, argumentCount);
+                    Arrays.fill(refs, base + argumentCount, sp, null);
+
+                    sp = base + callee.getMaxLocals();
+
+                    if (sp + callee.getMaxStack() > ints.length) {
+                        ensureCapacity(sp + callee.getMaxStack());
+                        ints = this.ints;
+                        refs = this.refs;
+                    }
+
+                    function = callee;
+                    code = callee.getCode();
+                    constants = callee.getConstants();
+                    pc = 0;
+                    break;
+                }
+                case OpCode.RETURN: {
+                    // Release the references of the frame
+                    Arrays.fill(refs, base, sp, null);
+
+                    if (callDepth == 0) {
+                        return;
+                    }
+
+                    callDepth--;
+                    function = callFunctions[callDepth];
+                    pc = callPcs[callDepth];
+                    sp = base;
+                    base = callBases[callDepth];
+                    code = function.getCode();
+                    constants = function.getConstants();
+                    callFunctions[callDepth] = null;
+
+                    // Functions have no return values, so every call results in null
+                    refs[sp++] = null;
+                    break;
+                }
+                case OpCode.POP:
+                    refs[--sp] = null;
+                    break;
+                default:
+                    throw new SlugRuntimeException("invalid op code " + code[pc - 1] + " in function " + function.getName());
+            }
+        }
+    }
+
+    private void ensureCapacity(int size) {
+        if (size <= ints.length) {
+            return;
+        }
+
+        if (size > MAX_STACK_SIZE) {
+            throw new SlugRuntimeException("stack overflow");
+        }
+
+        int newSize = Math.min(MAX_STACK_SIZE, Math.max(ints.length * 2, size));
+        ints = Arrays.copyOf(ints, newSize);
+        refs = Arrays.copyOf(refs, newSize);
+    }
+
+    private void growCallStack() {
+        int newDepth = callFunctions.length * 2;
+        callFunctions = Arrays.copyOf(callFunctions, newDepth);
+        callPcs = Arrays.copyOf(callPcs, newDepth);
+        callBases = Arrays.copyOf(callBases, newDepth);
+    }
+
+    private static int unboxInt(Object value) {
+        if (value instanceof Integer) {
+            return (Integer) value;
+        } else if (value == null) {
+            // Functions without a result yield the default value
+            return 0;
+        }
+
+        throw new SlugRuntimeException("expected an int but got " + value);
+    }
+
+    private static boolean unboxBool(Object value) {
+        if (value instanceof Boolean) {
+            return (Boolean) value;
+        } else if (value == null) {
+            return false;
+        }
+
+        throw new SlugRuntimeException("expected a bool but got " + value);
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2018 "JackWhite20"
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.jackwhite20.slug.core;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Runs every script in the interpreter, the specializing interpreter, the virtual machine and as a compiled class,
+ * all of them have to write the same output.
+ *
+ * @author Philip 'JackWhite20' <silencephil@gmail.com>
+ */
+@RunWith(Parameterized.class)
+public class ExecutionParityTest {
+
+    @Parameterized.Parameters(name = "{0}")
+    public static Collection<Object> scripts() {
+        return Arrays.asList("basic", "scope", "recursion", "types", "fold", "template", "prec", "conditions");
+    }
+
+    private final String name;
+
+    private String source;
+    private String expected;
+
+    public ExecutionParityTest(String name) {
+        this.name = name;
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        source = Scripts.resource(name + ".slug");
+        expected = Scripts.resource(name + ".out");
+    }
+
+    @Test
+    public void testInterpreter() {
+        assertEquals(expected, Scripts.interpret(Scripts.parse(source, true), false));
+    }
+
+    @Test
+    public void testUnoptimized() {
+        assertEquals(expected, Scripts.interpret(Scripts.parse(source, false), false));
+    }
+
+    @Test
+    public void testSpecializer() {
+        assertEquals(expected, Scripts.interpret(Scripts.parse(source, true), true));
+    }
+
+    @Test
+    public void testVirtualMachine() {
+        assertEquals(expected, Scripts.runVirtualMachine(Scripts.parse(source, true)));
+    }
+
+    @Test
+    public void testCompiled() {
+        assertEquals(expected, Scripts.runCompiled(Scripts.parse(source, true), "Parity" + Character.toUpperCase(name.charAt(0)) + name.substring(1)));
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2018 "JackWhite20"
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.jackwhite20.slug.core;
+
+import net.jackwhite20.slug.ast.MainNode;
+import net.jackwhite20.slug.ast.Node;
+import net.jackwhite20.slug.core.compiler.Compiler;
+import net.jackwhite20.slug.core.interpreter.Interpreter;
+import net.jackwhite20.slug.core.jvm.ClassGenerator;
+import net.jackwhite20.slug.core.lexer.TableLexer;
+import net.jackwhite20.slug.core.optimizer.Optimizer;
+import net.jackwhite20.slug.core.parser.Parser;
+import net.jackwhite20.slug.core.vm.VirtualMachine;
+import net.jackwhite20.slug.output.Output;
+import net.jackwhite20.slug.output.OutputSink;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Runs scripts the same ways the command line does and returns what they wrote, one line per WriteLine.
+ *
+ * @author Philip 'JackWhite20' <silencephil@gmail.com>
+ */
+public final class Scripts {
+
+    Scripts() {
+        throw new AssertionError("no instance allowed");
+    }
+
+    public static MainNode parse(String source, boolean optimizing) {
+        return parse(source, optimizing ? Optimizer.defaults() : Optimizer.none());
+    }
+
+    public static MainNode parse(String source, Optimizer optimizer) {
+        return (MainNode) new Parser(new TableLexer(source), optimizer).parse();
+    }
+
+    public static String interpret(Node ast, boolean specializing) {
+        return capture(() -> new Interpreter(specializing).interpret(ast));
+    }
+
+    public static String runVirtualMachine(Node ast) {
+        return capture(() -> new VirtualMachine(new Compiler().compile(ast)).run());
+    }
+
+    /**
+     * Compiles the program ahead of time like --slugc and runs the main method of the generated class.
+     */
+    public static String runCompiled(Node ast, String className) {
+        byte[] classBytes = new ClassGenerator(new Compiler().compile(ast), className).generate();
+        Class<?> clasz = new ScriptClassLoader().define(className, classBytes);
+
+        return capture(() -> {
+            try {
+                clasz.getMethod("main", String[].class).invoke(null, (Object) new String[0]);
+            } catch (InvocationTargetException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw new AssertionError(e.getCause());
+            } catch (ReflectiveOperationException e) {
+                throw new AssertionError(e);
+            }
+        });
+    }
+
+    /**
+     * Reads a script or its expected output from the test resources.
+     */
+    public static String resource(String name) throws IOException {
+        try (InputStream in = Scripts.class.getResourceAsStream("/scripts/" + name)) {
+            if (in == null) {
+                throw new IOException("resource " + name + " doesn't exist");
+            }
+
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static String capture(Runnable run) {
+        StringBuilderSink sink = new StringBuilderSink();
+
+        OutputSink previous = Output.set(sink);
+        try {
+            run.run();
+        } finally {
+            Output.set(previous);
+        }
+
+        return sink.builder.toString();
+    }
+
+    private static final class StringBuilderSink implements OutputSink {
+
+        private final StringBuilder builder = new StringBuilder();
+
+        @Override
+        public void writeLine(String line) {
+            builder.append(line).append('\n');
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private static final class ScriptClassLoader extends ClassLoader {
+
+        private ScriptClassLoader() {
+            super(Scripts.class.getClassLoader());
+        }
+
+        private Class<?> define(String name, byte[] bytes) {
+            return defineClass(name, bytes, 0, bytes.length);
+        }
+    }
+}
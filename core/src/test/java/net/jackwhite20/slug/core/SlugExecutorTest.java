@@ -0,0 +1,137 @@
+/*
+ * Copyright 2018 "JackWhite20"
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.jackwhite20.slug.core;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author Philip 'JackWhite20' <silencephil@gmail.com>
+ */
+public class SlugExecutorTest {
+
+    private static final String PROGRAM = "func Main() {\n" +
+            "    int sum = 0\n" +
+            "    for (int i = 0; i < 100000; i = i + 1) {\n" +
+            "        sum = sum + i\n" +
+            "    }\n" +
+            "}\n";
+
+    private static final String COUNTING = "func Main(int n) {\n" +
+            "    int i = 0\n" +
+            "    while (i != n) {\n" +
+            "        i = i + 1\n" +
+            "    }\n" +
+            "}\n";
+
+    @Test(timeout = 10000)
+    public void testCloseCompletesQueuedExecutions() throws Exception {
+        assertQueuedExecutionsComplete(new SlugExecutor(1, 2, false));
+    }
+
+    @Test(timeout = 10000)
+    public void testCloseCompletesQueuedExecutionsOnVirtualThreads() throws Exception {
+        assertQueuedExecutionsComplete(new SlugExecutor(1));
+    }
+
+    @Test(timeout = 10000)
+    public void testSubmitAfterCloseIsRejected() throws Exception {
+        SlugExecutor executor = new SlugExecutor();
+        executor.close();
+
+        try {
+            executor.submit(SlugProgram.compile(PROGRAM)).get();
+            fail("the execution wasn't rejected");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof RejectedExecutionException);
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testCancelledQueuedExecutionKeepsContextUsable() throws Exception {
+        SlugExecutor executor = new SlugExecutor(1, 2, false);
+        SlugProgram program = SlugProgram.compile(COUNTING);
+
+        // The first execution counts until it is cancelled, so the second one waits in the queue
+        CompletableFuture<Void> running = executor.submit(program, -1);
+        SlugContext context = program.newContext();
+        CompletableFuture<Void> queued = executor.submit(context, 10);
+
+        queued.cancel(false);
+        running.cancel(false);
+        executor.close();
+        awaitDone(running);
+
+        context.execute(100000);
+    }
+
+    @Test(timeout = 10000)
+    public void testCancelAfterCompletionKeepsContextUsable() throws Exception {
+        SlugExecutor executor = new SlugExecutor(1, 2, false);
+        SlugProgram program = SlugProgram.compile(COUNTING);
+        SlugContext context = program.newContext();
+
+        // Cancel while the short execution finishes, sooner or later the cancellation arrives after it was done
+        for (int i = 0; i < 200; i++) {
+            executor.submit(context, i).cancel(false);
+
+            // A cancelled future is done right away, the next execution of the isolate only starts after it stopped
+            executor.submit(program, 0).get(5, TimeUnit.SECONDS);
+
+            context.execute(100000);
+        }
+
+        executor.close();
+    }
+
+    private static void awaitDone(CompletableFuture<Void> future) throws InterruptedException {
+        try {
+            future.get(5, TimeUnit.SECONDS);
+        } catch (CancellationException | ExecutionException expected) {
+            // Only the end of the execution matters
+        } catch (TimeoutException e) {
+            fail("the execution didn't stop");
+        }
+    }
+
+    private static void assertQueuedExecutionsComplete(SlugExecutor executor) throws Exception {
+        SlugProgram program = SlugProgram.compile(PROGRAM);
+
+        // With a limit of one, all but the first execution wait in the queue of the isolate
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            futures.add(executor.submit(program));
+        }
+
+        executor.close();
+
+        for (CompletableFuture<Void> future : futures) {
+            future.get(5, TimeUnit.SECONDS);
+        }
+    }
+}
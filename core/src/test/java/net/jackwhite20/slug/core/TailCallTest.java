@@ -0,0 +1,123 @@
+/*
+ * Copyright 2018 "JackWhite20"
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.jackwhite20.slug.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Recurses far deeper than the Java stack could handle with one frame per call, so the calls in tail position
+ * have to reuse the frame of their caller.
+ *
+ * @author Philip 'JackWhite20' <silencephil@gmail.com>
+ */
+public class TailCallTest {
+
+    private static final int DEPTH = 1000000;
+
+    private static final String SELF = "func Loop(int n, int acc) {\n" +
+            "    if (n == 0) {\n" +
+            "        WriteLine(\"sum $acc\")\n" +
+            "    } else {\n" +
+            "        Loop((n - 1), (acc + 1))\n" +
+            "    }\n" +
+            "}\n" +
+            "\n" +
+            "func Main() {\n" +
+            "    Loop(" + DEPTH + ", 0)\n" +
+            "}\n";
+
+    private static final String MUTUAL = "func Even(int n) {\n" +
+            "    if (n == 0) {\n" +
+            "        WriteLine(\"even\")\n" +
+            "    } else {\n" +
+            "        Odd((n - 1))\n" +
+            "    }\n" +
+            "}\n" +
+            "\n" +
+            "func Odd(int n) {\n" +
+            "    if (n == 0) {\n" +
+            "        WriteLine(\"odd\")\n" +
+            "    } else {\n" +
+            "        Even((n - 1))\n" +
+            "    }\n" +
+            "}\n" +
+            "\n" +
+            "func Main() {\n" +
+            "    Even(" + DEPTH + ")\n" +
+            "    Even(" + (DEPTH + 1) + ")\n" +
+            "}\n";
+
+    private static final String SELF_OUTPUT = "sum " + DEPTH + "\n";
+    private static final String MUTUAL_OUTPUT = "even\nodd\n";
+
+    @Test(timeout = 30000)
+    public void testSelfRecursionInterpreter() {
+        assertEquals(SELF_OUTPUT, Scripts.interpret(Scripts.parse(SELF, true), false));
+        assertEquals(SELF_OUTPUT, Scripts.interpret(Scripts.parse(SELF, false), false));
+    }
+
+    @Test(timeout = 30000)
+    public void testSelfRecursionSpecializer() {
+        assertEquals(SELF_OUTPUT, Scripts.interpret(Scripts.parse(SELF, true), true));
+    }
+
+    @Test(timeout = 30000)
+    public void testSelfRecursionVirtualMachine() {
+        assertEquals(SELF_OUTPUT, Scripts.runVirtualMachine(Scripts.parse(SELF, true)));
+    }
+
+    @Test(timeout = 30000)
+    public void testSelfRecursionCompiled() {
+        assertEquals(SELF_OUTPUT, Scripts.runCompiled(Scripts.parse(SELF, true), "TailSelf"));
+    }
+
+    @Test(timeout = 30000)
+    public void testMutualRecursionInterpreter() {
+        assertEquals(MUTUAL_OUTPUT, Scripts.interpret(Scripts.parse(MUTUAL, true), false));
+    }
+
+    @Test(timeout = 30000)
+    public void testMutualRecursionSpecializer() {
+        assertEquals(MUTUAL_OUTPUT, Scripts.interpret(Scripts.parse(MUTUAL, true), true));
+    }
+
+    @Test(timeout = 30000)
+    public void testMutualRecursionVirtualMachine() {
+        assertEquals(MUTUAL_OUTPUT, Scripts.runVirtualMachine(Scripts.parse(MUTUAL, true)));
+    }
+
+    @Test(timeout = 30000)
+    public void testNonTailRecursion() {
+        // The call isn't the last statement, so every level needs its own frame until the recursion unwinds
+        String source = "func Count(int n) {\n" +
+                "    if (n > 0) {\n" +
+                "        Count((n - 1))\n" +
+                "        WriteLine(n)\n" +
+                "    }\n" +
+                "}\n" +
+                "\n" +
+                "func Main() {\n" +
+                "    Count(3)\n" +
+                "}\n";
+
+        assertEquals("1\n2\n3\n", Scripts.interpret(Scripts.parse(source, true), false));
+        assertEquals("1\n2\n3\n", Scripts.runVirtualMachine(Scripts.parse(source, true)));
+        assertEquals("1\n2\n3\n", Scripts.runCompiled(Scripts.parse(source, true), "TailCount"));
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright 2018 "JackWhite20"
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.jackwhite20.slug.core.cache;
+
+import net.jackwhite20.slug.ast.MainNode;
+import net.jackwhite20.slug.core.Scripts;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Philip 'JackWhite20' <silencephil@gmail.com>
+ */
+public class ProgramCacheTest {
+
+    private static final String[] SCRIPTS = {"basic", "scope", "recursion", "types", "fold", "template", "prec"};
+
+    private static final FileTime OLD = FileTime.fromMillis(0);
+
+    private static final int DEPTH = 20000;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testAstRoundTrip() throws IOException {
+        for (String script : SCRIPTS) {
+            for (boolean optimizing : new boolean[]{true, false}) {
+                byte[] bytes = write(Scripts.parse(Scripts.resource(script + ".slug"), optimizing));
+                MainNode read = new AstReader(ByteBuffer.wrap(bytes)).read();
+
+                // Reading and writing again has to give the same bytes, so nothing was lost on the way
+                assertArrayEquals(script, bytes, write(read));
+                assertEquals(script, Scripts.resource(script + ".out"), Scripts.interpret(read, false));
+            }
+        }
+    }
+
+    @Test
+    public void testDeepAstRoundTrip() throws IOException {
+        for (String expression : new String[]{nest(), chain()}) {
+            byte[] bytes = write(Scripts.parse(deepSource(expression), true));
+
+            assertArrayEquals(bytes, write(new AstReader(ByteBuffer.wrap(bytes)).read()));
+        }
+    }
+
+    @Test
+    public void testDeepProgramIsCached() throws IOException {
+        Path source = folder.getRoot().toPath().resolve("deep.slug");
+        Files.write(source, deepSource(nest()).getBytes(StandardCharsets.UTF_8));
+
+        byte[] parsed = write((MainNode) ProgramCache.load(source, true));
+        assertTrue(Files.isRegularFile(ProgramCache.cachePath(source)));
+
+        Files.setLastModifiedTime(ProgramCache.cachePath(source), OLD);
+        assertArrayEquals(parsed, write((MainNode) ProgramCache.load(source, true)));
+        assertEquals(OLD, Files.getLastModifiedTime(ProgramCache.cachePath(source)));
+    }
+
+    @Test
+    public void testCacheIsWrittenAndRead() throws IOException {
+        Path source = source("basic");
+        Path cache = ProgramCache.cachePath(source);
+
+        assertEquals(Scripts.resource("basic.out"), Scripts.interpret(ProgramCache.load(source, true), false));
+        assertTrue(Files.isRegularFile(cache));
+
+        // A cache which is read isn't written again
+        Files.setLastModifiedTime(cache, OLD);
+        assertEquals(Scripts.resource("basic.out"), Scripts.interpret(ProgramCache.load(source, true), false));
+        assertEquals(OLD, Files.getLastModifiedTime(cache));
+    }
+
+    @Test
+    public void testChangedSourceIsParsedAgain() throws IOException {
+        Path source = source("basic");
+        ProgramCache.load(source, true);
+
+        Files.write(source, Scripts.resource("types.slug").getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(Scripts.resource("types.out"), Scripts.interpret(ProgramCache.load(source, true), false));
+    }
+
+    @Test
+    public void testOptimizationIsPartOfTheKey() throws IOException {
+        Path source = source("fold");
+        Path cache = ProgramCache.cachePath(source);
+        ProgramCache.load(source, true);
+
+        Files.setLastModifiedTime(cache, OLD);
+        assertEquals(Scripts.resource("fold.out"), Scripts.interpret(ProgramCache.load(source, false), false));
+        assertNotEquals(OLD, Files.getLastModifiedTime(cache));
+    }
+
+    @Test
+    public void testBrokenCacheIsReplaced() throws IOException {
+        Path source = source("scope");
+        Path cache = ProgramCache.cachePath(source);
+        ProgramCache.load(source, true);
+
+        // Keep the header, so the broken tree itself has to be detected
+        byte[] bytes = Files.readAllBytes(cache);
+        for (int i = bytes.length / 2; i < bytes.length; i++) {
+            bytes[i] = (byte) 0xFF;
+        }
+        Files.write(cache, bytes);
+
+        assertEquals(Scripts.resource("scope.out"), Scripts.interpret(ProgramCache.load(source, true), false));
+        assertFalse(Arrays.equals(bytes, Files.readAllBytes(cache)));
+    }
+
+    /**
+     * Builds a program whose expression can't be folded, so its tree stays as deep as the source.
+     */
+    private static String deepSource(String expression) {
+        return "func Main() {\n    int x = 2\n    int y = " + expression + "\n}\n";
+    }
+
+    /**
+     * Builds (x + (x + ... 1)).
+     */
+    private static String nest() {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < DEPTH; i++) {
+            builder.append("(x + ");
+        }
+        builder.append('1');
+        for (int i = 0; i < DEPTH; i++) {
+            builder.append(')');
+        }
+
+        return builder.toString();
+    }
+
+    /**
+     * Builds x + x + ... x.
+     */
+    private static String chain() {
+        StringBuilder builder = new StringBuilder("x");
+        for (int i = 1; i < DEPTH; i++) {
+            builder.append(" + x");
+        }
+
+        return builder.toString();
+    }
+
+    private Path source(String script) throws IOException {
+        Path source = folder.getRoot().toPath().resolve(script + ".slug");
+        Files.write(source, Scripts.resource(script + ".slug").getBytes(StandardCharsets.UTF_8));
+
+        return source;
+    }
+
+    private static byte[] write(MainNode mainNode) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            new AstWriter(out).write(mainNode);
+        }
+
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2018 "JackWhite20"
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.jackwhite20.slug.core.interpreter;
+
+import net.jackwhite20.slug.core.SlugContext;
+import net.jackwhite20.slug.core.SlugProgram;
+import net.jackwhite20.slug.exception.ExecutionAbortedException;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * @author Philip 'JackWhite20' <silencephil@gmail.com>
+ */
+public class ExecutionLimitsTest {
+
+    @Test(timeout = 5000)
+    public void testEmptyWhileUsesInstructions() {
+        assertInstructionLimit("func Main() {\n" +
+                "    while (true) {\n" +
+                "    }\n" +
+                "}\n");
+    }
+
+    @Test(timeout = 5000)
+    public void testEmptyForUsesInstructions() {
+        assertInstructionLimit("func Main() {\n" +
+                "    for (int i = 0; i > -1; i = i + 1) {\n" +
+                "    }\n" +
+                "}\n");
+    }
+
+    @Test(timeout = 5000)
+    public void testLoopWithinLimit() {
+        SlugContext context = SlugProgram.compile("func Main() {\n" +
+                "    for (int i = 0; i < 10; i = i + 1) {\n" +
+                "    }\n" +
+                "}\n").newContext();
+
+        ExecutionLimits limits = new ExecutionLimits();
+        limits.setMaxInstructions(1000);
+        context.setLimits(limits);
+
+        context.execute();
+    }
+
+    @Test(timeout = 5000)
+    public void testCancelStopsAtNextIteration() {
+        SlugContext context = SlugProgram.compile("func Main() {\n" +
+                "    for (int i = 0; i < 10; i = i + 1) {\n" +
+                "    }\n" +
+                "}\n").newContext();
+
+        // Cancelled before it runs, far fewer loop iterations than the slow limits wait for
+        context.cancel();
+
+        try {
+            context.execute();
+            fail("the execution wasn't cancelled");
+        } catch (ExecutionAbortedException e) {
+            assertEquals(ExecutionAbortedException.Reason.CANCELLED, e.getReason());
+        }
+
+        // A cancellation only applies to a single execution
+        context.execute();
+    }
+
+    private static void assertInstructionLimit(String source) {
+        SlugContext context = SlugProgram.compile(source).newContext();
+
+        // The timeout is only a safety net, the instruction limit needs to stop the loop long before it
+        ExecutionLimits limits = new ExecutionLimits();
+        limits.setMaxInstructions(1000);
+        limits.setTimeout(10, TimeUnit.SECONDS);
+        context.setLimits(limits);
+
+        try {
+            context.execute();
+            fail("the loop wasn't stopped");
+        } catch (ExecutionAbortedException e) {
+            assertEquals(ExecutionAbortedException.Reason.INSTRUCTION_LIMIT, e.getReason());
+        }
+    }
+}
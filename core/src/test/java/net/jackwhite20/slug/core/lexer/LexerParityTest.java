@@ -0,0 +1,105 @@
+/*
+ * Copyright 2018 "JackWhite20"
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.jackwhite20.slug.core.lexer;
+
+import net.jackwhite20.slug.core.Scripts;
+import net.jackwhite20.slug.lexer.Token;
+import net.jackwhite20.slug.lexer.TokenType;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * The table driven lexer has to produce exactly the tokens of the original lexer.
+ *
+ * @author Philip 'JackWhite20' <silencephil@gmail.com>
+ */
+public class LexerParityTest {
+
+    private static final String[] SCRIPTS = {"basic", "scope", "recursion", "types", "fold", "template", "prec"};
+
+    @Test(timeout = 5000)
+    public void testScripts() throws IOException {
+        for (String script : SCRIPTS) {
+            assertSameTokens(Scripts.resource(script + ".slug"));
+        }
+    }
+
+    @Test(timeout = 5000)
+    public void testAllTokens() {
+        assertSameTokens("class Point {\n}\n## a comment ##\nfunc Main(int a, bool b, string c) {\n" +
+                "    call new return\n    if (a >= 10) {} else {}\n    while (a != 0) { a = a - 1; }\n    if (a == 1) {}\n" +
+                "    if (a <= 20) {}\n" +
+                "    for (int i = 0; i < 3; i = i * 2 / 1 + 1) {}\n    b = TRUE\n    b = false\n" +
+                "    c = \"h\u00e9llo w\u00f6rld \u2713 $a ${a + 1} ## not a comment ##\"\n    WriteLine(2147483647)\n}\n");
+    }
+
+    @Test(timeout = 5000)
+    public void testKeywordPrefixes() {
+        assertSameTokens("in integer ifx forever whiles funcs classes returned newer strings booleans truely falsey");
+    }
+
+    @Test(timeout = 5000)
+    public void testOnlyComment() {
+        assertSameTokens("  \n\t ## only a comment ##  \n");
+    }
+
+    @Test(timeout = 5000)
+    public void testUnterminatedString() {
+        assertBothFail("WriteLine(\"never closed)");
+    }
+
+    @Test(timeout = 5000)
+    public void testUnterminatedComment() {
+        assertBothFail("## never closed");
+    }
+
+    private static void assertSameTokens(String source) {
+        assertEquals(tokens(new Lexer(source)), tokens(new TableLexer(source)));
+    }
+
+    private static void assertBothFail(String source) {
+        assertFails(new Lexer(source));
+        assertFails(new TableLexer(source));
+    }
+
+    private static void assertFails(TokenSource tokenSource) {
+        try {
+            tokens(tokenSource);
+            fail(tokenSource.getClass().getSimpleName() + " accepted broken source");
+        } catch (IllegalStateException expected) {
+            // Both lexers report broken strings and comments the same way
+        }
+    }
+
+    private static List<Token> tokens(TokenSource tokenSource) {
+        List<Token> tokens = new ArrayList<>();
+
+        Token token;
+        do {
+            token = tokenSource.nextToken();
+            tokens.add(token);
+        } while (token.getTokenType() != TokenType.NONE);
+
+        return tokens;
+    }
+}
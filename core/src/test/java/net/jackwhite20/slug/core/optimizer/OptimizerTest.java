@@ -0,0 +1,150 @@
+/*
+ * Copyright 2018 "JackWhite20"
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.jackwhite20.slug.core.optimizer;
+
+import net.jackwhite20.slug.ast.BinaryNode;
+import net.jackwhite20.slug.ast.BlockNode;
+import net.jackwhite20.slug.ast.BoolNode;
+import net.jackwhite20.slug.ast.FunctionCallNode;
+import net.jackwhite20.slug.ast.FunctionNode;
+import net.jackwhite20.slug.ast.IfNode;
+import net.jackwhite20.slug.ast.MainNode;
+import net.jackwhite20.slug.ast.Node;
+import net.jackwhite20.slug.ast.NumberNode;
+import net.jackwhite20.slug.ast.StringNode;
+import net.jackwhite20.slug.ast.VariableDeclarationAssignNode;
+import net.jackwhite20.slug.ast.VariableUsageNode;
+import net.jackwhite20.slug.core.Scripts;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks the trees the default passes leave behind. The output of the optimized scripts is compared with the
+ * unoptimized one by the parity test.
+ *
+ * @author Philip 'JackWhite20' <silencephil@gmail.com>
+ */
+public class OptimizerTest {
+
+    @Test
+    public void testFoldArithmetic() {
+        assertEquals(10, ((NumberNode) initializer("int x = 2 * 3 + 4")).getValue());
+        assertEquals(7, ((NumberNode) initializer("int x = -(3 - 10)")).getValue());
+        assertEquals(-3, ((NumberNode) initializer("int x = 10 - 4 - 9")).getValue());
+    }
+
+    @Test
+    public void testFoldComparisons() {
+        assertTrue(((BoolNode) initializer("bool b = 1 < 2")).isValue());
+        assertTrue(((BoolNode) initializer("bool b = \"a\" == \"a\"")).isValue());
+        assertTrue(((BoolNode) initializer("bool b = true != false")).isValue());
+    }
+
+    @Test
+    public void testFoldTemplate() {
+        StringNode template = (StringNode) initializer("string t = \"sum ${2 + 9} ${1 < 2}\"");
+
+        assertNull(template.getParts());
+        assertEquals("sum 11 true", template.getValue());
+    }
+
+    @Test
+    public void testKeepDivisionByZero() {
+        // Folding it would fail while compiling instead of when it runs
+        assertTrue(initializer("int x = 1 / 0") instanceof BinaryNode);
+    }
+
+    @Test
+    public void testSimplifyIdentities() {
+        assertEquals("v", ((VariableUsageNode) initializer("int x = v * 1 + 0")).getVariableName());
+        assertEquals("v", ((VariableUsageNode) initializer("int x = v / 1 - 0")).getVariableName());
+        assertEquals(0, ((NumberNode) initializer("int x = v * 0")).getValue());
+    }
+
+    @Test
+    public void testKeepConversions() {
+        // Adding 0 to a string concatenates, so it can't be dropped
+        assertTrue(initializer("string x = s + 0") instanceof BinaryNode);
+    }
+
+    @Test
+    public void testConstantIfKeepsTakenBranch() {
+        List<Node> statements = main("if (1 < 2) {\n WriteLine(\"yes\")\n} else {\n WriteLine(\"no\")\n}");
+
+        assertEquals(1, statements.size());
+        BlockNode branch = (BlockNode) statements.get(0);
+        assertEquals("yes", ((StringNode) ((FunctionCallNode) branch.getStatements().get(0)).getParameter().get(0)).getValue());
+    }
+
+    @Test
+    public void testConstantIfWithoutElseIsRemoved() {
+        assertNoneOf(main("if (2 < 1) {\n WriteLine(\"no\")\n}"), IfNode.class);
+    }
+
+    @Test
+    public void testFalseWhileIsRemoved() {
+        assertEquals(0, main("while (3 > 4) {\n WriteLine(\"no\")\n}").size());
+    }
+
+    @Test
+    public void testFalseForKeepsDeclaration() {
+        List<Node> statements = main("for (int i = 0; 1 > 2; i = i + 1) {\n WriteLine(\"no\")\n}");
+
+        assertEquals(1, statements.size());
+        assertEquals("i", ((VariableDeclarationAssignNode) statements.get(0)).getVariableName());
+    }
+
+    @Test
+    public void testUnoptimizedTreeIsUnchanged() {
+        List<Node> statements = main("if (1 < 2) {\n WriteLine(\"yes\")\n}", Optimizer.none());
+
+        assertTrue(statements.get(0) instanceof IfNode);
+    }
+
+    private static Node initializer(String declaration) {
+        List<Node> statements = main(declaration);
+
+        return ((VariableDeclarationAssignNode) statements.get(statements.size() - 1)).getRight();
+    }
+
+    private static List<Node> main(String body) {
+        return main(body, Optimizer.defaults());
+    }
+
+    /**
+     * Parses the body as the main function after declaring an int v and a string s.
+     */
+    private static List<Node> main(String body, Optimizer optimizer) {
+        String source = "int v = 3\nstring s = \"s\"\n\nfunc Main() {\n" + body + "\n}\n";
+
+        MainNode mainNode = Scripts.parse(source, optimizer);
+        FunctionNode main = (FunctionNode) mainNode.getFunctions().get(0);
+
+        return main.getChildren().getStatements();
+    }
+
+    private static void assertNoneOf(List<Node> statements, Class<? extends Node> type) {
+        for (Node statement : statements) {
+            assertTrue(statement.getClass().getSimpleName(), !type.isInstance(statement));
+        }
+    }
+}
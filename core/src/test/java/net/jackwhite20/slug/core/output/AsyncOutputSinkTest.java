@@ -0,0 +1,117 @@
+/*
+ * Copyright 2018 "JackWhite20"
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.jackwhite20.slug.core.output;
+
+import net.jackwhite20.slug.output.OutputSink;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * @author Philip 'JackWhite20' <silencephil@gmail.com>
+ */
+public class AsyncOutputSinkTest {
+
+    @Test(timeout = 5000)
+    public void testLinesInOrder() {
+        ListSink target = new ListSink();
+
+        AsyncOutputSink sink = new AsyncOutputSink(target, 4, 0, TimeUnit.MILLISECONDS);
+        for (int i = 0; i < 100; i++) {
+            sink.writeLine("line " + i);
+        }
+        sink.flush();
+
+        assertEquals(100, target.lines.size());
+        assertEquals("line 99", target.lines.get(99));
+
+        sink.close();
+    }
+
+    @Test(timeout = 5000)
+    public void testErrorIsThrownByFlush() {
+        AsyncOutputSink sink = new AsyncOutputSink(new FailingSink(), 1, 0, TimeUnit.MILLISECONDS);
+
+        // The writer thread keeps dropping the lines, so a full buffer doesn't block
+        for (int i = 0; i < 100; i++) {
+            try {
+                sink.writeLine("line " + i);
+            } catch (AssertionError e) {
+                assertEquals("broken sink", e.getMessage());
+            }
+        }
+
+        try {
+            sink.flush();
+            fail("the failure wasn't thrown");
+        } catch (AssertionError e) {
+            assertEquals("broken sink", e.getMessage());
+        }
+    }
+
+    @Test(timeout = 5000)
+    public void testCloseAfterError() {
+        AsyncOutputSink sink = new AsyncOutputSink(new FailingSink(), 1, 0, TimeUnit.MILLISECONDS);
+
+        try {
+            sink.writeLine("line");
+            sink.close();
+            fail("the failure wasn't thrown");
+        } catch (AssertionError e) {
+            assertEquals("broken sink", e.getMessage());
+        }
+    }
+
+    private static final class ListSink implements OutputSink {
+
+        private final List<String> lines = new ArrayList<>();
+
+        @Override
+        public void writeLine(String line) {
+            lines.add(line);
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private static final class FailingSink implements OutputSink {
+
+        @Override
+        public void writeLine(String line) {
+            throw new AssertionError("broken sink");
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2018 "JackWhite20"
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.jackwhite20.slug.core.parser;
+
+import net.jackwhite20.slug.ast.BinaryNode;
+import net.jackwhite20.slug.ast.FunctionNode;
+import net.jackwhite20.slug.ast.MainNode;
+import net.jackwhite20.slug.ast.NumberNode;
+import net.jackwhite20.slug.ast.VariableDeclarationAssignNode;
+import net.jackwhite20.slug.ast.specialized.UninitializedBinaryNode;
+import net.jackwhite20.slug.core.interpreter.Specializer;
+import net.jackwhite20.slug.core.lexer.TableLexer;
+import net.jackwhite20.slug.core.optimizer.Optimizer;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Parses generated expressions which are far deeper than the Java stack could handle with one frame per level.
+ *
+ * @author Philip 'JackWhite20' <silencephil@gmail.com>
+ */
+public class DeepExpressionTest {
+
+    private static final int NESTING = 10000;
+    private static final int CHAIN = 50000;
+
+    @Test
+    public void testDeepNestFolded() {
+        assertEquals(NESTING + 1, ((NumberNode) initializer(nest("1"), Optimizer.defaults())).getValue());
+    }
+
+    @Test
+    public void testDeepNestUnoptimized() {
+        assertTrue(initializer(nest("1"), Optimizer.none()) instanceof BinaryNode);
+    }
+
+    @Test
+    public void testFlatChainFolded() {
+        assertEquals(CHAIN, ((NumberNode) initializer(chain("1"), Optimizer.defaults())).getValue());
+    }
+
+    @Test
+    public void testFlatChainUnoptimized() {
+        assertTrue(initializer(chain("1"), Optimizer.none()) instanceof BinaryNode);
+    }
+
+    @Test
+    public void testFlatVariableChain() {
+        // Not foldable, every operand stays a variable usage which needs to be resolved
+        assertTrue(initializer(chain("y"), Optimizer.defaults()) instanceof BinaryNode);
+    }
+
+    @Test
+    public void testDeepNestSpecialized() {
+        assertTrue(specialized(nest("y")) instanceof UninitializedBinaryNode);
+    }
+
+    @Test
+    public void testFlatVariableChainSpecialized() {
+        assertTrue(specialized(chain("y")) instanceof UninitializedBinaryNode);
+    }
+
+    /**
+     * Builds operand + (operand + ... 1).
+     */
+    private static String nest(String operand) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < NESTING; i++) {
+            builder.append(operand).append(" + (");
+        }
+        builder.append('1');
+        for (int i = 0; i < NESTING; i++) {
+            builder.append(')');
+        }
+
+        return builder.toString();
+    }
+
+    /**
+     * Builds operand + operand + ... operand.
+     */
+    private static String chain(String operand) {
+        StringBuilder builder = new StringBuilder(operand);
+        for (int i = 1; i < CHAIN; i++) {
+            builder.append(" + ").append(operand);
+        }
+
+        return builder.toString();
+    }
+
+    private static Object specialized(String expression) {
+        MainNode mainNode = parse(expression, Optimizer.defaults());
+        new Specializer().specialize(mainNode);
+
+        return initializer(mainNode);
+    }
+
+    private static Object initializer(String expression, Optimizer optimizer) {
+        return initializer(parse(expression, optimizer));
+    }
+
+    private static MainNode parse(String expression, Optimizer optimizer) {
+        String source = "func Main() {\n" +
+                "    int y = 1\n" +
+                "    int x = " + expression + "\n" +
+                "}\n";
+
+        return (MainNode) new Parser(new TableLexer(source), optimizer).parse();
+    }
+
+    private static Object initializer(MainNode mainNode) {
+        FunctionNode main = (FunctionNode) mainNode.getFunctions().get(0);
+
+        return ((VariableDeclarationAssignNode) main.getChildren().getStatements().get(1)).getRight();
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2018 "JackWhite20"
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.jackwhite20.slug.script;
+
+import net.jackwhite20.slug.core.SlugProgram;
+
+import javax.script.CompiledScript;
+import javax.script.ScriptContext;
+import javax.script.ScriptEngine;
+import javax.script.ScriptException;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * A compiled Slug script. It holds the immutable program only, so it can be cached and evaluated by multiple
+ * threads at the same time.
+ *
+ * @author Philip 'JackWhite20' <silencephil@gmail.com>
+ */
+class SlugCompiledScript extends CompiledScript {
+
+    private final SlugScriptEngine engine;
+    private final SlugProgram program;
+
+    SlugCompiledScript(SlugScriptEngine engine, SlugProgram program) {
+        this.engine = engine;
+        this.program = program;
+    }
+
+    @Override
+    public Object eval(ScriptContext context) throws ScriptException {
+        // The parameters of the 'Main' function are taken from the bindings
+        List<String> parameters = program.getParameterNames("Main");
+        Object[] arguments = new Object[parameters != null ? parameters.size() : 0];
+        for (int i = 0; i < arguments.length; i++) {
+            String name = parameters.get(i);
+            if (context.getAttributesScope(name) == -1) {
+                throw new ScriptException("no binding for parameter " + name + " of the 'Main' function");
+            }
+
+            arguments[i] = context.getAttribute(name);
+        }
+
+        engine.setProgram(program);
+
+        try {
+            engine.newContext(program, context).execute(arguments);
+        } catch (RuntimeException e) {
+            throw new ScriptException(e);
+        } finally {
+            flush(context);
+        }
+
+        return null;
+    }
+
+    static void flush(ScriptContext context) throws ScriptException {
+        try {
+            context.getWriter().flush();
+        } catch (IOException e) {
+            throw new ScriptException(e);
+        }
+    }
+
+    @Override
+    public ScriptEngine getEngine() {
+        return engine;
+    }
+}
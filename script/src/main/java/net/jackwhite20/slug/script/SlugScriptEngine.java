@@ -0,0 +1,224 @@
+/*
+ * Copyright 2018 "JackWhite20"
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.jackwhite20.slug.script;
+
+import net.jackwhite20.slug.core.SlugContext;
+import net.jackwhite20.slug.core.SlugProgram;
+import net.jackwhite20.slug.core.input.ReaderInputSource;
+import net.jackwhite20.slug.core.output.WriterOutputSink;
+import net.jackwhite20.slug.exception.SlugRuntimeException;
+import net.jackwhite20.slug.input.InputSource;
+
+import javax.script.AbstractScriptEngine;
+import javax.script.Bindings;
+import javax.script.Compilable;
+import javax.script.CompiledScript;
+import javax.script.Invocable;
+import javax.script.ScriptContext;
+import javax.script.ScriptEngineFactory;
+import javax.script.ScriptException;
+import javax.script.SimpleBindings;
+import java.io.IOException;
+import java.io.Reader;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.util.List;
+
+/**
+ * A javax.script engine for Slug.
+ * <p>
+ * Scripts are compiled into a {@link SlugProgram} once, so a {@link CompiledScript} can be cached and evaluated
+ * again without parsing it. The parameters of the 'Main' function are taken from the bindings with the same name.
+ * The functions of the last evaluated script can be called through {@link Invocable}, every call starts with
+ * freshly initialized global variables.
+ *
+ * @author Philip 'JackWhite20' <silencephil@gmail.com>
+ */
+public class SlugScriptEngine extends AbstractScriptEngine implements Compilable, Invocable {
+
+    private final SlugScriptEngineFactory factory;
+
+    // The program of the last evaluated script, its functions can be invoked
+    private volatile SlugProgram program;
+
+    // The reader of the script context and its buffered input, which is shared by all evaluations
+    private Reader inputReader;
+    private InputSource input;
+
+    SlugScriptEngine(SlugScriptEngineFactory factory) {
+        this.factory = factory;
+    }
+
+    @Override
+    public Object eval(String script, ScriptContext context) throws ScriptException {
+        return compile(script).eval(context);
+    }
+
+    @Override
+    public Object eval(Reader reader, ScriptContext context) throws ScriptException {
+        return eval(read(reader), context);
+    }
+
+    @Override
+    public Bindings createBindings() {
+        return new SimpleBindings();
+    }
+
+    @Override
+    public ScriptEngineFactory getFactory() {
+        return factory;
+    }
+
+    @Override
+    public CompiledScript compile(String script) throws ScriptException {
+        try {
+            return new SlugCompiledScript(this, SlugProgram.compile(script));
+        } catch (RuntimeException e) {
+            throw new ScriptException(e);
+        }
+    }
+
+    @Override
+    public CompiledScript compile(Reader script) throws ScriptException {
+        return compile(read(script));
+    }
+
+    @Override
+    public Object invokeFunction(String name, Object... args) throws ScriptException, NoSuchMethodException {
+        SlugProgram program = this.program;
+        if (program == null || program.getParameterNames(name) == null) {
+            throw new NoSuchMethodException(name);
+        }
+
+        try {
+            newContext(program, context).invoke(name, args);
+        } catch (RuntimeException e) {
+            throw new ScriptException(e);
+        } finally {
+            SlugCompiledScript.flush(context);
+        }
+
+        // Slug functions don't return values yet
+        return null;
+    }
+
+    @Override
+    public Object invokeMethod(Object thiz, String name, Object... args) {
+        throw new IllegalArgumentException("slug has no objects to invoke methods on");
+    }
+
+    @Override
+    public <T> T getInterface(Class<T> clasz) {
+        if (clasz == null || !clasz.isInterface()) {
+            throw new IllegalArgumentException("interface expected");
+        }
+
+        SlugProgram program = this.program;
+        if (program == null) {
+            return null;
+        }
+
+        // Every abstract method needs a function with the same name and parameter count which returns nothing
+        for (Method method : clasz.getMethods()) {
+            if (!Modifier.isAbstract(method.getModifiers())) {
+                continue;
+            }
+
+            List<String> parameters = program.getParameterNames(method.getName());
+            if (parameters == null || parameters.size() != method.getParameterCount() || method.getReturnType() != void.class) {
+                return null;
+            }
+        }
+
+        Object proxy = Proxy.newProxyInstance(clasz.getClassLoader(), new Class<?>[]{clasz}, (instance, method, args) -> {
+            if (method.getDeclaringClass() == Object.class) {
+                switch (method.getName()) {
+                    case "equals":
+                        return instance == args[0];
+                    case "hashCode":
+                        return System.identityHashCode(instance);
+                    default:
+                        return "SlugProxy[" + clasz.getName() + "]";
+                }
+            }
+
+            ScriptContext context = this.context;
+            try {
+                newContext(program, context).invoke(method.getName(), args != null ? args : new Object[0]);
+            } finally {
+                // The interface doesn't declare the checked script exception, a proxy would wrap it undeclared
+                try {
+                    context.getWriter().flush();
+                } catch (IOException e) {
+                    throw new SlugRuntimeException("could not flush the output: " + e.getMessage());
+                }
+            }
+
+            return null;
+        });
+
+        return clasz.cast(proxy);
+    }
+
+    @Override
+    public <T> T getInterface(Object thiz, Class<T> clasz) {
+        throw new IllegalArgumentException("slug has no objects to implement interfaces");
+    }
+
+    /**
+     * Creates a context which reads the input of the program from the reader of the script context and writes
+     * its output to the writer of the script context.
+     */
+    SlugContext newContext(SlugProgram program, ScriptContext context) {
+        SlugContext slugContext = program.newContext();
+        slugContext.setInput(input(context.getReader()));
+        slugContext.setOutput(new WriterOutputSink(context.getWriter()));
+
+        return slugContext;
+    }
+
+    private synchronized InputSource input(Reader reader) {
+        // A new buffer would lose the input the previous one has already read
+        if (reader != inputReader) {
+            inputReader = reader;
+            input = new ReaderInputSource(reader);
+        }
+
+        return input;
+    }
+
+    void setProgram(SlugProgram program) {
+        this.program = program;
+    }
+
+    private static String read(Reader reader) throws ScriptException {
+        StringBuilder builder = new StringBuilder();
+        char[] buffer = new char[8192];
+
+        try {
+            int read;
+            while ((read = reader.read(buffer)) != -1) {
+                builder.append(buffer, 0, read);
+            }
+        } catch (IOException e) {
+            throw new ScriptException(e);
+        }
+
+        return builder.toString();
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2018 "JackWhite20"
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.jackwhite20.slug.script;
+
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineFactory;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Makes the {@link SlugScriptEngine} available through the javax.script {@link javax.script.ScriptEngineManager}
+ * under the name "slug".
+ *
+ * @author Philip 'JackWhite20' <silencephil@gmail.com>
+ */
+public class SlugScriptEngineFactory implements ScriptEngineFactory {
+
+    private static final String ENGINE_NAME = "Slug Script Engine";
+    private static final String LANGUAGE_NAME = "Slug";
+    private static final String VERSION = "1.0.0";
+
+    private static final List<String> NAMES = Collections.unmodifiableList(Arrays.asList("slug", "Slug"));
+    private static final List<String> EXTENSIONS = Collections.singletonList("slug");
+    private static final List<String> MIME_TYPES = Collections.singletonList("application/x-slug");
+
+    @Override
+    public String getEngineName() {
+        return ENGINE_NAME;
+    }
+
+    @Override
+    public String getEngineVersion() {
+        return VERSION;
+    }
+
+    @Override
+    public List<String> getExtensions() {
+        return EXTENSIONS;
+    }
+
+    @Override
+    public List<String> getMimeTypes() {
+        return MIME_TYPES;
+    }
+
+    @Override
+    public List<String> getNames() {
+        return NAMES;
+    }
+
+    @Override
+    public String getLanguageName() {
+        return LANGUAGE_NAME;
+    }
+
+    @Override
+    public String getLanguageVersion() {
+        return VERSION;
+    }
+
+    @Override
+    public Object getParameter(String key) {
+        switch (key) {
+            case ScriptEngine.ENGINE:
+                return getEngineName();
+            case ScriptEngine.ENGINE_VERSION:
+                return getEngineVersion();
+            case ScriptEngine.NAME:
+                return NAMES.get(0);
+            case ScriptEngine.LANGUAGE:
+                return getLanguageName();
+            case ScriptEngine.LANGUAGE_VERSION:
+                return getLanguageVersion();
+            case "THREADING":
+                // Compiled programs are immutable and every evaluation runs in its own context
+                return "MULTITHREADED";
+            default:
+                return null;
+        }
+    }
+
+    @Override
+    public String getMethodCallSyntax(String obj, String m, String... args) {
+        // Slug has no objects, so only the function is called
+        return m + "(" + String.join(", ", args) + ")";
+    }
+
+    @Override
+    public String getOutputStatement(String toDisplay) {
+        // Slug strings have no escape sequences, so quotes can't be displayed
+        return "WriteLine(\"" + toDisplay.replace("\"", "") + "\")";
+    }
+
+    @Override
+    public String getProgram(String... statements) {
+        StringBuilder program = new StringBuilder("func Main() {\n");
+        for (String statement : statements) {
+            program.append("    ").append(statement).append('\n');
+        }
+
+        return program.append("}\n").toString();
+    }
+
+    @Override
+    public ScriptEngine getScriptEngine() {
+        return new SlugScriptEngine(this);
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2018 "JackWhite20"
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.jackwhite20.slug.script;
+
+import net.jackwhite20.slug.exception.SlugRuntimeException;
+import org.junit.Test;
+
+import javax.script.Invocable;
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineManager;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Philip 'JackWhite20' <silencephil@gmail.com>
+ */
+public class SlugScriptEngineTest {
+
+    private static final String SCRIPT = "func Greet(string who) {\n    WriteLine(\"Hello $who\")\n}\nfunc Main() {\n}\n";
+
+    @Test
+    public void testInterface() throws Exception {
+        ScriptEngine engine = new ScriptEngineManager().getEngineByName("slug");
+        StringWriter writer = new StringWriter();
+        engine.getContext().setWriter(writer);
+        engine.eval(SCRIPT);
+
+        ((Invocable) engine).getInterface(Greeter.class).Greet("Proxy");
+
+        assertEquals("Hello Proxy" + System.lineSeparator(), writer.toString());
+    }
+
+    @Test(expected = SlugRuntimeException.class)
+    public void testInterfaceFlushFailure() throws Exception {
+        ScriptEngine engine = new ScriptEngineManager().getEngineByName("slug");
+        engine.eval(SCRIPT);
+
+        // Only the writer of the call fails, evaluating the script flushes as well
+        engine.getContext().setWriter(new Writer() {
+
+            @Override
+            public void write(char[] buffer, int offset, int length) {
+            }
+
+            @Override
+            public void flush() throws IOException {
+                throw new IOException("broken writer");
+            }
+
+            @Override
+            public void close() {
+            }
+        });
+
+        ((Invocable) engine).getInterface(Greeter.class).Greet("Proxy");
+    }
+
+    public interface Greeter {
+
+        void Greet(String who);
+    }
+}